@@ -0,0 +1,254 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An access file on disk, which is only replaced if its content changes.<p>
+ * Content is staged in memory via {@link #openChannel()} and fingerprinted (SHA-256) while it is written. When the
+ * channel is closed, the fingerprint is compared with the one of the current file: Unchanged content is discarded
+ * without any disk I/O, changed content is written to a temporary file, which atomically replaces the access file.
+ * Incomplete content (e.g., if rendering failed) is dropped via {@link StagingChannel#discard()}.
+ * Thus, the SVN server (<tt>mod_authz_svn</tt> / <tt>svnserve</tt>) never reads a partially written file and
+ * does not need to re-parse an unchanged file.
+ * @author El-Sharkawy
+ *
+ */
+public class AccessFile {
+
+    private static final Logger LOGGER = LogManager.getLogger(AccessFile.class);
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int INITIAL_SIZE = 64 * 1024;
+
+    private final Path path;
+
+    // Guarded by this: fingerprint and attributes of the file as written (or read) the last time
+    private byte[] fingerprint;
+    private FileTime lastModified;
+    private long size = -1;
+
+    private long writes;
+    private long skippedWrites;
+
+    /**
+     * Channel that stages the content in memory and hands it over to the {@link AccessFile} when it is closed.
+     * @author El-Sharkawy
+     *
+     */
+    public class StagingChannel implements GatheringByteChannel {
+
+        private final MessageDigest digest = createDigest();
+        private ByteBuffer staged = ByteBuffer.allocate(INITIAL_SIZE);
+        private boolean open = true;
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return (int) write(new ByteBuffer[] {src}, 0, 1);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            
+            // Enlarge the buffer at most once per call
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                total += srcs[i].remaining();
+            }
+            if (staged.remaining() < total) {
+                ByteBuffer larger = ByteBuffer.allocate((int) Math.max(2L * staged.capacity(),
+                    staged.position() + total));
+                staged.flip();
+                larger.put(staged);
+                staged = larger;
+            }
+            
+            for (int i = offset; i < offset + length; i++) {
+                digest.update(srcs[i].duplicate());
+                staged.put(srcs[i]);
+            }
+            return total;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (open) {
+                open = false;
+                staged.flip();
+                commit(staged, digest.digest());
+            }
+        }
+        
+        /**
+         * Closes the channel without replacing the access file, e.g., because the content is incomplete. Has no
+         * effect if the channel is already closed.
+         */
+        public void discard() {
+            if (open) {
+                open = false;
+                staged = null;
+                LOGGER.debug("Discarded staged content of {}", path);
+            }
+        }
+    }
+
+    /**
+     * Creates a new access file.
+     * @param path The location of the access file, does not need to exist.
+     */
+    public AccessFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns a channel for the new content of the access file. The access file is replaced when the channel is
+     * closed and the content differs from the current file, it is not replaced if the channel is discarded.
+     * @return A channel, which stages the content in memory.
+     */
+    public StagingChannel openChannel() {
+        return new StagingChannel();
+    }
+
+    /**
+     * Returns a writer for the new content of the access file, which is encoded as UTF-8.
+     * @return A writer, which stages the content in memory.
+     * @see #openChannel()
+     */
+    public Writer openWriter() {
+        return Channels.newWriter(openChannel(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces the access file if the new content differs from the current one.
+     * @param content The new content, ready to be read.
+     * @param newFingerprint The fingerprint of the new content.
+     * @throws IOException If the file could not be written.
+     */
+    private synchronized void commit(ByteBuffer content, byte[] newFingerprint) throws IOException {
+        // Other courses may use the same access file (and temporary file)
+        Lock lock = PathLockManager.getInstance().lock(path);
+        try {
+            if (Arrays.equals(newFingerprint, currentFingerprint())) {
+                skippedWrites++;
+                LOGGER.debug("Content of {} is unchanged, skipped writing", path);
+                return;
+            }
+
+            int length = content.remaining();
+            Path tmpFile = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                
+                    while (content.hasRemaining()) {
+                        channel.write(content);
+                    }
+                    // Content must be on disk before the rename, otherwise a crash may leave an empty access file
+                    channel.force(true);
+                }
+                try {
+                    Files.move(tmpFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmpFile, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(tmpFile);
+                throw e;
+            }
+            writes++;
+            fingerprint = newFingerprint;
+            lastModified = Files.getLastModifiedTime(path);
+            size = length;
+            LOGGER.debug("Wrote {} bytes to {}", length, path);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the fingerprint of the current access file. The file is only hashed if it was not written by this
+     * instance or if it was changed by others.
+     * @return The fingerprint of the file or <tt>null</tt> if the file does not exist.
+     * @throws IOException If the file could not be read.
+     */
+    private byte[] currentFingerprint() throws IOException {
+        if (!Files.exists(path)) {
+            fingerprint = null;
+        } else if (null == fingerprint || Files.size(path) != size
+            || !Files.getLastModifiedTime(path).equals(lastModified)) {
+
+            MessageDigest digest = createDigest();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            fingerprint = digest.digest();
+            lastModified = Files.getLastModifiedTime(path);
+            size = Files.size(path);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Creates the algorithm to compute fingerprints.
+     * @return A new message digest.
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the number of times the access file was replaced.
+     * @return The number of writes.
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Returns the number of times the access file was not replaced, because its content was unchanged.
+     * @return The number of skipped writes.
+     */
+    public synchronized long getSkippedWrites() {
+        return skippedWrites;
+    }
+}
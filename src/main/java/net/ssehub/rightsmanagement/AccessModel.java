@@ -0,0 +1,418 @@
+package net.ssehub.rightsmanagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory model of an access file (authz format of SVN) as read by the {@link AccessReader}.<p>
+ * The model contains the group definitions, aliases, and path sections. It computes the rights of a user for any path
+ * like the SVN server:
+ * <ul>
+ *   <li>The rights of a user inside a section are the union of all entries that match the user (user name,
+ *       <tt>&#64;group</tt>, <tt>&amp;alias</tt>, <tt>*</tt>, <tt>$authenticated</tt>, and their inversions via
+ *       <tt>~</tt>).</li>
+ *   <li>Paths without an own section inherit the rights of their nearest parent. On the same level, repository
+ *       specific sections (<tt>[repository:/path]</tt>) have precedence over general sections (<tt>[/path]</tt>),
+ *       which have precedence over glob sections (<tt>[:glob:repository:/path/*]</tt>).</li>
+ *   <li>Paths without any matching section grant no rights.</li>
+ * </ul>
+ * Models returned by the {@link AccessReader} are not changed anymore, thus, they can be queried concurrently.
+ * @author El-Sharkawy
+ *
+ */
+public class AccessModel {
+
+    /**
+     * Right to read a path.
+     */
+    public static final int READ = 1;
+
+    /**
+     * Right to write a path.
+     */
+    public static final int WRITE = 2;
+
+    /**
+     * No rights at all.
+     */
+    public static final int NONE = 0;
+
+    static final String GLOB_PREFIX = ":glob:";
+    private static final String ALL_USERS = "*";
+    private static final String AUTHENTICATED = "$authenticated";
+    private static final String ANONYMOUS = "$anonymous";
+
+    private final Map<String, List<String>> groups = new LinkedHashMap<>();
+    private final Map<String, String> aliases = new HashMap<>();
+    private final Map<String, Section> sections = new LinkedHashMap<>();
+    // Pattern (without glob prefix) -> section
+    private final Map<String, Section> globSections = new LinkedHashMap<>();
+    private final Set<String> users = new LinkedHashSet<>();
+
+    // Computed after parsing: group -> all users (also of nested groups), read-only afterwards
+    private Map<String, Set<String>> resolvedGroups;
+
+    /**
+     * The entries of one section: (Interned) subjects and their rights in the order of the file.
+     */
+    static class Section {
+
+        private final Pattern glob;
+        private final Map<String, Integer> entries = new LinkedHashMap<>();
+
+        /**
+         * Creates an empty section.
+         * @param glob The compiled glob pattern, <tt>null</tt> for a literal section.
+         */
+        private Section(Pattern glob) {
+            this.glob = glob;
+        }
+
+        /**
+         * Adds an entry to the section. Entries of the same subject replace previous entries.
+         * @param subject The user, group, ... as written in the file.
+         * @param right The rights, combination of {@link AccessModel#READ} and {@link AccessModel#WRITE}.
+         */
+        private void add(String subject, int right) {
+            // Replaced entries keep their position
+            entries.put(subject, right);
+        }
+    }
+
+    /**
+     * Creates an empty model, use the {@link AccessReader} to fill it.
+     */
+    AccessModel() {}
+
+    /**
+     * Part of the parsing: Defines a group.
+     * @param group The name of the group.
+     * @param members The members as written in the file (users, <tt>&#64;groups</tt>, <tt>&amp;aliases</tt>).
+     */
+    void addGroup(String group, List<String> members) {
+        groups.put(group, members);
+        for (String member : members) {
+            if (isUser(member)) {
+                users.add(member);
+            }
+        }
+        resolvedGroups = null;
+    }
+
+    /**
+     * Part of the parsing: Defines an alias.
+     * @param alias The name of the alias.
+     * @param user The user name.
+     */
+    void addAlias(String alias, String user) {
+        aliases.put(alias, user);
+        users.add(user);
+        resolvedGroups = null;
+    }
+
+    /**
+     * Part of the parsing: Returns the section to add entries to, creates it if it is not defined, yet.
+     * @param name The name of the section as written between the brackets.
+     * @return The section.
+     */
+    Section getOrCreateSection(String name) {
+        Section section = sections.get(name);
+        if (null == section) {
+            if (name.startsWith(GLOB_PREFIX)) {
+                String pattern = name.substring(GLOB_PREFIX.length());
+                section = globSections.get(pattern);
+                if (null == section) {
+                    section = new Section(compileGlob(pattern));
+                    globSections.put(pattern, section);
+                }
+            } else {
+                section = new Section(null);
+                sections.put(name, section);
+            }
+        }
+        return section;
+    }
+
+    /**
+     * Part of the parsing: Adds an entry to a section.
+     * @param section The section.
+     * @param subject The user, group, ... as written in the file.
+     * @param rights A combination of {@link #READ} and {@link #WRITE}.
+     */
+    void addEntry(Section section, String subject, int rights) {
+        section.add(subject, rights);
+        String user = subject.startsWith("~") ? subject.substring(1) : subject;
+        if (isUser(user)) {
+            users.add(user);
+        }
+    }
+
+    /**
+     * Checks if a subject denotes a single user (and not a group, alias, or special token).
+     * @param subject A subject as written in the file.
+     * @return <tt>true</tt> if the subject is the name of a user.
+     */
+    private static boolean isUser(String subject) {
+        return !subject.startsWith("@") && !subject.startsWith("&") && !subject.startsWith("$")
+            && !ALL_USERS.equals(subject);
+    }
+
+    /**
+     * Compiles a glob pattern of a section: <tt>*</tt> matches within a path segment, <tt>**</tt> across segments,
+     * <tt>?</tt> matches one character, <tt>\</tt> escapes the next character.
+     * @param pattern The glob pattern.
+     * @return The pattern as regular expression.
+     */
+    private static Pattern compileGlob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                literal.append(pattern.charAt(++i));
+                continue;
+            }
+            if (c != '*' && c != '?') {
+                literal.append(c);
+                continue;
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+            } else if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Completes the parsing: Resolves the members of all groups. Afterwards, the model is not changed anymore and can
+     * be queried concurrently without locks.
+     */
+    void resolveGroups() {
+        Map<String, Set<String>> resolved = new HashMap<>();
+        for (String group : groups.keySet()) {
+            Set<String> members = new HashSet<>();
+            resolveGroup(group, members, new HashSet<>());
+            resolved.put(group, Collections.unmodifiableSet(members));
+        }
+        resolvedGroups = resolved;
+    }
+
+    /**
+     * Returns all users of a group, also of nested groups and aliases.
+     * @param group The name of the group (without <tt>&#64;</tt>).
+     * @return The user names, empty if the group is not defined.
+     */
+    public Set<String> getGroupMembers(String group) {
+        Set<String> members;
+        if (null != resolvedGroups) {
+            members = resolvedGroups.getOrDefault(group, Collections.emptySet());
+        } else {
+            // Still parsing
+            members = new HashSet<>();
+            resolveGroup(group, members, new HashSet<>());
+            members = Collections.unmodifiableSet(members);
+        }
+        return members;
+    }
+
+    /**
+     * Collects the users of a group recursively.
+     * @param group The name of the group.
+     * @param members The collected users.
+     * @param visited Already visited groups, to avoid infinite loops of cyclic definitions.
+     */
+    private void resolveGroup(String group, Set<String> members, Set<String> visited) {
+        List<String> definition = groups.get(group);
+        if (null != definition && visited.add(group)) {
+            for (String member : definition) {
+                if (member.startsWith("@")) {
+                    resolveGroup(member.substring(1), members, visited);
+                } else if (member.startsWith("&")) {
+                    String user = aliases.get(member.substring(1));
+                    if (null != user) {
+                        members.add(user);
+                    }
+                } else {
+                    members.add(member);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a subject of an entry matches the user.
+     * @param subject The subject as written in the file.
+     * @param user The user name, <tt>null</tt> for anonymous access.
+     * @return <tt>true</tt> if the entry applies to the user.
+     */
+    private boolean matches(String subject, String user) {
+        boolean result;
+        if (subject.startsWith("~")) {
+            result = !matches(subject.substring(1), user);
+        } else if (ALL_USERS.equals(subject)) {
+            result = true;
+        } else if (AUTHENTICATED.equals(subject)) {
+            result = null != user;
+        } else if (ANONYMOUS.equals(subject)) {
+            result = null == user;
+        } else if (null == user) {
+            result = false;
+        } else if (subject.startsWith("@")) {
+            result = getGroupMembers(subject.substring(1)).contains(user);
+        } else if (subject.startsWith("&")) {
+            result = user.equals(aliases.get(subject.substring(1)));
+        } else {
+            result = subject.equals(user);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the rights of a user inside a section.
+     * @param section The section.
+     * @param user The user name, <tt>null</tt> for anonymous access.
+     * @return A combination of {@link #READ} and {@link #WRITE}.
+     */
+    private int getRights(Section section, String user) {
+        int result = NONE;
+        for (Map.Entry<String, Integer> entry : section.entries.entrySet()) {
+            if (matches(entry.getKey(), user)) {
+                result |= entry.getValue();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the section, which determines the rights of a path: the section of the path or of its nearest parent.
+     * @param repository The name of the repository as used inside the access file, may be <tt>null</tt>.
+     * @param path The absolute path inside the repository, e.g., <tt>/Homework/Group</tt>.
+     * @return The section or <tt>null</tt> if no section applies.
+     */
+    private Section findSection(String repository, String path) {
+        String current = path.isEmpty() ? "/" : path;
+        while (true) {
+            String qualified = null != repository ? repository + ":" + current : current;
+            Section section = null != repository ? sections.get(qualified) : null;
+            if (null == section) {
+                section = sections.get(current);
+            }
+            Iterator<Section> globs = globSections.values().iterator();
+            while (null == section && globs.hasNext()) {
+                Section glob = globs.next();
+                if (glob.glob.matcher(qualified).matches() || glob.glob.matcher(current).matches()) {
+                    section = glob;
+                }
+            }
+            if (null != section || "/".equals(current)) {
+                return section;
+            }
+            int lastSeparator = current.lastIndexOf('/');
+            current = lastSeparator > 0 ? current.substring(0, lastSeparator) : "/";
+        }
+    }
+
+    /**
+     * Computes the rights of a user for a path.
+     * @param repository The name of the repository as used inside the access file, may be <tt>null</tt> to consider
+     *     only sections, which are not specific to a repository.
+     * @param path The absolute path inside the repository, e.g., <tt>/Homework/Group</tt>.
+     * @param user The user name, <tt>null</tt> for anonymous access.
+     * @return A combination of {@link #READ} and {@link #WRITE}, {@link #NONE} if no section applies.
+     */
+    public int getRights(String repository, String path, String user) {
+        Section section = findSection(repository, path);
+        return null != section ? getRights(section, user) : NONE;
+    }
+
+    /**
+     * Computes the rights of a user for a path, in the notation of access files.
+     * @param repository The name of the repository as used inside the access file, may be <tt>null</tt>.
+     * @param path The absolute path inside the repository, e.g., <tt>/Homework/Group</tt>.
+     * @param user The user name, <tt>null</tt> for anonymous access.
+     * @return <tt>""</tt>, <tt>"r"</tt>, <tt>"w"</tt>, or <tt>"rw"</tt>.
+     */
+    public String getRightsAsString(String repository, String path, String user) {
+        return toString(getRights(repository, path, user));
+    }
+    
+    /**
+     * Converts rights into the notation of access files.
+     * @param rights A combination of {@link #READ} and {@link #WRITE}.
+     * @return <tt>""</tt>, <tt>"r"</tt>, <tt>"w"</tt>, or <tt>"rw"</tt>.
+     */
+    static String toString(int rights) {
+        return ((rights & READ) != 0 ? "r" : "") + ((rights & WRITE) != 0 ? "w" : "");
+    }
+
+    /**
+     * Returns the entries of a literal (non-glob) section.
+     * @param section The name of the section as written between the brackets, e.g., <tt>repository:/Homework</tt>.
+     * @return Subject &rarr; rights as written in the file (normalized to <tt>r</tt>, <tt>w</tt>, <tt>rw</tt>), in the
+     *     order of the file, or <tt>null</tt> if the section does not exist.
+     */
+    public Map<String, String> getEntries(String section) {
+        Section entries = sections.get(section);
+        Map<String, String> result = null;
+        if (null != entries) {
+            result = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : entries.entries.entrySet()) {
+                result.put(entry.getKey(), toString(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the names of all literal (non-glob) sections in the order of the file.
+     * @return The names as written between the brackets, e.g., <tt>repository:/Homework</tt>.
+     */
+    public Set<String> getSections() {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    /**
+     * Returns the patterns of all glob sections in the order of the file.
+     * @return The patterns without the <tt>:glob:</tt> prefix.
+     */
+    public List<String> getGlobSections() {
+        return new ArrayList<>(globSections.keySet());
+    }
+
+    /**
+     * Returns the names of all defined groups in the order of the file.
+     * @return The group names (without <tt>&#64;</tt>).
+     */
+    public Set<String> getGroups() {
+        return Collections.unmodifiableSet(groups.keySet());
+    }
+
+    /**
+     * Returns all users, which are mentioned in the access file (as group members, aliases, or in sections).
+     * @return The user names.
+     */
+    public Set<String> getUsers() {
+        return Collections.unmodifiableSet(users);
+    }
+}
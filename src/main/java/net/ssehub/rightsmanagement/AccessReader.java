@@ -0,0 +1,283 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads access files (authz format of SVN) into an {@link AccessModel}, e.g., to verify written files or to compare
+ * the rights of different files.<p>
+ * The file is parsed as stream of bytes, only section names and (deduplicated) user and group names are decoded into
+ * strings. Thus, also large files (several megabytes) are read within few milliseconds.
+ * @author El-Sharkawy
+ *
+ */
+public class AccessReader {
+
+    private static final Logger LOGGER = LogManager.getLogger(AccessReader.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String GROUPS_SECTION = "groups";
+    private static final String ALIASES_SECTION = "aliases";
+
+    private final AccessModel model = new AccessModel();
+    private final Tokens tokens = new Tokens();
+
+    // Parsing state
+    private AccessModel.Section section;
+    private boolean inGroups;
+    private boolean inAliases;
+    private int lineNumber;
+
+    /**
+     * Deduplicates user and group names without decoding them again: Each distinct byte sequence is decoded only once.
+     * Open addressing hash table with linear probing.
+     */
+    private static class Tokens {
+
+        private byte[][] keys = new byte[1024][];
+        private String[] values = new String[1024];
+        private int size;
+
+        /**
+         * Returns the (shared) string of the token.
+         * @param buffer The buffer containing the token.
+         * @param offset The start of the token.
+         * @param length The length of the token in bytes.
+         * @return The decoded token.
+         */
+        private String get(byte[] buffer, int offset, int length) {
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + buffer[i];
+            }
+            int mask = keys.length - 1;
+            int index = (hash ^ (hash >>> 16)) & mask;
+            while (null != keys[index]) {
+                if (Arrays.equals(keys[index], 0, keys[index].length, buffer, offset, offset + length)) {
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+
+            byte[] key = Arrays.copyOfRange(buffer, offset, offset + length);
+            String value = new String(key, StandardCharsets.UTF_8);
+            keys[index] = key;
+            values[index] = value;
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+            return value;
+        }
+
+        /**
+         * Doubles the size of the table.
+         */
+        private void rehash() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[2 * oldKeys.length][];
+            values = new String[2 * oldKeys.length];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (null != oldKeys[i]) {
+                    int hash = 1;
+                    for (byte b : oldKeys[i]) {
+                        hash = 31 * hash + b;
+                    }
+                    int index = (hash ^ (hash >>> 16)) & mask;
+                    while (null != keys[index]) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Instances are created by the static read methods.
+     */
+    private AccessReader() {}
+
+    /**
+     * Reads an access file.
+     * @param file The access file to read.
+     * @return The model of the access file.
+     * @throws IOException If the file could not be read.
+     */
+    public static AccessModel read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads an access file, which is encoded as UTF-8.
+     * @param in The content of the access file, won't be closed.
+     * @return The model of the access file.
+     * @throws IOException If the stream could not be read.
+     */
+    public static AccessModel read(InputStream in) throws IOException {
+        AccessReader reader = new AccessReader();
+        reader.parse(in);
+        reader.model.resolveGroups();
+        return reader.model;
+    }
+
+    /**
+     * Splits the stream into lines and parses each line.
+     * @param in The content of the access file.
+     * @throws IOException If the stream could not be read.
+     */
+    private void parse(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int start = 0;
+        int end = 0;
+        boolean eof = false;
+        while (!eof) {
+            // Move the incomplete line to the front, enlarge the buffer if a single line does not fit
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            } else if (end == buffer.length) {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                eof = true;
+            } else {
+                end += read;
+            }
+
+            int lineStart = start;
+            for (int i = start; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    parseLine(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (eof && lineStart < end) {
+                parseLine(buffer, lineStart, end);
+                lineStart = end;
+            }
+            start = lineStart;
+        }
+    }
+
+    /**
+     * Checks if the byte is a white space.
+     * @param b The byte to check.
+     * @return <tt>true</tt> for spaces, tabs, and carriage returns.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    /**
+     * Parses one line.
+     * @param buffer The buffer containing the line.
+     * @param start The start of the line (inclusive).
+     * @param end The end of the line (exclusive), without the line break.
+     */
+    private void parseLine(byte[] buffer, int start, int end) {
+        lineNumber++;
+        if (lineNumber == 1 && end - start >= 3 && buffer[start] == (byte) 0xEF && buffer[start + 1] == (byte) 0xBB
+            && buffer[start + 2] == (byte) 0xBF) {
+            // Skip byte order mark
+            start += 3;
+        }
+        while (start < end && isWhitespace(buffer[start])) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+        if (start == end || buffer[start] == '#') {
+            return;
+        }
+
+        if (buffer[start] == '[' && buffer[end - 1] == ']') {
+            String name = new String(buffer, start + 1, end - start - 2, StandardCharsets.UTF_8);
+            inGroups = GROUPS_SECTION.equals(name);
+            inAliases = ALIASES_SECTION.equals(name);
+            section = inGroups || inAliases ? null : model.getOrCreateSection(name);
+            return;
+        }
+
+        int separator = start;
+        while (separator < end && buffer[separator] != '=') {
+            separator++;
+        }
+        int keyEnd = separator;
+        while (keyEnd > start && isWhitespace(buffer[keyEnd - 1])) {
+            keyEnd--;
+        }
+        if (separator == end || keyEnd == start) {
+            LOGGER.warn("Ignored malformed line {} of access file", lineNumber);
+            return;
+        }
+        String key = tokens.get(buffer, start, keyEnd - start);
+        int valueStart = separator + 1;
+
+        if (inGroups) {
+            model.addGroup(key, parseList(buffer, valueStart, end));
+        } else if (inAliases) {
+            while (valueStart < end && isWhitespace(buffer[valueStart])) {
+                valueStart++;
+            }
+            model.addAlias(key, tokens.get(buffer, valueStart, end - valueStart));
+        } else if (null != section) {
+            int rights = AccessModel.NONE;
+            for (int i = valueStart; i < end; i++) {
+                if (buffer[i] == 'r') {
+                    rights |= AccessModel.READ;
+                } else if (buffer[i] == 'w') {
+                    rights |= AccessModel.WRITE;
+                }
+            }
+            model.addEntry(section, key, rights);
+        } else {
+            LOGGER.warn("Ignored entry outside of a section in line {} of access file", lineNumber);
+        }
+    }
+
+    /**
+     * Parses a comma separated list of members.
+     * @param buffer The buffer containing the list.
+     * @param start The start of the list (inclusive).
+     * @param end The end of the list (exclusive).
+     * @return The trimmed, non-empty members.
+     */
+    private List<String> parseList(byte[] buffer, int start, int end) {
+        List<String> members = new ArrayList<>();
+        int memberStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer[i] == ',') {
+                int from = memberStart;
+                int to = i;
+                while (from < to && isWhitespace(buffer[from])) {
+                    from++;
+                }
+                while (to > from && isWhitespace(buffer[to - 1])) {
+                    to--;
+                }
+                if (to > from) {
+                    members.add(tokens.get(buffer, from, to - from));
+                }
+                memberStart = i + 1;
+            }
+        }
+        return members;
+    }
+}
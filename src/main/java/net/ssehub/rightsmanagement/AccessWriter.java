@@ -2,9 +2,25 @@ package net.ssehub.rightsmanagement;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
 import net.ssehub.exercisesubmitter.protocol.frontend.Group;
@@ -13,45 +29,471 @@ import net.ssehub.exercisesubmitter.protocol.frontend.User;
 import net.ssehub.rightsmanagement.model.Course;
 
 /**
- * Writes the access file (containing access right set-up) for the svn.
- * 
+ * Writes the access file (containing access right set-up) for the svn.<p>
+ * The content is encoded as UTF-8 directly into a reused, direct {@link ByteBuffer}, the fixed tokens of the access
+ * file are encoded only once. Thus, rendering produces no garbage per written line.<p>
+ * For large courses, the sections of each assignment are rendered in parallel into separate buffers, which are written
+ * in their original order with one gathering write. With a {@link FragmentCache}, only assignments, which changed
+ * since the last write, are rendered again.<p>
+ * In {@link #setCompact(boolean) compact mode}, each distinct member set of at least two members is declared once as
+ * group alias in the <tt>[groups]</tt> section and referenced via <tt>@alias</tt> in the path sections. This grants
+ * exactly the same rights, but shrinks the access file for team assignments with stable teams.<p>
+ * With {@link #setGlobRules(boolean) glob rules}, assignments, which grant no rights to their members (invisible or
+ * in review), are written as one glob section (SVN 1.10+) instead of one section per group.
+ *
  * @author Kunold
  * @author El-Sharkawy
  *
  */
 public class AccessWriter implements Closeable {
-    private static final String SECTION_START = "[";
-    private static final String SECTION_END = "]";
-    private static final String GROUP_SECTION = SECTION_START + "groups" + SECTION_END;
-    private static final String RIGHTS_ASSIGNMENT = " = ";
-    private static final String LINE_BREAK = System.lineSeparator();
-    private static final String GROUP_PREFIX = "@";
-    private static final String REPOSITORY_SEPARATOR = ":";
-    private static final String PATH_SEPARATOR = "/";
-    private static final String ALL_USER = "* = ";
-    private static final String READ = "r";
-    private static final String READ_WRITE = "rw";
+    private static final byte[] SECTION_START = encode("[");
+    private static final byte[] GLOB_SECTION_START = encode("[:glob:");
+    private static final byte[] GLOB_ALL_CHILDREN = encode("/*");
+    private static final byte[] SECTION_END = encode("]");
+    private static final byte[] GROUP_SECTION = encode("[groups]");
+    private static final byte[] RIGHTS_ASSIGNMENT = encode(" = ");
+    private static final byte[] LINE_BREAK = encode(System.lineSeparator());
+    private static final byte[] GROUP_PREFIX = encode("@");
+    private static final byte[] REPOSITORY_SEPARATOR = encode(":");
+    private static final byte[] PATH_SEPARATOR = encode("/");
+    private static final byte[] MEMBER_SEPARATOR = encode(", ");
+    private static final byte[] ALL_USER = encode("* = ");
+    private static final byte[] READ = encode("r");
+    private static final byte[] READ_WRITE = encode("rw");
+    private static final byte[] NO_RIGHTS = new byte[0];
+    private static final byte[] NULL = encode("null");
+
+    /**
+     * Maximum number of bytes of a single character in UTF-8.
+     */
+    private static final int MAX_CHAR_LENGTH = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int ESTIMATED_GROUP_SIZE = 128;
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 2000;
+    private static final String ALIAS_PREFIX = "m_";
     
-    private Writer out;
+    /**
+     * Number of bytes of the hash, which are used for the name of a group alias (48 bit, written in base 36 to keep
+     * the alias shorter than the listed members).
+     */
+    private static final int ALIAS_HASH_LENGTH = 6;
+
+    /**
+     * Direct buffers are expensive to allocate, thus, they are reused by all writers of the same thread.
+     * This is safe as {@link #write(Course, String, Collection)} writes the whole buffer before it returns.
+     */
+    private static final ThreadLocal<ByteBuffer> BUFFERS
+        = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private WritableByteChannel out;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private boolean compact;
+    private boolean globRules;
+    private FragmentCache fragmentCache;
+
+    /**
+     * Adapter to use a {@link Writer} as output (e.g., for testing). Slower than writing to a channel directly, as
+     * the encoded content is decoded again.
+     * @author El-Sharkawy
+     *
+     */
+    private static class WriterChannel implements WritableByteChannel {
+
+        private Writer out;
+        private boolean open = true;
+
+        /**
+         * Creates a channel, which writes to the given writer.
+         * @param out The writer to write to.
+         */
+        private WriterChannel(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            // AccessWriter flushes only complete characters
+            int length = src.remaining();
+            byte[] bytes = new byte[length];
+            src.get(bytes);
+            out.write(new String(bytes, StandardCharsets.UTF_8));
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            out.close();
+        }
+    }
 
     /**
      * Constructor of the AccessWriter class.
      * @param out the Writer.
      */
     public AccessWriter(Writer out) {
+        this(new WriterChannel(out));
+    }
+
+    /**
+     * Constructor of the AccessWriter class, which writes the access file as UTF-8.
+     * @param out The channel to write to, e.g., a {@link java.nio.channels.FileChannel}.
+     */
+    public AccessWriter(WritableByteChannel out) {
         this.out = out;
     }
-    
+
+    /**
+     * Part of the static initialization to encode the fixed tokens.
+     * @param token The token to encode.
+     * @return The token as UTF-8.
+     */
+    private static byte[] encode(String token) {
+        return token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes the content as UTF-8 into a {@link ByteBuffer}. Sub classes specify what happens if the buffer is full.
+     * @author El-Sharkawy
+     *
+     */
+    private abstract static class Encoder {
+
+        protected ByteBuffer buffer;
+
+        /**
+         * Creates an encoder.
+         * @param buffer The initial buffer to encode into.
+         */
+        protected Encoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Called if the buffer has less remaining space than required. Must ensure that afterwards at least the
+         * specified number of bytes can be appended.
+         * @param required The number of bytes, which must fit into the buffer.
+         * @throws IOException If an I/O error occurs
+         */
+        protected abstract void overflow(int required) throws IOException;
+
+        /**
+         * Appends a pre-encoded token to the buffer.
+         * @param token The token to append.
+         * @throws IOException If an I/O error occurs
+         */
+        void append(byte[] token) throws IOException {
+            if (buffer.remaining() < token.length) {
+                overflow(token.length);
+            }
+            buffer.put(token);
+        }
+
+        /**
+         * Appends a (variable) string encoded as UTF-8 to the buffer. <tt>null</tt> is written as <tt>"null"</tt> as
+         * done by {@link Writer#append(CharSequence)}, unpaired surrogates are replaced by <tt>'?'</tt> as done by the
+         * UTF-8 encoder of Java.
+         * @param str The string to append.
+         * @throws IOException If an I/O error occurs
+         */
+        void append(String str) throws IOException {
+            if (null == str) {
+                append(NULL);
+                return;
+            }
+
+            int length = str.length();
+            for (int i = 0; i < length; i++) {
+                // Flush only complete characters
+                if (buffer.remaining() < MAX_CHAR_LENGTH) {
+                    overflow(MAX_CHAR_LENGTH);
+                }
+
+                char c = str.charAt(i);
+                if (c < 0x80) {
+                    buffer.put((byte) c);
+                } else if (c < 0x800) {
+                    buffer.put((byte) (0xC0 | (c >> 6)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(str.charAt(i + 1))) {
+                        
+                        int codePoint = Character.toCodePoint(c, str.charAt(++i));
+                        buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                        buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                        buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                        buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                    } else {
+                        buffer.put((byte) '?');
+                    }
+                } else {
+                    buffer.put((byte) (0xE0 | (c >> 12)));
+                    buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Encoder, which writes the reused buffer to the output whenever it is full. Optionally, a copy of the written
+     * content is captured, e.g., to cache a rendered assignment.
+     * @author El-Sharkawy
+     *
+     */
+    private class ChannelEncoder extends Encoder {
+
+        // Content written since startCapture(), null if nothing is captured
+        private ByteBuffer capture;
+        private int captureStart;
+
+        /**
+         * Creates an encoder, which uses the direct buffer of the current thread.
+         */
+        private ChannelEncoder() {
+            super(BUFFERS.get());
+        }
+
+        @Override
+        protected void overflow(int required) throws IOException {
+            flush();
+        }
+
+        /**
+         * Appends already encoded content, e.g., a cached assignment.
+         * @param content The content to append, will be consumed.
+         * @throws IOException If an I/O error occurs
+         */
+        private void append(ByteBuffer content) throws IOException {
+            while (content.hasRemaining()) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), content.remaining());
+                ByteBuffer chunk = content.duplicate();
+                chunk.limit(chunk.position() + length);
+                buffer.put(chunk);
+                content.position(content.position() + length);
+            }
+        }
+
+        /**
+         * Starts to capture a copy of the content, which is appended from now on.
+         * @param estimatedSize The estimated size of the captured content in bytes.
+         */
+        private void startCapture(int estimatedSize) {
+            capture = ByteBuffer.allocate(Math.max(estimatedSize, MAX_CHAR_LENGTH));
+            captureStart = buffer.position();
+        }
+
+        /**
+         * Stops capturing the content.
+         * @return The content appended since {@link #startCapture(int)}, ready to be read.
+         */
+        private ByteBuffer stopCapture() {
+            copyToCapture();
+            ByteBuffer result = capture.flip();
+            capture = null;
+            return result;
+        }
+
+        /**
+         * Copies the content, which was appended to the buffer since the last copy, to the captured content.
+         */
+        private void copyToCapture() {
+            ByteBuffer appended = buffer.duplicate();
+            appended.limit(buffer.position()).position(captureStart);
+            if (capture.remaining() < appended.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * capture.capacity(),
+                    capture.position() + appended.remaining()));
+                capture.flip();
+                larger.put(capture);
+                capture = larger;
+            }
+            capture.put(appended);
+            captureStart = buffer.position();
+        }
+
+        /**
+         * Writes the buffered content to the output.
+         * @throws IOException If an I/O error occurs
+         */
+        private void flush() throws IOException {
+            if (null != capture) {
+                copyToCapture();
+                captureStart = 0;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Encoder, which keeps the whole content in memory and enlarges its buffer whenever it is full.
+     * Used to render sections in parallel.
+     * @author El-Sharkawy
+     *
+     */
+    private static class SectionEncoder extends Encoder {
+
+        /**
+         * Creates an encoder.
+         * @param estimatedSize The estimated size of the section in bytes.
+         */
+        private SectionEncoder(int estimatedSize) {
+            super(ByteBuffer.allocate(Math.max(estimatedSize, MAX_CHAR_LENGTH)));
+        }
+
+        @Override
+        protected void overflow(int required) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + required));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+
+        /**
+         * Returns the rendered section.
+         * @return The content, ready to be read.
+         */
+        private ByteBuffer getContent() {
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * The group aliases of the compact mode. Each alias is derived from a hash of its sorted member set. Thus, a
+     * member set keeps its alias when other groups are added or removed, which keeps the cached fragments and the
+     * unchanged parts of the access file valid.
+     * @author El-Sharkawy
+     *
+     */
+    private static class GroupAliases {
+
+        private final Map<List<String>, String> declarations = new LinkedHashMap<>();
+        private final Map<String, List<String>> declaredAliases = new HashMap<>();
+        private final Map<Group, String> groupAliases = new IdentityHashMap<>();
+        private final MessageDigest digest = createDigest();
+
+        /**
+         * Computes the aliases for all member sets of the course with at least two members.
+         * @param course The course to write.
+         */
+        private GroupAliases(Course course) {
+            Group tutorGroup = course.getTutors();
+            String reserved = null != tutorGroup ? tutorGroup.getName() : null;
+            List<ManagedAssignment> assignments = course.getAssignments();
+            if (null != assignments) {
+                for (ManagedAssignment assignment : assignments) {
+                    for (Group group : assignment) {
+                        List<String> members = getMemberSet(group);
+                        if (members.size() > 1) {
+                            String alias = declarations.get(members);
+                            if (null == alias) {
+                                alias = createAlias(members, reserved);
+                                declarations.put(members, alias);
+                                declaredAliases.put(alias, members);
+                            }
+                            groupAliases.put(group, alias);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Derives the alias of a member set from the hash of its members.
+         * @param members The distinct, sorted account names of the members.
+         * @param reserved The name of the tutor group, may be <tt>null</tt>.
+         * @return The alias, which is not used by another member set.
+         */
+        private String createAlias(List<String> members, String reserved) {
+            for (String member : members) {
+                digest.update(member.getBytes(StandardCharsets.UTF_8));
+                // Separator, not part of account names
+                digest.update((byte) 0);
+            }
+            byte[] hash = digest.digest();
+            long value = 0;
+            for (int i = 0; i < ALIAS_HASH_LENGTH; i++) {
+                value = (value << 8) | (hash[i] & 0xFF);
+            }
+            String base = ALIAS_PREFIX + Long.toString(value, Character.MAX_RADIX);
+            
+            // Hash collisions must not merge member sets, the alias must not hide the tutor group
+            String alias = base;
+            int suffix = 1;
+            while (alias.equals(reserved) || declaredAliases.containsKey(alias)) {
+                alias = base + "_" + (++suffix);
+            }
+            return alias;
+        }
+        
+        /**
+         * Creates the algorithm to compute the hashes of member sets.
+         * @return A new message digest.
+         */
+        private static MessageDigest createDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // SHA-256 must be supported by every Java platform
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Returns the distinct, sorted account names of the members of a group.
+         * @param group The group to collect the members from.
+         * @return The account names (<tt>"null"</tt> for undefined account names).
+         */
+        private static List<String> getMemberSet(Group group) {
+            Set<String> members = new TreeSet<>();
+            for (User member : group) {
+                members.add(String.valueOf(member.getAccountName()));
+            }
+            return new ArrayList<>(members);
+        }
+
+        /**
+         * Returns the member sets and their aliases, in the order they shall be declared.
+         * @return The member sets and their aliases.
+         */
+        private Iterable<Map.Entry<List<String>, String>> getDeclarations() {
+            return declarations.entrySet();
+        }
+
+        /**
+         * Returns the alias of the group.
+         * @param group A group of an assignment.
+         * @return The alias or <tt>null</tt> if the members shall be listed directly.
+         */
+        private String getAlias(Group group) {
+            return groupAliases.get(group);
+        }
+    }
+
     /**
      * Writes the groups to AccessWriter.
+     * @param out The encoder to write to.
      * @param course The set-up of the course, which should be reflected in the repository
+     * @param aliases The member sets to declare as groups (compact mode), may be <tt>null</tt>.
      * @throws IOException If an I/O error occurs during writing.
      */
-    private void writeTutorGroup(Course course) throws IOException {
-        
+    private void writeTutorGroup(Encoder out, Course course, GroupAliases aliases) throws IOException {
+
         out.append(GROUP_SECTION);
         out.append(LINE_BREAK);
-        
+
         // Write tutor groups first
         Group tutorGroup = course.getTutors();
         if (null != tutorGroup && !tutorGroup.getMembers().isEmpty()) {
@@ -62,96 +504,369 @@ public class AccessWriter implements Closeable {
                 if (isFirst) {
                     isFirst = false;
                 } else {
-                    out.append(", ");
+                    out.append(MEMBER_SEPARATOR);
                 }
                 out.append(member.getAccountName());
-            }  
+            }
 
             out.append(LINE_BREAK);
         }
-        
+
+        if (null != aliases) {
+            for (Map.Entry<List<String>, String> alias : aliases.getDeclarations()) {
+                out.append(alias.getValue());
+                out.append(RIGHTS_ASSIGNMENT);
+                boolean isFirst = true;
+                for (String member : alias.getKey()) {
+                    if (isFirst) {
+                        isFirst = false;
+                    } else {
+                        out.append(MEMBER_SEPARATOR);
+                    }
+                    out.append(member);
+                }
+                out.append(LINE_BREAK);
+            }
+        }
     }
-    
+
     /**
      * Writes a Path section to the access file, which can be configured.<p>
      * This will be:
      * <tt>repository:path</tt>
+     * @param out The encoder to write to.
      * @param repositoryName The name of the repository
      * @param path The full path inside the repository.
      * @throws IOException If an I/O error occurs
      */
-    private void writePath(String repositoryName, String... path) throws IOException {
+    private static void writePath(Encoder out, String repositoryName, String... path) throws IOException {
         out.append(SECTION_START);
         out.append(repositoryName);
         out.append(REPOSITORY_SEPARATOR);
         out.append(PATH_SEPARATOR);
-        
+
         if (null != path && path.length > 0) {
             for (int i = 0; i < path.length - 1; i++) {
                 out.append(path[i]);
-                out.append(PATH_SEPARATOR);                
+                out.append(PATH_SEPARATOR);
             }
-            
-            /* 
+
+            /*
              * Apache web server will deny all paths, if they end with an /
              * Also example doesn't show ending slashes:
              * https://svn.apache.org/repos/asf/subversion/trunk/subversion/mod_authz_svn/INSTALL
-             */        
+             */
             out.append(path[path.length - 1]);
         }
         out.append(SECTION_END);
         out.append(LINE_BREAK);
     }
-    
+
     /**
      * Writes the permissions per assignment and group.
+     * Assignments are rendered in parallel, if the course is large enough.
+     * @param out The encoder to write to.
      * @param course The set-up of the course, which should be reflected in the repository
      * @param svnName The name of the repository as used inside the URL.
+     * @param aliases The aliases of the member sets (compact mode), may be <tt>null</tt>.
      * @throws IOException If an I/O error occurs during writing.
      */
-    private void writePermissions(Course course, String svnName) throws IOException {
-        writePath(svnName);
-        out.append(ALL_USER + READ);
+    private void writePermissions(ChannelEncoder out, Course course, String svnName, GroupAliases aliases)
+        throws IOException {
+        
+        writePath(out, svnName);
+        out.append(ALL_USER);
+        out.append(READ);
 
         Group tutorGroup = course.getTutors();
         List<ManagedAssignment> assignments = course.getAssignments();
         
         if (assignments != null) {
-            // iterates over every homework
-            for (ManagedAssignment assignment : assignments) {                
-                String rights = "";
-                if (assignment.getState() == State.SUBMISSION) {
-                    rights = READ_WRITE;
-                } else if (assignment.getState() == State.REVIEWED) {
-                    rights = READ;
+            int nGroups = 0;
+            for (ManagedAssignment assignment : assignments) {
+                nGroups += assignment.getAllGroupNames().length;
+            }
+            
+            // The common pool has a parallelism of 1 on single core machines, rendering would be sequential anyway
+            boolean parallel = assignments.size() > 1 && nGroups >= parallelThreshold
+                && (ForkJoinPool.getCommonPoolParallelism() > 1 || parallelThreshold == 0);
+            if (parallel) {
+                writeSections(out, assignments, tutorGroup, svnName, aliases);
+            } else {
+                // iterates over every homework
+                for (ManagedAssignment assignment : assignments) {
+                    writeAssignment(out, assignment, tutorGroup, svnName, aliases);
                 }
-                
-                // iterates over every group
-                for (Group group : assignment) {
-                    out.append(LINE_BREAK);
-                    out.append(LINE_BREAK);
-                    writePath(svnName, assignment.getName(), group.getName());
-                    out.append(ALL_USER);
-                    out.append(LINE_BREAK);
-                    // Avoid writing an undefined group this will yield in an illegal access file
-                    if (null != tutorGroup && !tutorGroup.getMembers().isEmpty()) {
-                        out.append(GROUP_PREFIX);                        
-                        out.append(tutorGroup.getName());                        
-                        out.append(RIGHTS_ASSIGNMENT + READ_WRITE);                        
-                        out.append(LINE_BREAK);
+            }
+        }
+    }
+    
+    /**
+     * Writes the sections of one assignment via the reused buffer of the output. With a {@link FragmentCache}, the
+     * sections are taken from the cache or a copy of the rendered sections is cached.
+     * @param out The encoder of the output.
+     * @param assignment The assignment to write.
+     * @param tutorGroup The tutors, may be <tt>null</tt>.
+     * @param svnName The name of the repository as used inside the URL.
+     * @param aliases The aliases of the member sets (compact mode), may be <tt>null</tt>.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    private void writeAssignment(ChannelEncoder out, ManagedAssignment assignment, Group tutorGroup, String svnName,
+        GroupAliases aliases) throws IOException {
+        
+        if (null == fragmentCache) {
+            writeAssignment(out, assignment, tutorGroup, svnName, aliases, globRules);
+        } else {
+            String id = getFragmentId(assignment);
+            List<Object> key = createFragmentKey(assignment, tutorGroup, svnName, aliases);
+            ByteBuffer content = fragmentCache.get(id, key);
+            if (null != content) {
+                out.append(content);
+            } else {
+                out.startCapture(assignment.getAllGroupNames().length * ESTIMATED_GROUP_SIZE);
+                writeAssignment(out, assignment, tutorGroup, svnName, aliases, globRules);
+                fragmentCache.put(id, key, out.stopCapture());
+            }
+        }
+    }
+    
+    /**
+     * Identifies an assignment inside the {@link FragmentCache}.
+     * @param assignment The assignment.
+     * @return The ID of the assignment, the same IDs as used by {@link net.ssehub.rightsmanagement.model.CourseDiff}.
+     */
+    private static String getFragmentId(ManagedAssignment assignment) {
+        // IDs may be missing, but fragments are only used for an equal structure
+        return null != assignment.getID() ? assignment.getID() : "name:" + assignment.getName();
+    }
+    
+    /**
+     * Renders the sections of each assignment in parallel into its own buffer (or takes them from the
+     * {@link FragmentCache}) and writes them in their original order with one gathering write (if supported by the
+     * output).
+     * @param out The encoder of the output, will be flushed.
+     * @param assignments The assignments to write.
+     * @param tutorGroup The tutors, may be <tt>null</tt>.
+     * @param svnName The name of the repository as used inside the URL.
+     * @param aliases The aliases of the member sets (compact mode), may be <tt>null</tt>.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    private void writeSections(ChannelEncoder out, List<ManagedAssignment> assignments, Group tutorGroup,
+        String svnName, GroupAliases aliases) throws IOException {
+        
+        List<ByteBuffer> sections;
+        try {
+            sections = assignments.parallelStream()
+                .map(assignment -> {
+                    String id = getFragmentId(assignment);
+                    List<Object> key = null;
+                    ByteBuffer content = null;
+                    if (null != fragmentCache) {
+                        key = createFragmentKey(assignment, tutorGroup, svnName, aliases);
+                        content = fragmentCache.get(id, key);
+                    }
+                    if (null == content) {
+                        SectionEncoder section = new SectionEncoder(assignment.getAllGroupNames().length
+                            * ESTIMATED_GROUP_SIZE);
+                        try {
+                            writeAssignment(section, assignment, tutorGroup, svnName, aliases, globRules);
+                        } catch (IOException e) {
+                            // Not expected for in-memory buffers
+                            throw new UncheckedIOException(e);
+                        }
+                        content = section.getContent();
+                        if (null != key) {
+                            fragmentCache.put(id, key, content);
+                        }
                     }
-                    for (User member : group) {
-                        out.append(member.getAccountName());
-                        out.append(RIGHTS_ASSIGNMENT);
-                        out.append(rights);
-                        out.append(LINE_BREAK);
-                    } 
+                    return content;
+                })
+                .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        // Content rendered so far must be written first
+        out.flush();
+        ByteBuffer[] buffers = sections.toArray(new ByteBuffer[sections.size()]);
+        if (this.out instanceof GatheringByteChannel) {
+            GatheringByteChannel gatheringOut = (GatheringByteChannel) this.out;
+            int first = 0;
+            while (first < buffers.length) {
+                gatheringOut.write(buffers, first, buffers.length - first);
+                while (first < buffers.length && !buffers[first].hasRemaining()) {
+                    first++;
                 }
             }
-            
+        } else {
+            for (ByteBuffer buffer : buffers) {
+                while (buffer.hasRemaining()) {
+                    this.out.write(buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the key of an assignment for the {@link FragmentCache}: A flat list of all values, which are used to
+     * render the assignment. Its hash code is computed from the (cached) hash codes of the strings.
+     * @param assignment The assignment to render.
+     * @param tutorGroup The tutors, may be <tt>null</tt>.
+     * @param svnName The name of the repository as used inside the URL.
+     * @param aliases The aliases of the member sets (compact mode), may be <tt>null</tt>.
+     * @return The structure of the assignment, equal keys result in the same fragment.
+     */
+    private List<Object> createFragmentKey(ManagedAssignment assignment, Group tutorGroup, String svnName,
+        GroupAliases aliases) {
+        
+        List<Object> key = new ArrayList<>();
+        key.add(svnName);
+        key.add(globRules);
+        key.add(assignment.getName());
+        key.add(assignment.getState());
+        boolean hasTutors = null != tutorGroup && !tutorGroup.getMembers().isEmpty();
+        key.add(hasTutors ? tutorGroup.getName() : null);
+        for (Group group : assignment) {
+            key.add(group.getName());
+            String alias = null != aliases ? aliases.getAlias(group) : null;
+            key.add(alias);
+            if (null == alias) {
+                // Number of members separates the members of consecutive groups
+                key.add(group.getMembers().size());
+                for (User member : group) {
+                    key.add(member.getAccountName());
+                }
+            }
+        }
+        return key;
+    }
+    
+    /**
+     * Writes the permissions of all groups of one assignment.
+     * @param out The encoder to write to.
+     * @param assignment The assignment to write.
+     * @param tutorGroup The tutors, may be <tt>null</tt>.
+     * @param svnName The name of the repository as used inside the URL.
+     * @param aliases The aliases of the member sets (compact mode), may be <tt>null</tt>.
+     * @param globRules <tt>true</tt> if assignments without rights for their members shall be written as glob rule.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    private static void writeAssignment(Encoder out, ManagedAssignment assignment, Group tutorGroup, String svnName,
+        GroupAliases aliases, boolean globRules) throws IOException {
+        
+        byte[] rights = NO_RIGHTS;
+        if (assignment.getState() == State.SUBMISSION) {
+            rights = READ_WRITE;
+        } else if (assignment.getState() == State.REVIEWED) {
+            rights = READ;
+        }
+        
+        if (globRules && rights == NO_RIGHTS && assignment.iterator().hasNext()) {
+            // All group sections would be equal: Only tutors have access
+            writeGlobSection(out, assignment, tutorGroup, svnName);
+            return;
+        }
+        
+        // iterates over every group
+        for (Group group : assignment) {
+            out.append(LINE_BREAK);
+            out.append(LINE_BREAK);
+            writePath(out, svnName, assignment.getName(), group.getName());
+            out.append(ALL_USER);
+            out.append(LINE_BREAK);
+            // Avoid writing an undefined group this will yield in an illegal access file
+            if (null != tutorGroup && !tutorGroup.getMembers().isEmpty()) {
+                writeTutorRights(out, tutorGroup);
+            }
+            String alias = null != aliases ? aliases.getAlias(group) : null;
+            if (null != alias) {
+                out.append(GROUP_PREFIX);
+                out.append(alias);
+                out.append(RIGHTS_ASSIGNMENT);
+                out.append(rights);
+                out.append(LINE_BREAK);
+            } else {
+                for (User member : group) {
+                    out.append(member.getAccountName());
+                    out.append(RIGHTS_ASSIGNMENT);
+                    out.append(rights);
+                    out.append(LINE_BREAK);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes one glob section, which denies the access to all folders of the assignment for everyone except the
+     * tutors. Replaces the sections of all groups of the assignment, if none of the members has any rights.
+     * @param out The encoder to write to.
+     * @param assignment The assignment to write.
+     * @param tutorGroup The tutors, may be <tt>null</tt>.
+     * @param svnName The name of the repository as used inside the URL.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    private static void writeGlobSection(Encoder out, ManagedAssignment assignment, Group tutorGroup, String svnName)
+        throws IOException {
+        
+        out.append(LINE_BREAK);
+        out.append(LINE_BREAK);
+        out.append(GLOB_SECTION_START);
+        out.append(svnName);
+        out.append(REPOSITORY_SEPARATOR);
+        out.append(PATH_SEPARATOR);
+        out.append(escapeGlob(assignment.getName()));
+        out.append(GLOB_ALL_CHILDREN);
+        out.append(SECTION_END);
+        out.append(LINE_BREAK);
+        out.append(ALL_USER);
+        out.append(LINE_BREAK);
+        if (null != tutorGroup && !tutorGroup.getMembers().isEmpty()) {
+            writeTutorRights(out, tutorGroup);
         }
     }
     
+    /**
+     * Escapes the wildcards of glob patterns, so that the name is matched literally.
+     * @param name The name of a folder.
+     * @return The escaped name.
+     */
+    static String escapeGlob(String name) {
+        String result = name;
+        if (null != name) {
+            StringBuilder escaped = null;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                    if (null == escaped) {
+                        escaped = new StringBuilder(name.length() + 4).append(name, 0, i);
+                    }
+                    escaped.append('\\');
+                }
+                if (null != escaped) {
+                    escaped.append(c);
+                }
+            }
+            if (null != escaped) {
+                result = escaped.toString();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the read/write permission of the tutor group.
+     * @param out The encoder to write to.
+     * @param tutorGroup The tutor group, must not be empty.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    private static void writeTutorRights(Encoder out, Group tutorGroup) throws IOException {
+        out.append(GROUP_PREFIX);
+        out.append(tutorGroup.getName());
+        out.append(RIGHTS_ASSIGNMENT);
+        out.append(READ_WRITE);
+        out.append(LINE_BREAK);
+    }
+
     /**
      * Writes the groups and the svn path.
      * @param course The set-up of the course, which should be reflected in the repository
@@ -161,30 +876,89 @@ public class AccessWriter implements Closeable {
      * @throws IOException If an I/O error occurs during writing.
      */
     public void write(Course course, String svnName, Collection<String> blacklistedFolders) throws IOException {
-        writeTutorGroup(course);
+        ChannelEncoder out = new ChannelEncoder();
+        // Drop content of a previously aborted write
+        out.buffer.clear();
+        GroupAliases aliases = compact ? new GroupAliases(course) : null;
+        
+        writeTutorGroup(out, course, aliases);
         
         out.append(LINE_BREAK);
-        writePermissions(course, svnName);
+        writePermissions(out, course, svnName, aliases);
         
         if (null != blacklistedFolders && !blacklistedFolders.isEmpty()) {
             Group tutorGroup = course.getTutors();
             out.append(LINE_BREAK);
             
             for (String folder : blacklistedFolders) {
-                writePath(svnName, folder);
+                writePath(out, svnName, folder);
                 out.append(ALL_USER);
                 out.append(LINE_BREAK);
                 if (null != tutorGroup && !tutorGroup.getMembers().isEmpty()) {
-                    out.append(GROUP_PREFIX);                        
-                    out.append(tutorGroup.getName());                        
-                    out.append(RIGHTS_ASSIGNMENT + READ_WRITE);                        
-                    out.append(LINE_BREAK);
+                    writeTutorRights(out, tutorGroup);
                 }
                 out.append(LINE_BREAK);
             }
         }
+        
+        out.flush();
+    }
+    
+    /**
+     * Enables or disables the compact mode, which declares each distinct member set of at least two members once as
+     * group alias instead of listing all members in every path section. Both modes grant the same rights.
+     * @param compact <tt>true</tt> to use group aliases, <tt>false</tt> to list all members (default).
+     */
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+    
+    /**
+     * Enables or disables glob rules (requires SVN 1.10 or newer). If enabled, assignments, which do not grant any
+     * rights to their members (e.g., while they are invisible or in review), are written as one glob section instead
+     * of one section per group. For individual assignments this reduces the number of sections from one per student
+     * to one per assignment.
+     * @param globRules <tt>true</tt> to use glob rules, <tt>false</tt> to write one section per group (default).
+     */
+    public void setGlobRules(boolean globRules) {
+        this.globRules = globRules;
+    }
+    
+    /**
+     * Sets the cache of rendered assignments, which shall be reused across several writers of the same access file.
+     * @param fragmentCache The cache to use, <tt>null</tt> renders all assignments (default).
+     */
+    public void setFragmentCache(FragmentCache fragmentCache) {
+        this.fragmentCache = fragmentCache;
+    }
+    
+    /**
+     * Specifies the minimum number of groups, from which on the sections of the assignments are rendered in
+     * parallel. For smaller courses the overhead of parallelization outweighs its benefit.
+     * @param parallelThreshold The minimum number of groups of all assignments, {@link Integer#MAX_VALUE}
+     *     disables parallel rendering, <tt>0</tt> enforces it (also on single core machines).
+     */
+    void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Closes the writer without replacing the access file, e.g., after {@link #write(Course, String, Collection)}
+     * failed. If the writer does not write to an {@link AccessFile}, the output is closed as usual.
+     * @throws IOException If the output could not be closed
+     */
+    public void abort() throws IOException {
+        if (out instanceof AccessFile.StagingChannel) {
+            ((AccessFile.StagingChannel) out).discard();
+        } else {
+            out.close();
+        }
     }
 
+    /**
+     * Closes the writer, an {@link AccessFile} is replaced at this point if its content has changed.
+     * @throws IOException If the output could not be closed
+     */
     @Override
     public void close() throws IOException {
         out.close();
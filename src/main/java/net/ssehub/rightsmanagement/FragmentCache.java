@@ -0,0 +1,185 @@
+package net.ssehub.rightsmanagement;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the rendered sections of assignments between two writes of an access file, to render only assignments that
+ * have changed.<p>
+ * The cache holds at most one fragment per assignment, together with the structure of the assignment, i.e., all values
+ * that are written to the access file (name, state, groups, members, tutor group, ...). Structures are compared by
+ * value, thus, a cached fragment is only used for an assignment with exactly the same content. A changed assignment
+ * replaces its previous fragment. The least recently used fragments are evicted if the cache exceeds its memory
+ * limit.
+ * @author El-Sharkawy
+ *
+ */
+public class FragmentCache {
+
+    /**
+     * Estimated memory per element of a key (reference in the list, share of the list and the map entry), the
+     * referenced strings are shared with the course and are not counted.
+     */
+    private static final int ESTIMATED_KEY_ELEMENT_SIZE = 8;
+    private static final int ESTIMATED_ENTRY_SIZE = 96;
+
+    private final long maxSize;
+    private final Map<String, Fragment> fragments = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * A rendered assignment.
+     */
+    private static class Fragment {
+
+        private final List<Object> key;
+        private final byte[] content;
+
+        /**
+         * Creates a fragment.
+         * @param key The structure of the assignment.
+         * @param content The rendered assignment.
+         */
+        private Fragment(List<Object> key, byte[] content) {
+            this.key = key;
+            this.content = content;
+        }
+
+        /**
+         * Estimates the memory of the fragment.
+         * @return The estimated size in bytes.
+         */
+        private long estimateSize() {
+            return FragmentCache.estimateSize(key, content.length);
+        }
+    }
+
+    /**
+     * Creates a new cache.
+     * @param maxSize The maximum estimated memory in bytes, which may be used by the cache.
+     */
+    public FragmentCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached fragment.
+     * @param assignment Identifies the assignment.
+     * @param key The structure of the assignment.
+     * @return The rendered fragment, ready to be read, or <tt>null</tt> if it is not cached or the assignment has
+     *     changed.
+     */
+    ByteBuffer get(String assignment, List<Object> key) {
+        Fragment fragment;
+        synchronized (this) {
+            fragment = fragments.get(assignment);
+        }
+        
+        // Compare outside of the lock, fragments are immutable
+        ByteBuffer result = null;
+        boolean hit = null != fragment && fragment.key.equals(key);
+        synchronized (this) {
+            if (hit) {
+                hits++;
+                result = ByteBuffer.wrap(fragment.content).asReadOnlyBuffer();
+            } else {
+                misses++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Caches a rendered fragment, replaces the previous fragment of the assignment, and evicts the least recently
+     * used fragments if the cache becomes too large.
+     * @param assignment Identifies the assignment.
+     * @param key The structure of the assignment, must not be modified afterwards.
+     * @param content The rendered fragment, won't be consumed.
+     */
+    synchronized void put(String assignment, List<Object> key, ByteBuffer content) {
+        Fragment previous = fragments.remove(assignment);
+        if (null != previous) {
+            size -= previous.estimateSize();
+        }
+        if (estimateSize(key, content.remaining()) > maxSize) {
+            return;
+        }
+
+        byte[] bytes = new byte[content.remaining()];
+        content.duplicate().get(bytes);
+        Fragment fragment = new Fragment(key, bytes);
+        fragments.put(assignment, fragment);
+        size += fragment.estimateSize();
+
+        Iterator<Fragment> eldest = fragments.values().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().estimateSize();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the fragments of assignments, which are known to be changed or removed. Their memory is released before
+     * the new fragments are rendered and fragments of removed assignments are not kept until they are evicted.
+     * @param assignments Identify the assignments to remove, unknown assignments are ignored.
+     */
+    public synchronized void invalidate(Collection<String> assignments) {
+        for (String assignment : assignments) {
+            Fragment fragment = fragments.remove(assignment);
+            if (null != fragment) {
+                size -= fragment.estimateSize();
+            }
+        }
+    }
+
+    /**
+     * Estimates the memory of a cache entry.
+     * @param key The key of the entry.
+     * @param length The length of the fragment.
+     * @return The estimated size in bytes.
+     */
+    private static long estimateSize(List<Object> key, int length) {
+        return ESTIMATED_ENTRY_SIZE + (long) key.size() * ESTIMATED_KEY_ELEMENT_SIZE + length;
+    }
+
+    /**
+     * Returns the number of assignments, which were taken from the cache.
+     * @return The number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of assignments, which had to be rendered.
+     * @return The number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of fragments, which were evicted because the cache exceeded its memory limit.
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the estimated memory used by the cache.
+     * @return The estimated size in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+}
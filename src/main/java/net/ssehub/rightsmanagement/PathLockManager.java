@@ -0,0 +1,127 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-wide locks for files and repositories, which may be shared by several courses.<p>
+ * Paths are canonicalized (absolute, normalized, symbolic links resolved), thus, different configurations pointing to
+ * the same location use the same lock. Locks are striped: A fixed number of locks is shared by all paths, selected by
+ * the hash of the canonical path. Courses with different repositories and access files are updated in parallel
+ * (unless their paths share a stripe), courses sharing a repository or access file are serialized.
+ * @author El-Sharkawy
+ *
+ */
+public class PathLockManager {
+
+    /**
+     * Number of stripes, makes false sharing of unrelated paths unlikely.
+     */
+    private static final int DEFAULT_STRIPES = 64;
+
+    private static final PathLockManager INSTANCE = new PathLockManager(DEFAULT_STRIPES);
+
+    private final ReentrantLock[] stripes;
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong contentions = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates a new lock manager.
+     * @param nStripes The number of locks, must be a power of two.
+     */
+    PathLockManager(int nStripes) {
+        stripes = new ReentrantLock[nStripes];
+        for (int i = 0; i < nStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the lock manager of this process.
+     * @return The singleton instance.
+     */
+    public static PathLockManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Computes the canonical form of a path, which does not need to exist.
+     * @param path The path to canonicalize.
+     * @return The real path of the file or of its nearest existing parent (with the remaining segments appended),
+     *     the absolute normalized path otherwise.
+     */
+    public static Path canonicalize(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        Path existing = absolute;
+        while (null != existing) {
+            try {
+                return existing.toRealPath().resolve(existing.relativize(absolute));
+            } catch (IOException e) {
+                // Does not exist (yet), try the parent
+                existing = existing.getParent();
+            }
+        }
+        return absolute;
+    }
+
+    /**
+     * Returns the lock of a path (without acquiring it).
+     * @param path A file or folder, relative paths are resolved against the working directory.
+     * @return The lock shared by all paths with the same canonical form.
+     */
+    Lock getLock(Path path) {
+        int hash = canonicalize(path).hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    /**
+     * Acquires the lock of a path, blocks until the lock is available. The lock is reentrant and must be released by
+     * the caller via {@link Lock#unlock()}, e.g.:
+     * <pre><code>
+     * Lock lock = PathLockManager.getInstance().lock(path);
+     * try {
+     *     ...
+     * } finally {
+     *     lock.unlock();
+     * }
+     * </code></pre>
+     * @param path A file or folder, relative paths are resolved against the working directory.
+     * @return The acquired lock.
+     */
+    public Lock lock(Path path) {
+        Lock lock = getLock(path);
+        acquisitions.incrementAndGet();
+        if (!lock.tryLock()) {
+            contentions.incrementAndGet();
+            long start = System.nanoTime();
+            lock.lock();
+            long waited = System.nanoTime() - start;
+            waitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        return lock;
+    }
+
+    /**
+     * Returns the statistics about the contention of the locks.
+     * @return Statistic name &rarr; value: number of acquisitions, number of acquisitions which had to wait,
+     *     total and maximum waiting time in milliseconds.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("acquisitions", acquisitions.get());
+        statistics.put("contentions", contentions.get());
+        statistics.put("waitMillis", waitNanos.get() / 1000000);
+        statistics.put("maxWaitMillis", maxWaitNanos.get() / 1000000);
+        return statistics;
+    }
+}
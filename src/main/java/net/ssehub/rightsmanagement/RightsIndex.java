@@ -0,0 +1,251 @@
+package net.ssehub.rightsmanagement;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Answers which rights a user has for a path of the repository, without reading the access file.<p>
+ * The index is computed from the same {@link Course} as the access file and grants the same rights as the
+ * {@link AccessWriter}. The paths are stored in a trie, thus, a lookup needs one step per path segment. The folders
+ * of each user are precomputed, thus, the rights of a user are determined without scanning the members of groups.
+ * Until the first update after a restart, an index may also answer from the {@link AccessModel} of the access file
+ * written before the restart, see {@link #RightsIndex(AccessModel, String)}.
+ * Instances are immutable and may be queried concurrently while a new index is computed.
+ * @author El-Sharkawy
+ *
+ */
+public class RightsIndex {
+
+    private final String svnName;
+    private final Set<String> tutors;
+    private final Node root = new Node();
+    // User -> folders which grant member rights to the user
+    private final Map<String, Set<Node>> memberships = new HashMap<>();
+    private final AccessModel model;
+
+    /**
+     * A folder of the repository. Nodes with a rule correspond to a section of the access file, all other nodes
+     * inherit the rights of their parent.
+     */
+    private static class Node {
+
+        private Map<String, Node> children;
+        private boolean hasRule;
+        private int defaultRights;
+        private boolean tutorAccess;
+        private int memberRights;
+        // Glob rule of all direct children without a rule of their own, may be null
+        private Node childRule;
+
+        /**
+         * Returns the child folder, creates it if it does not exist.
+         * @param name The name of the child folder.
+         * @return The child node.
+         */
+        private Node getOrCreateChild(String name) {
+            if (null == children) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(name, k -> new Node());
+        }
+
+        /**
+         * Returns the child folder.
+         * @param name The name of the child folder.
+         * @return The child node or <tt>null</tt> if it is not part of the index.
+         */
+        private Node getChild(String name) {
+            return null != children ? children.get(name) : null;
+        }
+    }
+
+    /**
+     * Computes the index for an access file written without glob rules.
+     * @param course The set-up of the course as written to the access file.
+     * @param svnName The name of the repository as used inside the URL.
+     * @param blacklistedFolders Optional: Folders, which are hidden to all users except for the tutors, may be
+     *     <tt>null</tt>.
+     */
+    public RightsIndex(Course course, String svnName, Collection<String> blacklistedFolders) {
+        this(course, svnName, blacklistedFolders, false);
+    }
+
+    /**
+     * Computes the index.
+     * @param course The set-up of the course as written to the access file.
+     * @param svnName The name of the repository as used inside the URL.
+     * @param blacklistedFolders Optional: Folders, which are hidden to all users except for the tutors, may be
+     *     <tt>null</tt>.
+     * @param globRules <tt>true</tt> if the access file was written with glob rules (see
+     *     {@link AccessWriter#setGlobRules(boolean)}).
+     */
+    public RightsIndex(Course course, String svnName, Collection<String> blacklistedFolders, boolean globRules) {
+        this.svnName = svnName;
+        this.model = null;
+        Set<String> tutorMembers = new HashSet<>();
+        Group tutorGroup = course.getTutors();
+        if (null != tutorGroup) {
+            for (User tutor : tutorGroup) {
+                tutorMembers.add(tutor.getAccountName());
+            }
+        }
+        this.tutors = Collections.unmodifiableSet(tutorMembers);
+
+        // Everyone may read the repository
+        root.hasRule = true;
+        root.defaultRights = AccessModel.READ;
+
+        List<ManagedAssignment> assignments = course.getAssignments();
+        if (null != assignments) {
+            for (ManagedAssignment assignment : assignments) {
+                int rights = AccessModel.NONE;
+                if (assignment.getState() == State.SUBMISSION) {
+                    rights = AccessModel.READ | AccessModel.WRITE;
+                } else if (assignment.getState() == State.REVIEWED) {
+                    rights = AccessModel.READ;
+                }
+                Node assignmentNode = root.getOrCreateChild(assignment.getName());
+                if (globRules && rights == AccessModel.NONE && assignment.iterator().hasNext()) {
+                    // One glob rule hides all sub folders, also those which do not belong to a group
+                    assignmentNode.childRule = new Node();
+                    addRule(assignmentNode.childRule);
+                    continue;
+                }
+                for (Group group : assignment) {
+                    Node groupNode = assignmentNode.getOrCreateChild(group.getName());
+                    addRule(groupNode);
+                    for (User member : group) {
+                        memberships.computeIfAbsent(member.getAccountName(), k -> Collections.newSetFromMap(
+                            new IdentityHashMap<>())).add(groupNode);
+                    }
+                    groupNode.memberRights = rights;
+                }
+            }
+        }
+
+        if (null != blacklistedFolders) {
+            for (String folder : blacklistedFolders) {
+                Node node = root;
+                for (String segment : folder.split("/")) {
+                    if (!segment.isEmpty()) {
+                        node = node.getOrCreateChild(segment);
+                    }
+                }
+                addRule(node);
+            }
+        }
+    }
+
+    /**
+     * Creates an index, which answers from an access file, e.g., as read at start-up before the first update.
+     * @param model The access file as read by the {@link AccessReader}.
+     * @param svnName The name of the repository as used inside the URL and inside the access file.
+     */
+    public RightsIndex(AccessModel model, String svnName) {
+        this.svnName = svnName;
+        this.model = model;
+        this.tutors = Collections.emptySet();
+    }
+
+    /**
+     * Marks a folder as section, which is hidden to all users except for the tutors.
+     * @param node The folder.
+     */
+    private void addRule(Node node) {
+        node.hasRule = true;
+        node.defaultRights = AccessModel.NONE;
+        node.tutorAccess = !tutors.isEmpty();
+    }
+
+    /**
+     * Computes the rights of a user for a path.
+     * @param user The account name of the user.
+     * @param path The path inside the repository, e.g., <tt>/Homework/Group/src</tt>.
+     * @return A combination of {@link AccessModel#READ} and {@link AccessModel#WRITE}.
+     */
+    public int getRights(String user, String path) {
+        if (null != model) {
+            return getRightsFromModel(user, path);
+        }
+        
+        // Walk along the path, the nearest folder with a rule applies
+        Node node = root;
+        Node rule = root;
+        int start = 0;
+        int length = path.length();
+        while (null != node && start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                Node parent = node;
+                node = node.getChild(path.substring(start, end));
+                if (null != node && node.hasRule) {
+                    rule = node;
+                } else if (null != parent.childRule) {
+                    // Literal sections have precedence over glob sections
+                    rule = parent.childRule;
+                }
+            }
+            start = end + 1;
+        }
+
+        int rights = rule.defaultRights;
+        if (rule.tutorAccess && tutors.contains(user)) {
+            rights |= AccessModel.READ | AccessModel.WRITE;
+        }
+        Set<Node> folders = memberships.get(user);
+        if (null != folders && folders.contains(rule)) {
+            rights |= rule.memberRights;
+        }
+        return rights;
+    }
+    
+    /**
+     * Computes the rights of a user for a path via the {@link AccessModel} of the access file.
+     * @param user The account name of the user.
+     * @param path The path inside the repository, e.g., <tt>Homework/Group/src</tt>.
+     * @return A combination of {@link AccessModel#READ} and {@link AccessModel#WRITE}.
+     */
+    private int getRightsFromModel(String user, String path) {
+        // The model expects absolute paths without trailing separator
+        StringBuilder normalized = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                normalized.append('/').append(segment);
+            }
+        }
+        return model.getRights(svnName, normalized.length() > 0 ? normalized.toString() : "/", user);
+    }
+
+    /**
+     * Computes the rights of a user for a path, in the notation of access files.
+     * @param user The account name of the user.
+     * @param path The path inside the repository, e.g., <tt>/Homework/Group/src</tt>.
+     * @return <tt>""</tt>, <tt>"r"</tt>, or <tt>"rw"</tt>.
+     */
+    public String getRightsAsString(String user, String path) {
+        return AccessModel.toString(getRights(user, path));
+    }
+
+    /**
+     * Returns the name of the repository as used inside the URL.
+     * @return The name of the repository.
+     */
+    public String getSvnName() {
+        return svnName;
+    }
+}
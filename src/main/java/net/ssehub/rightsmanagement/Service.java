@@ -20,10 +20,13 @@ import net.ssehub.rightsmanagement.rest.RestServer;
  */
 public class Service {
     private static final Logger LOGGER = LogManager.getLogger(Service.class);
+    
+    private static final String PROVISION_OPTION = "--provision";
 
     /**
      * Starting point of this service.
-     * @param args Will be ignored
+     * @param args Empty to start the service, or <tt>--provision &lt;course&gt;-&lt;semester&gt;</tt> to create all
+     *     folders of the configured course in the repository and to terminate afterwards.
      * @throws IOException
      */
     public static void main(String[] args) throws IOException {        
@@ -35,21 +38,70 @@ public class Service {
             System.exit(1);
         }
         
+        if (args.length > 0 && PROVISION_OPTION.equals(args[0])) {
+            if (args.length != 2) {
+                LOGGER.fatal("Usage: {} <course>-<semester>", PROVISION_OPTION);
+                System.exit(1);
+            }
+            System.exit(provision(args[1]) ? 0 : 1);
+        }
+        
         List<CourseConfiguration> courses = Settings.getConfig().getCourses();
         for (CourseConfiguration courseConfiguration : courses) {
             UpdateStrategy strategy = courseConfiguration.getUpdateStrategy();
-            if (null != strategy) {
+            if (null == strategy) {
                 strategy = UpdateStrategy.IMMEDIATELY;
             }
             AbstractUpdateHandler handler = UpdateChangeListener.INSTANCE.createHandler(courseConfiguration, strategy);
             UpdateChangeListener.INSTANCE.register(handler); 
         }
         
+        // Register before the server is started, as the server blocks the main thread until it is stopped
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            UpdateChangeListener.INSTANCE.shutdown();
+        }));
+        
         RestServer server = new RestServer(Settings.getConfig().getRestPort());
         
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             server.close();
         }));
     }
-
+    
+    /**
+     * Bulk provisioning of a course at the beginning of a semester: Creates all missing folders with one commit.
+     * @param courseID The ID of the course as used in the configuration: <tt>&lt;course&gt;-&lt;semester&gt;</tt>
+     * @return <tt>true</tt> if the repository was provisioned successfully.
+     */
+    private static boolean provision(String courseID) {
+        CourseConfiguration courseConfiguration = null;
+        for (CourseConfiguration candidate : Settings.getConfig().getCourses()) {
+            if (courseID.equals(candidate.getCourseName() + "-" + candidate.getSemester())) {
+                courseConfiguration = candidate;
+            }
+        }
+        if (null == courseConfiguration) {
+            LOGGER.fatal("Course {} is not configured", courseID);
+            return false;
+        }
+        
+        boolean success = false;
+        AbstractUpdateHandler handler = null;
+        try {
+            handler = UpdateChangeListener.INSTANCE.createHandler(courseConfiguration, UpdateStrategy.IMMEDIATELY);
+            long start = System.currentTimeMillis();
+            int nFolders = handler.provision((created, total) -> LOGGER.info("Provisioning {}: {} of {} folders",
+                courseID, created, total));
+            LOGGER.info("Provisioned {}: created {} folders in {} ms", courseID, nFolders,
+                System.currentTimeMillis() - start);
+            success = true;
+        } catch (IOException e) {
+            LOGGER.fatal("Could not provision " + courseID, e);
+        } finally {
+            if (null != handler) {
+                handler.close();
+            }
+        }
+        return success;
+    }
 }
@@ -26,6 +26,10 @@ public class Configuration {
         private String author;
         private boolean initRepositoryIfNotExists;
         private UpdateStrategy updateStrategy;
+        private int debounceQuietWindow = 60;
+        private int debounceMaxWait = 300;
+        private boolean compactAccessFile;
+        private boolean globAccessRules;
 
         /**
          * The name of the course as used by the management system.
@@ -83,6 +87,42 @@ public class Configuration {
             return updateStrategy;
         }
 
+        /**
+         * The time in seconds without further updates, after which {@link UpdateStrategy#DELAYED} applies the
+         * collected updates.
+         * @return the debounceQuietWindow
+         */
+        public int getDebounceQuietWindow() {
+            return debounceQuietWindow;
+        }
+        
+        /**
+         * The maximum time in seconds, which {@link UpdateStrategy#DELAYED} delays an update if further updates
+         * arrive continuously.
+         * @return the debounceMaxWait
+         */
+        public int getDebounceMaxWait() {
+            return debounceMaxWait;
+        }
+
+        /**
+         * Specifies if the access file declares each team (member set with at least two members) once as group and
+         * references it in the path sections, instead of listing all members in each section.
+         * @return <tt>true</tt> for the compact format, <tt>false</tt> to list all members (default).
+         */
+        public boolean isCompactAccessFile() {
+            return compactAccessFile;
+        }
+
+        /**
+         * Specifies if assignments, which grant no rights to their members, are written as one glob rule instead of
+         * one section per group. Requires SVN 1.10 or newer.
+         * @return <tt>true</tt> to use glob rules, <tt>false</tt> to write one section per group (default).
+         */
+        public boolean isGlobAccessRules() {
+            return globAccessRules;
+        }
+
         /**
          * Specifies if a new, local SVN repository shall be created if it does not exist on the server, yet.
          * @return <tt>true</tt> creates a new SVN repository, <tt>false</tt> assumes that repositories
@@ -147,6 +187,42 @@ public class Configuration {
             this.updateStrategy = updateStrategy;
         }
         
+        /**
+         * The time in seconds without further updates, after which {@link UpdateStrategy#DELAYED} applies the
+         * collected updates.
+         * @param debounceQuietWindow the debounceQuietWindow to set
+         */
+        public void setDebounceQuietWindow(int debounceQuietWindow) {
+            this.debounceQuietWindow = debounceQuietWindow;
+        }
+        
+        /**
+         * The maximum time in seconds, which {@link UpdateStrategy#DELAYED} delays an update if further updates
+         * arrive continuously.
+         * @param debounceMaxWait the debounceMaxWait to set
+         */
+        public void setDebounceMaxWait(int debounceMaxWait) {
+            this.debounceMaxWait = debounceMaxWait;
+        }
+        
+        /**
+         * Specifies if the access file declares each team (member set with at least two members) once as group and
+         * references it in the path sections, instead of listing all members in each section.
+         * @param compactAccessFile <tt>true</tt> for the compact format, <tt>false</tt> to list all members.
+         */
+        public void setCompactAccessFile(boolean compactAccessFile) {
+            this.compactAccessFile = compactAccessFile;
+        }
+        
+        /**
+         * Specifies if assignments, which grant no rights to their members, are written as one glob rule instead of
+         * one section per group. Requires SVN 1.10 or newer.
+         * @param globAccessRules <tt>true</tt> to use glob rules, <tt>false</tt> to write one section per group.
+         */
+        public void setGlobAccessRules(boolean globAccessRules) {
+            this.globAccessRules = globAccessRules;
+        }
+        
         /**
          * Specifies if a new, local SVN repository shall be created if it does not exist on the server, yet.
          * @param initRepositoryIfNotExists <tt>true</tt> creates a new SVN repository, <tt>false</tt> assumes
@@ -164,6 +240,15 @@ public class Configuration {
     private String cacheDir;
     private String authUser;
     private String authPassword;
+    private boolean asyncUpdates;
+    private int maxPendingUpdates = 1000;
+    private boolean trackUpdateStatus;
+    private int pullTimeout = 60;
+    private boolean concurrentPulls;
+    private int cacheFlushInterval = 10;
+    private int fragmentCacheSize = 32;
+    private int maintenanceInterval;
+    private int maintenanceQuietPeriod = 30;
     
     /**
      * Configurations of courses managed by this service.
@@ -221,6 +306,84 @@ public class Configuration {
         return authPassword;
     }
     
+    /**
+     * Specifies if update messages shall be accepted immediately (<tt>202 Accepted</tt>) and processed in the
+     * background, instead of answering after the update was applied.
+     * @return <tt>true</tt> if updates are processed asynchronously, <tt>false</tt> otherwise (default).
+     */
+    public boolean isAsyncUpdates() {
+        return asyncUpdates;
+    }
+    
+    /**
+     * The maximum number of accepted update messages, which may wait for their processing if {@link #isAsyncUpdates()}
+     * is enabled. Further messages are rejected until pending updates were processed.
+     * @return the maxPendingUpdates
+     */
+    public int getMaxPendingUpdates() {
+        return maxPendingUpdates;
+    }
+    
+    /**
+     * Specifies if a status URL shall be provided for each asynchronously accepted update message.
+     * @return <tt>true</tt> if the processing state of accepted messages can be polled, <tt>false</tt> otherwise.
+     */
+    public boolean isTrackUpdateStatus() {
+        return trackUpdateStatus;
+    }
+    
+    /**
+     * The maximum time in seconds a single REST call to the <b>student management system</b> may take, before it is
+     * aborted.
+     * @return the pullTimeout, values &le; 0 disable the timeout.
+     */
+    public int getPullTimeout() {
+        return pullTimeout;
+    }
+    
+    /**
+     * Whether independent REST calls of <b>one</b> course may be sent concurrently to the <b>student management
+     * system</b>. Otherwise, the calls of a course are sent one after another, calls of different courses are always
+     * sent concurrently.
+     * @return the concurrentPulls
+     */
+    public boolean isConcurrentPulls() {
+        return concurrentPulls;
+    }
+    
+    /**
+     * The maximum time in seconds, which changes of cached course information are kept only in memory before they
+     * are written to the {@link #getCacheDir()}.
+     * @return the cacheFlushInterval
+     */
+    public int getCacheFlushInterval() {
+        return cacheFlushInterval;
+    }
+    
+    /**
+     * The maximum memory in MiB per course, which is used to cache the rendered sections of the access file.
+     * @return the fragmentCacheSize, values &le; 0 disable the cache.
+     */
+    public int getFragmentCacheSize() {
+        return fragmentCacheSize;
+    }
+    
+    /**
+     * The time in minutes between two runs of the maintenance (packing) of the managed repositories.
+     * @return the maintenanceInterval, values &le; 0 disable the maintenance.
+     */
+    public int getMaintenanceInterval() {
+        return maintenanceInterval;
+    }
+    
+    /**
+     * The minimum time in minutes since the last commit, before a repository is packed by the maintenance.
+     * @return the maintenanceQuietPeriod
+     */
+    public int getMaintenanceQuietPeriod() {
+        return maintenanceQuietPeriod;
+    }
+    
     /**
      * Configurations of courses managed by this service.
      * @param courses the courses to set
@@ -276,4 +439,82 @@ public class Configuration {
     public void setAuthPassword(String authPassword) {
         this.authPassword = authPassword;
     }
+
+    /**
+     * Specifies if update messages shall be accepted immediately (<tt>202 Accepted</tt>) and processed in the
+     * background, instead of answering after the update was applied.
+     * @param asyncUpdates <tt>true</tt> if updates are processed asynchronously, <tt>false</tt> otherwise.
+     */
+    public void setAsyncUpdates(boolean asyncUpdates) {
+        this.asyncUpdates = asyncUpdates;
+    }
+
+    /**
+     * The maximum number of accepted update messages, which may wait for their processing if {@link #isAsyncUpdates()}
+     * is enabled.
+     * @param maxPendingUpdates the maxPendingUpdates to set
+     */
+    public void setMaxPendingUpdates(int maxPendingUpdates) {
+        this.maxPendingUpdates = maxPendingUpdates;
+    }
+
+    /**
+     * Specifies if a status URL shall be provided for each asynchronously accepted update message.
+     * @param trackUpdateStatus <tt>true</tt> if the processing state of accepted messages can be polled,
+     *     <tt>false</tt> otherwise.
+     */
+    public void setTrackUpdateStatus(boolean trackUpdateStatus) {
+        this.trackUpdateStatus = trackUpdateStatus;
+    }
+
+    /**
+     * The maximum time in seconds a single REST call to the <b>student management system</b> may take, before it is
+     * aborted.
+     * @param pullTimeout the pullTimeout to set, values &le; 0 disable the timeout.
+     */
+    public void setPullTimeout(int pullTimeout) {
+        this.pullTimeout = pullTimeout;
+    }
+
+    /**
+     * Whether independent REST calls of <b>one</b> course may be sent concurrently to the <b>student management
+     * system</b>.
+     * @param concurrentPulls the concurrentPulls to set
+     */
+    public void setConcurrentPulls(boolean concurrentPulls) {
+        this.concurrentPulls = concurrentPulls;
+    }
+
+    /**
+     * The maximum time in seconds, which changes of cached course information are kept only in memory before they
+     * are written to the {@link #getCacheDir()}.
+     * @param cacheFlushInterval the cacheFlushInterval to set
+     */
+    public void setCacheFlushInterval(int cacheFlushInterval) {
+        this.cacheFlushInterval = cacheFlushInterval;
+    }
+
+    /**
+     * The maximum memory in MiB per course, which is used to cache the rendered sections of the access file.
+     * @param fragmentCacheSize the fragmentCacheSize to set, values &le; 0 disable the cache.
+     */
+    public void setFragmentCacheSize(int fragmentCacheSize) {
+        this.fragmentCacheSize = fragmentCacheSize;
+    }
+
+    /**
+     * The time in minutes between two runs of the maintenance (packing) of the managed repositories.
+     * @param maintenanceInterval The interval to set, values &le; 0 disable the maintenance.
+     */
+    public void setMaintenanceInterval(int maintenanceInterval) {
+        this.maintenanceInterval = maintenanceInterval;
+    }
+
+    /**
+     * The minimum time in minutes since the last commit, before a repository is packed by the maintenance.
+     * @param maintenanceQuietPeriod The quiet period to set.
+     */
+    public void setMaintenanceQuietPeriod(int maintenanceQuietPeriod) {
+        this.maintenanceQuietPeriod = maintenanceQuietPeriod;
+    }
 }
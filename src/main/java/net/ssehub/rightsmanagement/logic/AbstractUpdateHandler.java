@@ -1,10 +1,14 @@
 package net.ssehub.rightsmanagement.logic;
 
-import java.io.FileWriter;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,14 +17,16 @@ import org.tmatesoft.svn.core.SVNException;
 import net.ssehub.exercisesubmitter.protocol.backend.NetworkException;
 import net.ssehub.exercisesubmitter.protocol.backend.ServerNotFoundException;
 import net.ssehub.exercisesubmitter.protocol.backend.UnknownCredentialsException;
-import net.ssehub.exercisesubmitter.protocol.frontend.Group;
-import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
 import net.ssehub.exercisesubmitter.protocol.frontend.RightsManagementProtocol;
-import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.AccessFile;
+import net.ssehub.rightsmanagement.AccessReader;
 import net.ssehub.rightsmanagement.AccessWriter;
+import net.ssehub.rightsmanagement.FragmentCache;
+import net.ssehub.rightsmanagement.RightsIndex;
 import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
 import net.ssehub.rightsmanagement.conf.Settings;
 import net.ssehub.rightsmanagement.model.Course;
+import net.ssehub.rightsmanagement.model.CourseDiff;
 import net.ssehub.rightsmanagement.svn.Repository;
 import net.ssehub.rightsmanagement.svn.RepositoryNotFoundException;
 import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
@@ -30,12 +36,23 @@ import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
  * @author El-Sharkawy
  *
  */
-public abstract class AbstractUpdateHandler {
+public abstract class AbstractUpdateHandler implements Closeable {
     
     private static final Logger LOGGER = LogManager.getLogger(AbstractUpdateHandler.class);
     
     private CourseConfiguration courseConfig;
     private RightsManagementProtocol connector;
+    private DataPullStage pullStage;
+    private AccessFile accessFile;
+    private FragmentCache fragmentCache;
+    private Repository repository;
+    private volatile RightsIndex rightsIndex;
+    
+    // State of the last update, the changes decide about the repository update and the outdated fragments
+    private CourseDiff.Snapshot lastSnapshot;
+    
+    // Result of the last repository update, reused as long as neither the course nor other clients changed the folders
+    private Set<String> lastDeprecatedFolders;
     
     /**
      * Creates a handler to manage updates for a course.
@@ -47,7 +64,7 @@ public abstract class AbstractUpdateHandler {
         if (courseConfig.isInitRepositoryIfNotExists()) {
             try {
                 LOGGER.debug("Initialize repository if it does not exist at {}.", courseConfig.getRepositoryPath());
-                new Repository(courseConfig.getRepositoryPath(), courseConfig.getAuthor(), true);
+                repository = new Repository(courseConfig.getRepositoryPath(), courseConfig.getAuthor(), true);
                 LOGGER.debug("Initialized repository if it does not existed at {}.", courseConfig.getRepositoryPath());
             } catch (RepositoryNotFoundException e) {
                 LOGGER.fatal("Could not initlaize repository at " + courseConfig.getRepositoryPath(), e);
@@ -64,6 +81,31 @@ public abstract class AbstractUpdateHandler {
     protected AbstractUpdateHandler(CourseConfiguration courseConfig, RightsManagementProtocol connector) {
         this.courseConfig = courseConfig;
         this.connector = connector;
+        this.pullStage = new DataPullStage(connector, Settings.getConfig().getPullTimeout() * 1000L,
+            Settings.getConfig().isConcurrentPulls());
+        int fragmentCacheSize = Settings.getConfig().getFragmentCacheSize();
+        if (fragmentCacheSize > 0) {
+            fragmentCache = new FragmentCache(fragmentCacheSize * 1024L * 1024L);
+        }
+        rightsIndex = readRightsIndex();
+    }
+    
+    /**
+     * Part of the constructor to answer rights queries before the first update: Reads the access file, which was
+     * written before the service was (re-)started.
+     * @return The rights of the existing access file or <tt>null</tt> if it does not exist or cannot be read.
+     */
+    private RightsIndex readRightsIndex() {
+        RightsIndex index = null;
+        String accessPath = courseConfig.getAccessPath();
+        if (null != accessPath && Files.isRegularFile(Paths.get(accessPath))) {
+            try {
+                index = new RightsIndex(AccessReader.read(Paths.get(accessPath)), courseConfig.getSvnName());
+            } catch (IOException e) {
+                LOGGER.warn("Could not read access file {}, cause {}", accessPath, e.getMessage());
+            }
+        }
+        return index;
     }
     
     /**
@@ -112,39 +154,143 @@ public abstract class AbstractUpdateHandler {
         return connector;
     }
     
+    /**
+     * Returns the stage, which pulls information concurrently from the <b>student management system</b>.
+     * @return The pull stage operating on {@link #getDataPullService()}.
+     */
+    protected DataPullStage getPullStage() {
+        return pullStage;
+    }
+    
+    /**
+     * Returns the duration of the most recent REST calls to the <b>student management system</b>.
+     * @return Call name &rarr; duration in milliseconds.
+     */
+    public Map<String, Long> getPullTimings() {
+        return pullStage.getTimings();
+    }
+    
+    /**
+     * Returns the cache of rendered assignments of the access file.
+     * @return The cache or <tt>null</tt> if it is disabled.
+     */
+    public FragmentCache getFragmentCache() {
+        return fragmentCache;
+    }
+    
+    /**
+     * Returns the rights of the most recent successfully written access file, which may be queried while the next
+     * update is running. Until the first update, the rights of the access file found at start-up are returned.
+     * @return The rights of all users or <tt>null</tt> if neither an update was processed nor an access file exists.
+     */
+    public RightsIndex getRightsIndex() {
+        return rightsIndex;
+    }
+    
     /**
      * Handles the update request and updates the managed repository.
      * @param msg The update request produced by the student management service
      * @throws IOException If the local repository couldn't be updated.
+     * @see #updateBatch(List)
+     */
+    public void update(NotificationDto msg) throws IOException {
+        updateBatch(Collections.singletonList(msg));
+    }
+    
+    /**
+     * Applies a batch of update requests, called by the {@link CourseUpdateQueue}. The default implementation applies
+     * the batch immediately via {@link #updateBatch(List)}. Handlers, which defer the update, must complete the
+     * returned future not before the deferred update was applied.
+     * @param msgs The update requests produced by the student management service, in the order of their arrival.
+     * @return A future, which is completed after the batch was applied, exceptionally if the update failed.
+     */
+    public CompletableFuture<Void> applyBatch(List<NotificationDto> msgs) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            updateBatch(msgs);
+            result.complete(null);
+            // checkstyle: stop exception type check (caller will be informed)
+        } catch (Exception e) {
+            // checkstyle: resume exception type check
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Handles a batch of update requests with <b>one</b> rebuild and updates the managed repository.<p>
+     * <b>Note:</b> Must not be called concurrently for the same course. This is ensured by the
+     * {@link CourseUpdateQueue}, which collects all requests that arrive while a rebuild is running.
+     * @param msgs The update requests produced by the student management service, in the order of their arrival.
+     * @throws IOException If the local repository couldn't be updated.
      */
-    public synchronized void update(NotificationDto msg) throws IOException {
-        LOGGER.debug("Received update message \"{}\" for course \"{}\" processed by \"{}\"", msg, getCourseID(),
-            getClass().getSimpleName());
+    public void updateBatch(List<NotificationDto> msgs) throws IOException {
+        LOGGER.debug("Received {} update message(s) {} for course \"{}\" processed by \"{}\"", msgs.size(), msgs,
+            getCourseID(), getClass().getSimpleName());
         
         try {
             /*
              * First: Compute whole set-up for the course out of the delta.
              * This is required, since the access file can only be written for the complete course at once.
              */
-            Course course = computeFullConfiguration(msg);
+            Course course = computeFullConfiguration(msgs);
+            CourseDiff.Snapshot snapshot = new CourseDiff.Snapshot(course);
+            CourseDiff diff = CourseDiff.compute(lastSnapshot, snapshot);
+            // Failed steps do not depend on the diff: The repository is tracked separately, writes are always repeated
+            lastSnapshot = snapshot;
+            if (diff.isEmpty()) {
+                LOGGER.debug("Course \"{}\" unchanged, checking repository and access file for changes of other "
+                    + "clients", getCourseID());
+            } else {
+                LOGGER.info("Course \"{}\" changed: {}", getCourseID(), diff);
+            }
             
             /*
-             * Second: Update repository.
+             * Second: Update repository, only if folders are affected: Either by the course or by other clients,
+             * whose folders must be black listed.
              */
-            Set<String> deprecatedFolders = updateRepository(course);
+            Set<String> deprecatedFolders;
+            if (null != lastDeprecatedFolders && !diff.isStructuralChange() && isRepositoryUpToDate()) {
+                LOGGER.debug("Folders of course \"{}\" unchanged, skipping repository update", getCourseID());
+                deprecatedFolders = lastDeprecatedFolders;
+            } else {
+                // A failed update is repeated at the next update
+                lastDeprecatedFolders = null;
+                deprecatedFolders = updateRepository(course);
+                lastDeprecatedFolders = deprecatedFolders;
+            }
+            
+            if (null != fragmentCache) {
+                // Release the outdated fragments before rendering, unchanged assignments are taken from the cache
+                fragmentCache.invalidate(diff.getChangedAssignments());
+            }
             
             /*
-             * Third: Write access file.
+             * Third: Write access file, also if the course is unchanged to restore external changes of the file.
+             * The fragment cache skips the rendering of unchanged assignments and unchanged content is not written.
              */
+            boolean written = false;
             AccessWriter writer = createWriter();
             try {
                 writer.write(course, courseConfig.getSvnName(), deprecatedFolders);
+                // Replaces the access file, only after the complete content was written
+                writer.close();
+                written = true;
             } catch (IOException e) {
                 // Use logging with concatenation here:
                 // As is is almost always printed when reached and to print stack trace
                 LOGGER.error("Could not write access file for course \"" + getCourseID() + "\".", e);
             } finally {
-                writer.close();
+                if (!written) {
+                    // Keep the current access file instead of replacing it with incomplete content
+                    writer.abort();
+                }
+            }
+            
+            if (written) {
+                // Publish the rights of the new set-up, queries keep using the previous index until this point
+                rightsIndex = new RightsIndex(course, courseConfig.getSvnName(), deprecatedFolders,
+                    courseConfig.isGlobAccessRules());
             }
         } catch (NetworkException netExc) {
             LOGGER.error("Could not query required information, cause: " + netExc.getMessage(), netExc);
@@ -172,17 +318,8 @@ public abstract class AbstractUpdateHandler {
         course.setCourseName(courseConfig.getCourseName());
         course.setSemester(courseConfig.getSemester());
         
-        // update tutors
-        Group tutors = getDataPullService().getTutors();
-        course.setTutors(tutors);
-        
-        // update list of all participants
-        List<User> studentsOfCourse = getDataPullService().getStudents();
-        course.setStudents(studentsOfCourse);
-        
-        // update all non-group assignments, as the list of students has changed
-        List<ManagedAssignment> assignments = getDataPullService().loadAssignments(studentsOfCourse);
-        course.setAssignments(assignments);
+        // update tutors, list of all participants, and all assignments
+        pullStage.pullFullConfiguration(course);
         
         return course;
     }
@@ -195,16 +332,55 @@ public abstract class AbstractUpdateHandler {
      */
     protected abstract Course computeFullConfiguration(NotificationDto msg) throws NetworkException;
     
+    /**
+     * Estimates the full course configuration out of a batch of coalesced update messages.
+     * The default implementation considers only the latest message, which is sufficient for all handlers that
+     * pull the complete configuration anyway. Handlers that apply deltas must overwrite this method.
+     * @param msgs The update requests produced by the student management service, in the order of their arrival.
+     * @return The complete set-up for the whole course.
+     * @throws NetworkException If network problems occur
+     */
+    protected Course computeFullConfiguration(List<NotificationDto> msgs) throws NetworkException {
+        return computeFullConfiguration(msgs.get(msgs.size() - 1));
+    }
+    
     /**
      * Creates the {@link AccessWriter} to write the access file.
+     * The access file is replaced atomically when the writer is closed, but only if its content has changed.
      * May be overwritten for testing purposes.
      * @return The writer to use.
-     * @throws IOException If the named file exists but is a directory rather than a regular file,
-     *     does not exist but cannot be created, or cannot be opened for any other reason
+     * @throws IOException If the access file cannot be opened
      */
     protected AccessWriter createWriter() throws IOException {
-        Writer writer = new FileWriter(courseConfig.getAccessPath());
-        return new AccessWriter(writer);
+        if (null == accessFile) {
+            accessFile = new AccessFile(Paths.get(courseConfig.getAccessPath()));
+        }
+        // Replaces the access file only if the content has changed
+        AccessWriter writer = new AccessWriter(accessFile.openChannel());
+        writer.setCompact(courseConfig.isCompactAccessFile());
+        writer.setGlobRules(courseConfig.isGlobAccessRules());
+        writer.setFragmentCache(fragmentCache);
+        return writer;
+    }
+    
+    /**
+     * Checks whether the repository was changed since the last call of {@link #updateRepository(Course)}, e.g., by
+     * other clients or courses sharing the repository. Costs one round-trip to the repository.
+     * May be overwritten for testing purposes or to support alternative repositories.
+     * @return <tt>true</tt> if the folders are unchanged, <tt>false</tt> if they have changed or were not read yet.
+     * @throws IOException If the repository cannot be read.
+     */
+    protected boolean isRepositoryUpToDate() throws IOException {
+        boolean upToDate = false;
+        if (null != repository) {
+            try {
+                upToDate = repository.isUpToDate();
+            } catch (SVNException e) {
+                throw new IOException(e);
+            }
+        }
+        
+        return upToDate;
     }
     
     /**
@@ -219,7 +395,10 @@ public abstract class AbstractUpdateHandler {
     protected Set<String> updateRepository(Course course) throws IOException {
         Set<String> folders = null;
         try {
-            Repository repository = new Repository(courseConfig.getRepositoryPath(), courseConfig.getAuthor(), false);
+            if (null == repository) {
+                // Kept between updates, caches the folder structure of the repository and keeps its sessions open
+                repository = new Repository(courseConfig.getRepositoryPath(), courseConfig.getAuthor(), false);
+            }
             folders = repository.updateRepository(course);
         } catch (SVNException | RepositoryNotFoundException e) {
             throw new IOException(e);
@@ -228,6 +407,43 @@ public abstract class AbstractUpdateHandler {
         return folders;
     }
 
+    /**
+     * Bulk provisioning of the repository, e.g., at the beginning of a semester: Pulls the complete course from the
+     * <b>student management server</b> and creates all missing folders with one commit. The access file is not
+     * changed, it is written by the next regular update.
+     * @param listener Will be informed about the progress, may be <tt>null</tt>.
+     * @return The number of created folders.
+     * @throws IOException If the course could not be pulled or the repository could not be changed.
+     */
+    public int provision(Repository.ProgressListener listener) throws IOException {
+        Course course;
+        try {
+            course = computeFullConfiguration();
+        } catch (NetworkException e) {
+            throw new IOException(e);
+        }
+        
+        int nFolders;
+        try {
+            if (null == repository) {
+                repository = new Repository(courseConfig.getRepositoryPath(), courseConfig.getAuthor(), false);
+            }
+            nFolders = repository.provision(course, listener);
+        } catch (SVNException | RepositoryNotFoundException e) {
+            throw new IOException(e);
+        }
+        
+        return nFolders;
+    }
+    
+    /**
+     * Returns the location of the repository of the managed course.
+     * @return The configured repository path, may be <tt>null</tt> for handlers which are used for testing.
+     */
+    public String getRepositoryPath() {
+        return courseConfig.getRepositoryPath();
+    }
+    
     /**
      * Returns the ID of the managed course.
      * @return The ID of the course, won't be <tt>null</tt>.
@@ -235,4 +451,15 @@ public abstract class AbstractUpdateHandler {
     public String getCourseID() {
         return courseConfig.getCourseName() + "-" + courseConfig.getSemester();
     }
+    
+    /**
+     * Releases resources of the handler. Should be called once when the service shuts down.
+     * Closes the sessions to the repository, handlers that defer work must apply it before calling this method.
+     */
+    @Override
+    public void close() {
+        if (null != repository) {
+            repository.close();
+        }
+    }
 }
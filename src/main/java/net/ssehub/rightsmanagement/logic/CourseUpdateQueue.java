@@ -0,0 +1,281 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.ssehub.rightsmanagement.FragmentCache;
+import net.ssehub.rightsmanagement.RightsIndex;
+import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
+
+/**
+ * Single-consumer work queue for the updates of <b>one</b> course.<p>
+ * Only one rebuild per course is executed at a time. All {@link NotificationDto}s that arrive while a rebuild is
+ * running are collected and applied together by exactly one follow-up rebuild. Thus, a burst of <tt>n</tt> update
+ * messages causes at most two rebuilds instead of <tt>n</tt> rebuilds.
+ * @author El-Sharkawy
+ *
+ */
+public class CourseUpdateQueue implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(CourseUpdateQueue.class);
+
+    /**
+     * An update message together with the future to complete, after the message was applied.
+     * @author El-Sharkawy
+     *
+     */
+    private static class PendingUpdate {
+        private final NotificationDto msg;
+        private final CompletableFuture<Void> result;
+
+        /**
+         * Creates a new pending update.
+         * @param msg The update message to apply.
+         * @param result The future to complete after the message was applied.
+         */
+        private PendingUpdate(NotificationDto msg, CompletableFuture<Void> result) {
+            this.msg = msg;
+            this.result = result;
+        }
+    }
+
+    private final AbstractUpdateHandler handler;
+    private final ExecutorService consumer;
+
+    // Guarded by this
+    private List<PendingUpdate> pending = new ArrayList<>();
+    private boolean running;
+
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    /**
+     * Creates a new queue, which passes the collected updates to the given handler.
+     * @param handler The handler of the course, which shall process the updates.
+     */
+    public CourseUpdateQueue(AbstractUpdateHandler handler) {
+        this.handler = handler;
+        this.consumer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "update-" + handler.getCourseID());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Enqueues an update message. The message is applied either by the next rebuild or, if no rebuild is running,
+     * immediately by a new rebuild.
+     * @param msg The update message received by the student management system.
+     * @return A future, which is completed after the rebuild that considered the message has finished. It is
+     *     completed exceptionally if that rebuild failed.
+     */
+    public CompletableFuture<Void> submit(NotificationDto msg) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        boolean startConsumer;
+        synchronized (this) {
+            pending.add(new PendingUpdate(msg, result));
+            startConsumer = !running;
+            running = true;
+        }
+        receivedEvents.incrementAndGet();
+
+        if (startConsumer) {
+            try {
+                consumer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Queue was closed: No consumer will process the pending updates -> inform the callers
+                LOGGER.warn("Rejected updates of course \"{}\", the queue is closed.", handler.getCourseID());
+                rejectPending(e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Completes all pending updates exceptionally, after the consumer could not be started.
+     * @param error The reason why the updates cannot be processed.
+     */
+    private void rejectPending(RejectedExecutionException error) {
+        List<PendingUpdate> rejected;
+        synchronized (this) {
+            rejected = pending;
+            pending = new ArrayList<>();
+            running = false;
+        }
+        for (PendingUpdate update : rejected) {
+            update.result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Processes pending updates until the queue is empty. Runs on the consumer thread only.
+     */
+    private void drain() {
+        List<PendingUpdate> batch = takeBatch();
+        while (null != batch) {
+            process(batch);
+            batch = takeBatch();
+        }
+    }
+
+    /**
+     * Removes all pending updates from the queue, to apply them with one rebuild.
+     * @return All pending updates or <tt>null</tt> if there are no pending updates (the consumer stops in this case).
+     */
+    private synchronized List<PendingUpdate> takeBatch() {
+        List<PendingUpdate> batch = null;
+        if (pending.isEmpty()) {
+            running = false;
+        } else {
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        return batch;
+    }
+
+    /**
+     * Applies the given updates with one rebuild and informs the waiting callers, after the rebuild has finished.
+     * @param batch The updates to apply.
+     */
+    private void process(List<PendingUpdate> batch) {
+        List<NotificationDto> msgs = new ArrayList<>(batch.size());
+        for (PendingUpdate update : batch) {
+            msgs.add(update.msg);
+        }
+        rebuilds.incrementAndGet();
+        coalescedEvents.addAndGet(batch.size() - 1);
+        if (batch.size() > 1) {
+            LOGGER.debug("Coalesced {} update messages of course \"{}\" into one rebuild", batch.size(),
+                handler.getCourseID());
+        }
+
+        CompletableFuture<Void> applied;
+        try {
+            applied = handler.applyBatch(msgs);
+            // checkstyle: stop exception type check (must not kill the consumer, caller will be informed)
+        } catch (RuntimeException e) {
+            // checkstyle: resume exception type check
+            applied = CompletableFuture.failedFuture(e);
+        }
+
+        // Deferring handlers complete the future after the consumer has continued with the next batch
+        applied.whenComplete((ignored, error) -> {
+            if (null != error) {
+                LOGGER.error("Could not process updates of course \"" + handler.getCourseID() + "\".", error);
+            }
+            for (PendingUpdate update : batch) {
+                if (null == error) {
+                    update.result.complete(null);
+                } else {
+                    update.result.completeExceptionally(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the ID of the course, which is handled by this queue.
+     * @return The ID of the course.
+     */
+    public String getCourseID() {
+        return handler.getCourseID();
+    }
+    
+    /**
+     * Returns the duration of the most recent REST calls of the handler of this queue.
+     * @return Call name &rarr; duration in milliseconds.
+     * @see AbstractUpdateHandler#getPullTimings()
+     */
+    public Map<String, Long> getPullTimings() {
+        return handler.getPullTimings();
+    }
+    
+    /**
+     * Returns the statistics of the cache of rendered assignments of the handler of this queue.
+     * @return Statistic name &rarr; value, empty if the cache is disabled.
+     * @see AbstractUpdateHandler#getFragmentCache()
+     */
+    public Map<String, Long> getFragmentCacheStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        FragmentCache cache = handler.getFragmentCache();
+        if (null != cache) {
+            statistics.put("hits", cache.getHits());
+            statistics.put("misses", cache.getMisses());
+            statistics.put("evictions", cache.getEvictions());
+            statistics.put("sizeInBytes", cache.getSize());
+        }
+        return statistics;
+    }
+    
+    /**
+     * Returns the rights of the most recent access file of the handler of this queue.
+     * @return The rights of all users or <tt>null</tt> if neither an update was processed nor an access file exists.
+     * @see AbstractUpdateHandler#getRightsIndex()
+     */
+    public RightsIndex getRightsIndex() {
+        return handler.getRightsIndex();
+    }
+
+    /**
+     * Returns the number of update messages, which wait for the next rebuild.
+     * @return The current queue depth.
+     */
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the number of update messages, which were received since start-up.
+     * @return The number of received update messages.
+     */
+    public long getReceivedEvents() {
+        return receivedEvents.get();
+    }
+
+    /**
+     * Returns the number of update messages, which did not cause a rebuild of their own, since they were applied
+     * together with other update messages.
+     * @return The number of coalesced update messages.
+     */
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    /**
+     * Returns the number of executed rebuilds since start-up.
+     * @return The number of rebuilds.
+     */
+    public long getRebuilds() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Stops accepting further work and waits a short time until the running rebuild has finished.
+     */
+    @Override
+    public void close() {
+        consumer.shutdown();
+        try {
+            if (!consumer.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Update of course \"{}\" did not finish in time.", handler.getCourseID());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.ssehub.exercisesubmitter.protocol.backend.NetworkException;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.RightsManagementProtocol;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Pulls the information of a course from the <b>student management system</b> on a shared, bounded pool of threads.
+ * If concurrent calls are enabled, independent REST calls are executed in parallel: Tutors are pulled in parallel to
+ * the students and the assignments, which depend on the students. Several assignments are reloaded in parallel, too.
+ * Otherwise, the calls of one connector are executed one after another, as {@link RightsManagementProtocol} does not
+ * specify whether it may be used concurrently.<p>
+ * Waiting for a call is aborted with a {@link NetworkException} if it does not finish within the configured timeout.
+ * The call itself cannot be interrupted and keeps its thread until the server answers, calls which were not started
+ * yet are skipped. The duration of the most recent execution of each call is recorded for monitoring purpose.
+ * @author El-Sharkawy
+ *
+ */
+public class DataPullStage {
+
+    static final String CALL_TUTORS = "getTutors";
+    static final String CALL_STUDENTS = "getStudents";
+    static final String CALL_ASSIGNMENTS = "loadAssignments";
+    static final String CALL_UPDATE_ASSIGNMENTS = "updateAssignments";
+    static final String CALL_TOTAL = "total";
+
+    private static final Logger LOGGER = LogManager.getLogger(DataPullStage.class);
+
+    /**
+     * Maximum number of calls executed at the same time by all courses. Calls are I/O bound and, thus, are not limited
+     * to the number of cores. Bounded, since calls to a hanging server cannot be interrupted.
+     */
+    static final int MAX_CONCURRENT_CALLS = 8;
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(MAX_CONCURRENT_CALLS,
+        MAX_CONCURRENT_CALLS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "data-pull");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Functional interface for a single REST call, which may fail with a {@link NetworkException}.
+     * @param <T> The result of the call.
+     * @author El-Sharkawy
+     *
+     */
+    @FunctionalInterface
+    private static interface RestCall<T> {
+
+        /**
+         * Executes the call.
+         * @return The result of the call.
+         * @throws NetworkException If network problems occur
+         */
+        T call() throws NetworkException;
+    }
+
+    private final RightsManagementProtocol protocol;
+    private final long timeout;
+    private final boolean concurrent;
+
+    // Guarded by itself
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+
+    /**
+     * Creates a new pull stage.
+     * @param protocol The connector to pull information from the <b>student management system</b>.
+     * @param timeout The maximum time in milliseconds a single call may take, values &le; 0 disable the timeout.
+     * @param concurrent <tt>true</tt> if independent calls may be sent concurrently via the connector,
+     *     <tt>false</tt> if the calls shall be sent one after another.
+     */
+    public DataPullStage(RightsManagementProtocol protocol, long timeout, boolean concurrent) {
+        this.protocol = protocol;
+        this.timeout = timeout;
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Pulls tutors, students and assignments and sets them at the given course.
+     * @param course The course to update, will be changed as side effect.
+     * @throws NetworkException If network problems occur or a call did not finish in time
+     */
+    public void pullFullConfiguration(Course course) throws NetworkException {
+        long start = System.currentTimeMillis();
+
+        CompletableFuture<Group> tutors = submit(CALL_TUTORS, protocol::getTutors);
+        CompletableFuture<List<User>> students = submit(CALL_STUDENTS, protocol::getStudents);
+        // Assignments depend on the list of students
+        CompletableFuture<List<ManagedAssignment>> assignments = students.thenComposeAsync(
+            s -> submit(CALL_ASSIGNMENTS, () -> protocol.loadAssignments(s)), EXECUTOR);
+
+        // Sequential calls may wait for the other independent call
+        course.setTutors(await(CALL_TUTORS, tutors, concurrent ? 1 : 2));
+        course.setStudents(await(CALL_STUDENTS, students, concurrent ? 1 : 2));
+        // Started after the students were received -> may take up to three call durations
+        course.setAssignments(await(CALL_ASSIGNMENTS, assignments, concurrent ? 2 : 3));
+
+        record(CALL_TOTAL, start);
+    }
+
+    /**
+     * Loads all assignments of the course.
+     * @param students The students of the course, may be <tt>null</tt>.
+     * @return The assignments of the course.
+     * @throws NetworkException If network problems occur or the call did not finish in time
+     */
+    public List<ManagedAssignment> loadAssignments(List<User> students) throws NetworkException {
+        return await(CALL_ASSIGNMENTS, submit(CALL_ASSIGNMENTS, () -> protocol.loadAssignments(students)), 1);
+    }
+
+    /**
+     * Reloads the given assignments, in parallel if concurrent calls are enabled.
+     * @param assignments The assignments to reload, will be changed as side effect.
+     * @throws NetworkException If network problems occur or a call did not finish in time
+     */
+    public void updateAssignments(Collection<ManagedAssignment> assignments) throws NetworkException {
+        long start = System.currentTimeMillis();
+
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (ManagedAssignment assignment : assignments) {
+            calls.add(submit(null, () -> {
+                protocol.updateAssignment(assignment);
+                return null;
+            }));
+        }
+        int nCalls = concurrent ? 1 + calls.size() / MAX_CONCURRENT_CALLS : calls.size();
+        await(CALL_UPDATE_ASSIGNMENTS, CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])),
+            Math.max(1, nCalls));
+
+        record(CALL_UPDATE_ASSIGNMENTS, start);
+    }
+
+    /**
+     * Returns the duration of the most recent execution of each call.
+     * @return Call name &rarr; duration in milliseconds, in the order in which the calls were executed first.
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(timings));
+        }
+    }
+
+    /**
+     * Executes the call asynchronously. If concurrent calls are disabled, the call waits until other calls of the
+     * connector have finished.
+     * @param <T> The result type of the call.
+     * @param name The name under which the duration is recorded, may be <tt>null</tt> to skip recording.
+     * @param call The REST call to execute.
+     * @return The future result of the call, completed exceptionally with a {@link NetworkException} if the call
+     *     failed.
+     */
+    private <T> CompletableFuture<T> submit(String name, RestCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (concurrent) {
+                return execute(name, call);
+            }
+            synchronized (protocol) {
+                return execute(name, call);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Executes the call on the current thread and records its duration.
+     * @param <T> The result type of the call.
+     * @param name The name under which the duration is recorded, may be <tt>null</tt> to skip recording.
+     * @param call The REST call to execute.
+     * @return The result of the call.
+     * @throws CompletionException Wraps the {@link NetworkException} if the call failed
+     */
+    private <T> T execute(String name, RestCall<T> call) {
+        long start = System.currentTimeMillis();
+        try {
+            return call.call();
+        } catch (NetworkException e) {
+            throw new CompletionException(e);
+        } finally {
+            if (null != name) {
+                record(name, start);
+            }
+        }
+    }
+
+    /**
+     * Waits for the result of an asynchronous call.
+     * @param <T> The result type of the call.
+     * @param name The name of the call, used for error messages.
+     * @param future The future result of the call.
+     * @param nCalls The number of sequential calls the future depends on, multiplies the timeout.
+     * @return The result of the call.
+     * @throws NetworkException If the call failed or did not finish in time
+     */
+    private <T> T await(String name, CompletableFuture<T> future, int nCalls) throws NetworkException {
+        try {
+            return timeout > 0 ? future.get(timeout * nCalls, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.warn("{} did not finish within {} ms", name, timeout * nCalls);
+            throw new NetworkException(name + " did not finish within " + (timeout * nCalls) + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetworkException("Interrupted while waiting for " + name);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NetworkException) {
+                throw (NetworkException) cause;
+            }
+            NetworkException exc = new NetworkException(name + " failed: " + cause.getMessage());
+            exc.initCause(cause);
+            throw exc;
+        }
+    }
+
+    /**
+     * Records the duration of a call.
+     * @param name The name of the call.
+     * @param start The start time of the call in milliseconds.
+     */
+    private void record(String name, long start) {
+        long duration = System.currentTimeMillis() - start;
+        synchronized (timings) {
+            timings.put(name, duration);
+        }
+        LOGGER.debug("{} took {} ms", name, duration);
+    }
+
+}
@@ -0,0 +1,121 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Debounces an action on the trailing edge: The action is executed once after no further trigger was received for
+ * the configured quiet window. To avoid starvation during a long lasting stream of triggers, the action is executed
+ * at the latest after the maximum wait time, measured from the first trigger that was not handled yet.<p>
+ * The action is executed on a dedicated scheduler thread, thus, triggering never blocks the caller and two executions
+ * of the action never overlap.
+ * @author El-Sharkawy
+ *
+ */
+public class DebounceScheduler implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(DebounceScheduler.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Runnable action;
+    private final long quietWindow;
+    private final long maxWait;
+
+    // Guarded by this
+    private ScheduledFuture<?> pendingRun;
+    private long firstTrigger;
+    private long generation;
+
+    /**
+     * Creates a new scheduler.
+     * @param name The name of the scheduler thread.
+     * @param quietWindow The time in milliseconds without further triggers, after which the action is executed.
+     * @param maxWait The maximum time in milliseconds between a trigger and the execution of the action. Values
+     *     smaller than <tt>quietWindow</tt> are treated as <tt>quietWindow</tt>.
+     * @param action The action to execute.
+     */
+    public DebounceScheduler(String name, long quietWindow, long maxWait, Runnable action) {
+        this.action = action;
+        this.quietWindow = quietWindow;
+        this.maxWait = Math.max(quietWindow, maxWait);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests an execution of the action. Returns immediately.
+     */
+    public synchronized void trigger() {
+        long now = System.currentTimeMillis();
+        if (null == pendingRun) {
+            firstTrigger = now;
+        } else {
+            pendingRun.cancel(false);
+        }
+
+        long delay = Math.max(0, Math.min(quietWindow, firstTrigger + maxWait - now));
+        long runGeneration = ++generation;
+        pendingRun = scheduler.schedule(() -> fire(runGeneration), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executes the action, if no newer trigger has re-scheduled it in the meantime.
+     * @param runGeneration The trigger, which scheduled this execution.
+     */
+    private void fire(long runGeneration) {
+        synchronized (this) {
+            if (runGeneration != generation) {
+                // Outdated: cancellation came too late, a newer run is scheduled already
+                return;
+            }
+            pendingRun = null;
+        }
+
+        try {
+            action.run();
+            // checkstyle: stop exception type check (must not kill the scheduler)
+        } catch (RuntimeException e) {
+            // checkstyle: resume exception type check
+            LOGGER.error("Could not execute debounced action", e);
+        }
+    }
+
+    /**
+     * Returns whether an execution of the action is currently scheduled.
+     * @return <tt>true</tt> if the action will be executed in future, <tt>false</tt> otherwise.
+     */
+    public synchronized boolean isPending() {
+        return null != pendingRun;
+    }
+
+    /**
+     * Executes a pending action immediately (to avoid losing it) and stops the scheduler.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (null != pendingRun) {
+                pendingRun.cancel(false);
+                long runGeneration = generation;
+                scheduler.execute(() -> fire(runGeneration));
+            }
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Debounced action did not finish in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,55 +1,164 @@
 package net.ssehub.rightsmanagement.logic;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import net.ssehub.exercisesubmitter.protocol.backend.NetworkException;
+import net.ssehub.exercisesubmitter.protocol.frontend.RightsManagementProtocol;
 import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
-import net.ssehub.rightsmanagement.model.Course;
 import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
 
 /**
  * A {@link RestUpdateHandler} that does not pull immediately new data. Instead it waits for a certain time for
- * further changes to reduce the overall workload / traffic.
+ * further changes to reduce the overall workload / traffic.<p>
+ * The waiting is done by a {@link DebounceScheduler}: The full configuration is pulled after no further update was
+ * received during the quiet window, but at the latest after the maximum wait time. Incoming updates return
+ * immediately and never block on the delay, their futures are completed after the delayed update was applied.
  * @author El-Sharkawy
  *
  */
 public class DelayedRestUpdateHandler extends RestUpdateHandler {
-    
+
     private static final Logger LOGGER = LogManager.getLogger(DelayedRestUpdateHandler.class);
 
-    /**
-     * Wait 10 seconds before checking if service should pull the whole configuration from the student management system
-     * to apply the update.
-     */
-    private static final long SLEEP_TIME = 10 * 1000;
-    
-    private final long delay;
-    private long lastUpdate;
-    
+    private final DebounceScheduler scheduler;
+
+    // Guarded by this
+    private NotificationDto lastMessage;
+    private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+
     /**
      * Creates a new {@link RestUpdateHandler} that waits for the specified time for further changes.
      * @param courseConfig The configuration for the managed course.
-     * @param delay the time to wait for further changes in milli seconds.
+     * @param quietWindow the time to wait for further changes in milli seconds.
+     * @param maxWait the maximum time in milli seconds to delay an update, if further changes arrive continuously.
      */
-    public DelayedRestUpdateHandler(CourseConfiguration courseConfig, long delay) {
+    public DelayedRestUpdateHandler(CourseConfiguration courseConfig, long quietWindow, long maxWait) {
         super(courseConfig);
-        this.delay = delay;
-        this.lastUpdate = 0;
+        scheduler = createScheduler(quietWindow, maxWait);
+    }
+
+    /**
+     * Internal constructor for testing purpose.
+     * @param courseConfig The configuration for the managed course.
+     * @param connector The connector to use or <tt>null</tt> during tests.
+     * @param quietWindow the time to wait for further changes in milli seconds.
+     * @param maxWait the maximum time in milli seconds to delay an update, if further changes arrive continuously.
+     */
+    protected DelayedRestUpdateHandler(CourseConfiguration courseConfig, RightsManagementProtocol connector,
+        long quietWindow, long maxWait) {
+
+        super(courseConfig, connector);
+        scheduler = createScheduler(quietWindow, maxWait);
+    }
+
+    /**
+     * Part of the constructors to create the scheduler, which executes the delayed updates.
+     * @param quietWindow the time to wait for further changes in milli seconds.
+     * @param maxWait the maximum time in milli seconds to delay an update.
+     * @return The scheduler to use.
+     */
+    private DebounceScheduler createScheduler(long quietWindow, long maxWait) {
+        return new DebounceScheduler("delayed-update-" + getCourseID(), quietWindow, maxWait, this::executeUpdate);
+    }
+
+    /**
+     * Schedules the update and returns immediately. The update is applied after the quiet window has passed.
+     * @return A future, which is completed after the delayed update, which considered the messages, was applied.
+     */
+    @Override
+    public CompletableFuture<Void> applyBatch(List<NotificationDto> msgs) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        synchronized (this) {
+            lastMessage = msgs.get(msgs.size() - 1);
+            waiting.add(result);
+        }
+        LOGGER.debug("Delaying update of course \"{}\"", getCourseID());
+        try {
+            scheduler.trigger();
+        } catch (RejectedExecutionException e) {
+            // Handler was closed, the update will never be applied
+            synchronized (this) {
+                waiting.remove(result);
+            }
+            result.completeExceptionally(e);
+        }
+        return result;
     }
-    
+
+    /**
+     * Schedules the update and waits until the delayed update was applied.
+     * {@inheritDoc}
+     */
     @Override
-    protected Course computeFullConfiguration(NotificationDto msg) throws NetworkException {
-        while (System.currentTimeMillis() - lastUpdate < delay) {
-            try {
-                Thread.sleep(SLEEP_TIME);
-            } catch (InterruptedException e) {
-                LOGGER.warn("Could not sleep thread of " + getClass().getSimpleName() , e);
+    public void updateBatch(List<NotificationDto> msgs) throws IOException {
+        try {
+            applyBatch(msgs).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the delayed update of " + getCourseID(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
             }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Executes the delayed update, called by the {@link DebounceScheduler}, and informs all callers waiting for it.
+     */
+    private void executeUpdate() {
+        NotificationDto msg;
+        List<CompletableFuture<Void>> callers;
+        synchronized (this) {
+            msg = lastMessage;
+            callers = waiting;
+            waiting = new ArrayList<>();
         }
-        
-        lastUpdate = System.currentTimeMillis();
-        return super.computeFullConfiguration(msg);
+
+        Exception error = null;
+        try {
+            super.updateBatch(Collections.singletonList(msg));
+            // checkstyle: stop exception type check (callers will be informed)
+        } catch (IOException | RuntimeException e) {
+            // checkstyle: resume exception type check
+            LOGGER.error("Could not apply delayed update of course \"" + getCourseID() + "\".", e);
+            error = e;
+        }
+
+        for (CompletableFuture<Void> caller : callers) {
+            if (null == error) {
+                caller.complete(null);
+            } else {
+                caller.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Returns whether an update is scheduled, but not applied yet.
+     * @return <tt>true</tt> if an update is pending.
+     */
+    public boolean isUpdatePending() {
+        return scheduler.isPending();
+    }
+
+    /**
+     * Applies a pending update immediately and stops the scheduler.
+     */
+    @Override
+    public void close() {
+        scheduler.close();
+        super.close();
     }
 
 }
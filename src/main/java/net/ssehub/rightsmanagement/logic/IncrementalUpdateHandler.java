@@ -1,28 +1,39 @@
 package net.ssehub.rightsmanagement.logic;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import net.ssehub.exercisesubmitter.protocol.backend.NetworkException;
-import net.ssehub.exercisesubmitter.protocol.frontend.Group;
 import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
 import net.ssehub.exercisesubmitter.protocol.frontend.RightsManagementProtocol;
-import net.ssehub.exercisesubmitter.protocol.frontend.User;
 import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
 import net.ssehub.rightsmanagement.conf.Settings;
 import net.ssehub.rightsmanagement.model.Course;
+import net.ssehub.rightsmanagement.model.CourseCodec;
 import net.ssehub.studentmgmt.backend_api.JSON;
 import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
 
 /**
  * {@link AbstractUpdateHandler} that stores the full configuration of a course locally and updates that configuration
- * based on incoming {@link NotificationDto}s.
+ * based on incoming {@link NotificationDto}s.<p>
+ * The configuration is kept in memory and updated in place. Changes are persisted asynchronously (write-behind) as
+ * snapshot to the cache file, at most once per configured <tt>cacheFlushInterval</tt> and on {@link #close()}. If a
+ * batch of updates cannot be applied completely, the partially updated state is discarded and the full configuration
+ * is pulled again at the next update.
  * @author El-Sharkawy
  * @author Kunold
  *
@@ -33,6 +44,10 @@ public class IncrementalUpdateHandler extends AbstractUpdateHandler {
     
     private JSON parser = new JSON();
     private File cacheFile;
+    private DebounceScheduler snapshots;
+    
+    // Guarded by this
+    private Course state;
 
     /**
      * Creates a handler to manage updates for a course, which uses a local cache to reduce the total traffic.
@@ -61,31 +76,123 @@ public class IncrementalUpdateHandler extends AbstractUpdateHandler {
     /**
      * Loads the cached file at the constructor.
      * If the file does not exist, the information from the server is pulled to write the file with the current
-     * configuration of the course.
+     * configuration of the course. Legacy JSON caches are read once and migrated to the binary snapshot format.
      */
     private void init() {
-        cacheFile = new File(Settings.getConfig().getCacheDir(), getCourseID() + ".json");
-        if (!cacheFile.exists()) {
+        cacheFile = new File(Settings.getConfig().getCacheDir(), getCourseID() + ".snapshot");
+        File legacyCacheFile = new File(Settings.getConfig().getCacheDir(), getCourseID() + ".json");
+        long flushInterval = Settings.getConfig().getCacheFlushInterval() * 1000L;
+        snapshots = new DebounceScheduler("snapshot-" + getCourseID(), flushInterval, flushInterval,
+            this::writeSnapshot);
+        
+        if (cacheFile.exists()) {
+            try (InputStream in = Files.newInputStream(cacheFile.toPath())) {
+                state = CourseCodec.read(in);
+            } catch (IOException e) {
+                LOGGER.warn("Could not read cached course information", e);
+            }
+        } else if (legacyCacheFile.exists()) {
+            LOGGER.info("Migrating {} to {}", legacyCacheFile.getAbsolutePath(), cacheFile.getAbsolutePath());
+            try {
+                String content = Files.readString(legacyCacheFile.toPath());
+                state = parser.deserialize(content, Course.class);
+                writeSnapshot();
+            } catch (IOException e) {
+                LOGGER.warn("Could not deserialize cached course information", e);
+            }
+        } else {
             LOGGER.info("{} does not exist, assuming new course. Creating the file for caching course information.",
                     cacheFile.getAbsolutePath());
             
-            try (FileWriter writer = new FileWriter(cacheFile)) {
+            try {
                 // Pull initial configuration from server
-                Course course = computeFullConfiguration();
-                String content = parser.serialize(course);
-                writer.write(content);
-            } catch (NetworkException | IOException e) {
+                state = computeFullConfiguration();
+                writeSnapshot();
+            } catch (NetworkException e) {
                 LOGGER.warn("Could not create {}, cause {}", cacheFile.getAbsolutePath(), e.getMessage());
             }
         }
     }
+    
+    /**
+     * Persists the current in-memory state of the course to the cache file. The file is replaced atomically, thus,
+     * the cache file contains always a complete snapshot, even if the service is killed while writing.
+     */
+    private void writeSnapshot() {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        synchronized (this) {
+            if (null == state) {
+                return;
+            }
+            try {
+                CourseCodec.write(state, content);
+            } catch (IOException e) {
+                // Not expected for in-memory streams
+                LOGGER.error("Could not serialize course \"" + getCourseID() + "\".", e);
+                return;
+            }
+        }
+        
+        Path target = cacheFile.toPath();
+        Path tmpFile = target.resolveSibling(cacheFile.getName() + ".tmp");
+        try {
+            Files.write(tmpFile, content.toByteArray());
+            try {
+                Files.move(tmpFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOGGER.debug("Wrote snapshot of course \"{}\" to {}", getCourseID(), target);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write {}, cause {}", cacheFile.getAbsolutePath(), e.getMessage());
+        }
+    }
 
     @Override
     protected Course computeFullConfiguration(NotificationDto msg) throws NetworkException {
-        // First: Load cached state:
-        Course course = getCachedState();
+        return computeFullConfiguration(Collections.singletonList(msg));
+    }
+    
+    @Override
+    protected Course computeFullConfiguration(List<NotificationDto> msgs) throws NetworkException {
+        Course course;
+        synchronized (this) {
+            // First: Load cached state:
+            course = getCachedState();
+            
+            try {
+                // Second: Apply delta of the NotificationDtos
+                // Deltas must not be dropped when updates are coalesced -> apply all of them in order of their arrival
+                Set<String> changedAssignments = new LinkedHashSet<>();
+                for (NotificationDto msg : msgs) {
+                    applyUpdate(course, msg, changedAssignments);
+                }
+                
+                // Third: Reload changed assignments at once, the reload pulls the current state regardless of order
+                handleAssignmentsChanged(course, changedAssignments);
+            } catch (NetworkException | RuntimeException e) {
+                discardState();
+                throw e;
+            }
+            state = course;
+        }
+        
+        // Fourth: Persist the changed state in background
+        snapshots.trigger();
+        
+        return course;
+    }
+    
+    /**
+     * Applies the delta of one {@link NotificationDto} to the given course.
+     * @param course The course to update, will be changed as side effect.
+     * @param msg The update request produced by the student management service
+     * @param changedAssignments The IDs of assignments, which need to be reloaded, will be changed as side effect.
+     * @throws NetworkException If network problems occur
+     */
+    private void applyUpdate(Course course, NotificationDto msg, Set<String> changedAssignments)
+        throws NetworkException {
         
-        // Second: Apply delta of the NotificationDto^
         // see https://github.com/Student-Management-System/StudentMgmt-Backend/blob/master/api-docs/docs/events.md
         switch (msg.getEvent()) {
         case ASSIGNMENT_CREATED:       // an assignment was created
@@ -105,7 +212,7 @@ public class IncrementalUpdateHandler extends AbstractUpdateHandler {
         case USER_REGISTERED:          // a user was added to a group of an assignment
             // Falls through
         case USER_UNREGISTERED:        // a user was removed from a group of an assignment
-            handleAssignmentChanged(course, msg.getAssignmentId());
+            changedAssignments.add(msg.getAssignmentId());
             break;
             
         case USER_JOINED_GROUP:        // a user joined a group in the "global" group list of the course
@@ -116,17 +223,10 @@ public class IncrementalUpdateHandler extends AbstractUpdateHandler {
             break;
 
         case COURSE_JOINED:            // some user has joined the course
-            // update tutors
-            Group tutors = getDataPullService().getTutors();
-            course.setTutors(tutors);
-            
-            // update list of all participants
-            List<User> studentsOfCourse = getDataPullService().getStudents();
-            course.setStudents(studentsOfCourse);
-            
-            // update all non-group assignments, as the list of students has changed
-            List<ManagedAssignment> assignments = getDataPullService().loadAssignments(studentsOfCourse);
-            course.setAssignments(assignments);
+            // update tutors, list of all participants, and all assignments (list of students has changed)
+            getPullStage().pullFullConfiguration(course);
+            // All assignments were reloaded
+            changedAssignments.clear();
             break;
             
         default:
@@ -134,46 +234,74 @@ public class IncrementalUpdateHandler extends AbstractUpdateHandler {
                 msg.getEvent(), IncrementalUpdateHandler.class.getSimpleName());
             break;
         }
-        
-        return course;
     }
     
     /**
-     * Loads the locally cached course information.
-     * @return The locally saved {@link Course}.
+     * Discards the in-memory state and the cache file, after a batch of updates was only partially applied. Neither
+     * the write-behind nor a restart may use the incomplete state, the next update pulls the full configuration.
      */
-    protected Course getCachedState() {
-        Course result = null;
+    private synchronized void discardState() {
+        LOGGER.warn("Discarding cached state of course \"{}\", the full configuration is pulled at the next update",
+            getCourseID());
+        state = null;
         try {
-            String content = Files.readString(cacheFile.toPath());
-            result = parser.deserialize(content, Course.class);
+            Files.deleteIfExists(cacheFile.toPath());
         } catch (IOException e) {
-            LOGGER.warn("Could not deserialize cached course information", e);
-            //TODO SE: throw exception to abort
+            LOGGER.warn("Could not delete {}, cause {}", cacheFile.getAbsolutePath(), e.getMessage());
         }
-        return result;
     }
     
     /**
-     * Handles a change in an {@link Assignment}. Tries to only reload this single assignment, but falls back if
-     * the specified assignment ID cannot be found.
+     * Returns the in-memory state of the course, which is updated in place. If no state is available (e.g., because
+     * the server couldn't be reached at start-up), the full configuration is pulled from the server.
+     * @return The locally saved {@link Course}.
+     * @throws NetworkException If no state is available and the server cannot be queried
+     */
+    protected synchronized Course getCachedState() throws NetworkException {
+        if (null == state) {
+            state = computeFullConfiguration();
+        }
+        return state;
+    }
+    
+    /**
+     * Writes a pending snapshot to the cache file.
+     */
+    @Override
+    public void close() {
+        snapshots.close();
+        super.close();
+    }
+    
+    /**
+     * Handles changes in {@link Assignment}s. Tries to only reload the changed assignments (in parallel), but falls
+     * back to reload all assignments if one of the specified assignment IDs cannot be found.
      * 
-     * @param course The course that contains the assignment.
-     * @param assignmentId The ID of the assignment that is changed. May be <code>null</code>.
+     * @param course The course that contains the assignments.
+     * @param assignmentIds The IDs of the assignments that are changed. May contain <code>null</code>.
      * @throws NetworkException If network problems occur
      */
-    private void handleAssignmentChanged(Course course, String assignmentId) throws NetworkException {
-        ManagedAssignment assignment = course.getAssignments().stream()
+    private void handleAssignmentsChanged(Course course, Set<String> assignmentIds) throws NetworkException {
+        if (assignmentIds.isEmpty()) {
+            return;
+        }
+        
+        List<ManagedAssignment> assignments = new ArrayList<>();
+        for (String assignmentId : assignmentIds) {
+            ManagedAssignment assignment = course.getAssignments().stream()
                 .filter((a) -> a.getID().equals(assignmentId))
                 .findAny()
                 .orElse(null);
-        
-        if (assignment != null) {
-            getDataPullService().updateAssignment(assignment);
-        } else {
-            LOGGER.warn("Didn't find assignment for ID {}, reloading all assignments", assignmentId);
-            course.setAssignments(getDataPullService().loadAssignments(null));
+            
+            if (assignment == null) {
+                LOGGER.warn("Didn't find assignment for ID {}, reloading all assignments", assignmentId);
+                course.setAssignments(getPullStage().loadAssignments(null));
+                return;
+            }
+            assignments.add(assignment);
         }
+        
+        getPullStage().updateAssignments(assignments);
     }
 
 }
@@ -0,0 +1,139 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.ssehub.rightsmanagement.PathLockManager;
+import net.ssehub.rightsmanagement.svn.RepositoryMaintenance;
+
+/**
+ * Periodically packs the managed repositories (see {@link RepositoryMaintenance}) during quiet periods: A repository
+ * is only packed if it was not changed for the configured quiet period, otherwise it is checked again at the next
+ * run. Repositories without commits since their last packing are skipped, repositories shared by several courses are
+ * packed only once.<p>
+ * All repositories are packed one after another on a dedicated scheduler thread, updates of the packed repository
+ * wait until the packing is finished.
+ * @author El-Sharkawy
+ *
+ */
+public class MaintenanceScheduler implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(MaintenanceScheduler.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final long quietPeriod;
+
+    // Canonical path (as used by the PathLockManager) -> maintenance / statistics of the last run
+    private final Map<String, RepositoryMaintenance> repositories = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> reports = new ConcurrentHashMap<>();
+
+    /**
+     * Creates and starts a new scheduler.
+     * @param interval The time in milliseconds between two runs.
+     * @param quietPeriod The minimum time in milliseconds since the last commit, before a repository is packed.
+     */
+    public MaintenanceScheduler(long interval, long quietPeriod) {
+        this.quietPeriod = quietPeriod;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Repository maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runMaintenance, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a repository to maintain. Adding the same repository multiple times has no effect, also if it is
+     * referenced via different paths (e.g., symbolic links).
+     * @param repositoryPath The location of the repository.
+     */
+    public void addRepository(String repositoryPath) {
+        addRepository(repositoryPath, new RepositoryMaintenance(repositoryPath));
+    }
+
+    /**
+     * Adds a repository to maintain, if it is not maintained yet.
+     * @param repositoryPath The location of the repository.
+     * @param maintenance The maintenance of the repository, may be replaced for testing purposes.
+     */
+    void addRepository(String repositoryPath, RepositoryMaintenance maintenance) {
+        String key = PathLockManager.canonicalize(Paths.get(repositoryPath)).toString();
+        repositories.putIfAbsent(key, maintenance);
+    }
+
+    /**
+     * Packs all repositories, which were not changed during the quiet period. Errors are logged and do not affect the
+     * maintenance of the other repositories.
+     */
+    void runMaintenance() {
+        for (Map.Entry<String, RepositoryMaintenance> entry : repositories.entrySet()) {
+            try {
+                long now = System.currentTimeMillis();
+                long lastCommit = entry.getValue().getLastCommitTime();
+                Map<String, Long> lastReport = reports.get(entry.getKey());
+                if (now - lastCommit < quietPeriod) {
+                    LOGGER.debug("Skipped packing of {}, last commit was {} ms ago", entry.getKey(),
+                        now - lastCommit);
+                } else if (null != lastReport && lastCommit <= lastReport.get("lastRun")) {
+                    LOGGER.debug("Skipped packing of {}, no commits since the last run", entry.getKey());
+                } else {
+                    pack(entry.getKey(), entry.getValue(), now);
+                }
+                // checkstyle: stop exception type check (must not cancel the scheduled maintenance)
+            } catch (RuntimeException e) {
+                // checkstyle: resume exception type check
+                LOGGER.warn("Could not maintain repository " + entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Packs one repository and stores the statistics. Repositories, which cannot be packed, are removed from the
+     * maintenance.
+     * @param path The canonical path of the repository.
+     * @param maintenance The maintenance of the repository.
+     * @param now The start of the run in milliseconds since the epoch.
+     */
+    private void pack(String path, RepositoryMaintenance maintenance, long now) {
+        try {
+            if (maintenance.isPackable()) {
+                Map<String, Long> report = new LinkedHashMap<>(maintenance.pack());
+                report.put("lastRun", now);
+                reports.put(path, report);
+            } else {
+                LOGGER.warn("Repository {} is not sharded or uses logical addressing, which cannot be packed. "
+                    + "Removed it from the maintenance.", path);
+                repositories.remove(path);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not pack repository " + path, e);
+        }
+    }
+
+    /**
+     * Returns the statistics of the last packing of each repository, e.g., for monitoring purpose.
+     * @return Repository path &rarr; <tt>durationMillis</tt>, <tt>filesBefore</tt>, <tt>filesAfter</tt>, and
+     *     <tt>lastRun</tt> (milliseconds since the epoch), only repositories which were packed at least once.
+     */
+    public Map<String, Map<String, Long>> getReports() {
+        return new LinkedHashMap<>(reports);
+    }
+
+    /**
+     * Stops the scheduler, a running packing is finished.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+}
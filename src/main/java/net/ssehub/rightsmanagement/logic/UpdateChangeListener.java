@@ -1,13 +1,22 @@
 package net.ssehub.rightsmanagement.logic;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
+import net.ssehub.rightsmanagement.conf.Settings;
 import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
 
 /**
@@ -24,7 +33,22 @@ public class UpdateChangeListener {
      */
     public static enum UpdateStrategy {
         IMMEDIATELY,
+        /**
+         * Like {@link #IMMEDIATELY}, but debounced as configured by
+         * {@link CourseConfiguration#getDebounceQuietWindow()} and {@link CourseConfiguration#getDebounceMaxWait()}.
+         */
+        DELAYED,
+        /**
+         * Legacy alias for {@link #DELAYED} with a quiet window and maximum wait of one minute.
+         * @deprecated Use {@link #DELAYED} instead.
+         */
+        @Deprecated
         EVERY_MINUTE,
+        /**
+         * Legacy alias for {@link #DELAYED} with a quiet window and maximum wait of five minutes.
+         * @deprecated Use {@link #DELAYED} instead.
+         */
+        @Deprecated
         FIVE_MINUTES,
         INCREMENTAL;
     }
@@ -32,7 +56,12 @@ public class UpdateChangeListener {
     public static final UpdateChangeListener INSTANCE = new UpdateChangeListener();
     private static final Logger LOGGER = LogManager.getLogger(UpdateChangeListener.class);
     
-    private Map<String, AbstractUpdateHandler> observedCourses = new HashMap<>();
+    private Map<String, AbstractUpdateHandler> observedCourses = new ConcurrentHashMap<>();
+    private Map<String, CourseUpdateQueue> queues = new ConcurrentHashMap<>();
+    private AtomicInteger pendingAsyncUpdates = new AtomicInteger();
+    private UpdateTracker tracker = new UpdateTracker();
+    // Guarded by this, created with the first repository
+    private MaintenanceScheduler maintenance;
     
     /**
      * Singleton constructor.
@@ -45,16 +74,81 @@ public class UpdateChangeListener {
      */
     public void register(AbstractUpdateHandler handler) {
         observedCourses.put(handler.getCourseID(), handler);
+        CourseUpdateQueue oldQueue = queues.put(handler.getCourseID(), new CourseUpdateQueue(handler));
+        if (null != oldQueue) {
+            oldQueue.close();
+        }
+        
+        int maintenanceInterval = Settings.getConfig().getMaintenanceInterval();
+        if (maintenanceInterval > 0 && null != handler.getRepositoryPath()) {
+            synchronized (this) {
+                if (null == maintenance) {
+                    maintenance = new MaintenanceScheduler(maintenanceInterval * 60 * 1000L,
+                        Settings.getConfig().getMaintenanceQuietPeriod() * 60 * 1000L);
+                }
+                maintenance.addRepository(handler.getRepositoryPath());
+            }
+        }
     }
     
     /**
      * Handles the incoming update request and selects the {@link AbstractUpdateHandler} for the specified repository.
-     * Will throw an exception if a course was specified that is not managed by the RightsManagement service.
+     * Will throw an exception if a course was specified that is not managed by the RightsManagement service.<p>
+     * The update is passed to the {@link CourseUpdateQueue} of the course and this method returns after the rebuild,
+     * which considered the update, has finished. Updates of the same course, which arrive in the meantime, are
+     * coalesced into one follow-up rebuild.
      * @param update The update message received by the student management system.
      * @throws WrongFormatException If the update message points not to a managed course / repository.
      * @throws IOException If the update message couldn't be written to disk
      */
     public void onChange(NotificationDto update) throws WrongFormatException, IOException {
+        CourseUpdateQueue queue = selectQueue(update);
+        
+        try {
+            queue.submit(update).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the update of " + update.getCourseId(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+    
+    /**
+     * Validates the incoming update request and passes it to the {@link CourseUpdateQueue} of the course, without
+     * waiting for its processing. At most {@link net.ssehub.rightsmanagement.conf.Configuration#getMaxPendingUpdates()}
+     * accepted requests may wait for their processing at the same time.
+     * @param update The update message received by the student management system.
+     * @return A future, which is completed after the update was processed.
+     * @throws WrongFormatException If the update message points not to a managed course / repository.
+     * @throws RejectedExecutionException If too many accepted update messages are still waiting for their processing.
+     */
+    public CompletableFuture<Void> accept(NotificationDto update) throws WrongFormatException {
+        CourseUpdateQueue queue = selectQueue(update);
+        
+        int maxPending = Settings.getConfig().getMaxPendingUpdates();
+        if (pendingAsyncUpdates.incrementAndGet() > maxPending && maxPending > 0) {
+            pendingAsyncUpdates.decrementAndGet();
+            throw new RejectedExecutionException("Too many pending updates, rejected update for "
+                + update.getCourseId());
+        }
+        
+        CompletableFuture<Void> result = queue.submit(update);
+        result.whenComplete((r, e) -> pendingAsyncUpdates.decrementAndGet());
+        return result;
+    }
+    
+    /**
+     * Selects the queue of the course, which is addressed by the update message.
+     * @param update The update message received by the student management system.
+     * @return The queue of the course, won't be <tt>null</tt>.
+     * @throws WrongFormatException If the update message points not to a managed course / repository.
+     */
+    private CourseUpdateQueue selectQueue(NotificationDto update) throws WrongFormatException {
         // Not ensured that mandatory fields are set, the JSON parser will accept also empty mandatory fields!
         if (null == update.getCourseId()) {
             throw new WrongFormatException("No course specified");
@@ -68,7 +162,59 @@ public class UpdateChangeListener {
         LOGGER.debug("Processing update message \"{}\" with \"{}\"", update.getClass().getSimpleName(),
             handler.getClass().getSimpleName());
         
-        handler.update(update);
+        return queues.get(update.getCourseId());
+    }
+    
+    /**
+     * Returns the tracker, which remembers the processing state of asynchronously accepted update messages.
+     * @return The tracker of accepted update messages.
+     */
+    public UpdateTracker getTracker() {
+        return tracker;
+    }
+    
+    /**
+     * Returns the number of asynchronously accepted update messages, which are not processed yet.
+     * @return The number of pending updates.
+     */
+    public int getPendingAsyncUpdates() {
+        return pendingAsyncUpdates.get();
+    }
+    
+    /**
+     * Returns the update queues of all managed courses, e.g., for monitoring purpose.
+     * @return The queues of all registered courses.
+     */
+    public Collection<CourseUpdateQueue> getQueues() {
+        List<CourseUpdateQueue> result = new ArrayList<>(queues.values());
+        result.sort((q1, q2) -> q1.getCourseID().compareTo(q2.getCourseID()));
+        return result;
+    }
+    
+    /**
+     * Returns the statistics of the last maintenance of each managed repository.
+     * @return Repository path &rarr; statistics of the last packing, empty if the maintenance is disabled.
+     * @see MaintenanceScheduler#getReports()
+     */
+    public synchronized Map<String, Map<String, Long>> getMaintenanceReports() {
+        return null != maintenance ? maintenance.getReports() : Collections.emptyMap();
+    }
+    
+    /**
+     * Stops the processing of further updates. Should be called once when the service shuts down.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (null != maintenance) {
+                maintenance.close();
+            }
+        }
+        for (CourseUpdateQueue queue : queues.values()) {
+            queue.close();
+        }
+        for (AbstractUpdateHandler handler : observedCourses.values()) {
+            handler.close();
+        }
     }
     
     /**
@@ -86,11 +232,15 @@ public class UpdateChangeListener {
         case IMMEDIATELY: 
             result = new RestUpdateHandler(config);
             break;
+        case DELAYED:
+            result = new DelayedRestUpdateHandler(config, config.getDebounceQuietWindow() * 1000L,
+                config.getDebounceMaxWait() * 1000L);
+            break;
         case EVERY_MINUTE:
-            result = new DelayedRestUpdateHandler(config, 60 * 1000);
+            result = new DelayedRestUpdateHandler(config, 60 * 1000, 60 * 1000);
             break;
         case FIVE_MINUTES:
-            result = new DelayedRestUpdateHandler(config, 5 * 60 * 1000);
+            result = new DelayedRestUpdateHandler(config, 5 * 60 * 1000, 5 * 60 * 1000);
             break;
         case INCREMENTAL:
             result = new IncrementalUpdateHandler(config);
@@ -0,0 +1,71 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remembers the processing state of asynchronously accepted update messages, so that the sender may poll it.
+ * Only the most recent {@value #MAX_ENTRIES} messages are remembered.
+ * @author El-Sharkawy
+ *
+ */
+public class UpdateTracker {
+
+    /**
+     * The processing state of an accepted update message.
+     * @author El-Sharkawy
+     *
+     */
+    public static enum UpdateState {
+        ACCEPTED,
+        DONE,
+        FAILED;
+    }
+
+    private static final int MAX_ENTRIES = 10000;
+
+    // Guarded by this, eldest entries are dropped
+    private Map<String, UpdateState> states = new LinkedHashMap<>() {
+
+        /**
+         * Generated.
+         */
+        private static final long serialVersionUID = 6184739571238851713L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UpdateState> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Starts tracking of an accepted update message.
+     * @param processing The future, which is completed after the message was processed.
+     * @return The ID, which may be used to query the state via {@link #getState(String)}.
+     */
+    public String track(CompletableFuture<Void> processing) {
+        String id = UUID.randomUUID().toString();
+        synchronized (this) {
+            states.put(id, UpdateState.ACCEPTED);
+        }
+        processing.whenComplete((result, error) -> {
+            synchronized (this) {
+                // Don't re-add entries, which were already dropped
+                states.replace(id, null == error ? UpdateState.DONE : UpdateState.FAILED);
+            }
+        });
+
+        return id;
+    }
+
+    /**
+     * Returns the processing state of an accepted update message.
+     * @param id The ID as returned by {@link #track(CompletableFuture)}.
+     * @return The state of the message or <tt>null</tt> if the ID is unknown (or too old).
+     */
+    public synchronized UpdateState getState(String id) {
+        return states.get(id);
+    }
+}
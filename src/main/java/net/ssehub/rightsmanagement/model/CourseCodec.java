@@ -0,0 +1,395 @@
+package net.ssehub.rightsmanagement.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+
+/**
+ * Versioned binary snapshot format for a {@link Course}, used to cache course information locally.<p>
+ * Each string is stored only once in a string table and each user only once in a user table, groups and the list of
+ * students refer to them by their index. Only information relevant to compute the access rights is stored:
+ * <ul>
+ *   <li>{@link User}: account name (also used as name, no e-mail)</li>
+ *   <li>{@link Group}: name and members</li>
+ *   <li>{@link ManagedAssignment}: name, ID, state, group work, and groups (no points)</li>
+ * </ul>
+ * Layout of version {@value #VERSION}:
+ * <pre>
+ * int magic, short version
+ * int #strings, {UTF string}
+ * int #users, {int accountName}
+ * int courseName, int semester
+ * boolean hasTutors, [group]
+ * int #students, {int user}
+ * int #assignments, {int name, int id, int state, int groupWork, int #groups, {group}}
+ * group := int name, int #members, {int user}
+ * </pre>
+ * String references and the number of students or assignments of <tt>-1</tt> denote <tt>null</tt>. States are
+ * stored by their name as string reference. Corrupt snapshots and snapshots of other versions are rejected with an
+ * {@link IOException}.
+ * @author El-Sharkawy
+ *
+ */
+public class CourseCodec {
+
+    /**
+     * "RMCS" (Rights Management Course Snapshot), used to detect files of other formats (e.g., legacy JSON caches).
+     */
+    private static final int MAGIC = 0x524D4353;
+    private static final short VERSION = 2;
+    private static final int NULL = -1;
+
+    /**
+     * Initial capacity of tables and lists while reading. Counts are not trusted to allocate memory, corrupt counts
+     * run into the end of the stream instead.
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    /**
+     * Assigns IDs to strings and users while writing.
+     */
+    private static class Tables {
+        private final Map<String, Integer> stringIDs = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> userIDs = new HashMap<>();
+        private final List<Integer> users = new ArrayList<>();
+
+        /**
+         * Returns the ID of a string, adds it to the table if it is not part of the table.
+         * @param str The string to store, may be <tt>null</tt>.
+         * @return The ID of the string.
+         */
+        private int string(String str) {
+            if (null == str) {
+                return NULL;
+            }
+            return stringIDs.computeIfAbsent(str, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        /**
+         * Returns the ID of a user, adds it to the table if it is not part of the table.
+         * Users are identified by their account name.
+         * @param user The user to store.
+         * @return The ID of the user.
+         */
+        private int user(User user) {
+            String accountName = user.getAccountName();
+            Integer id = userIDs.get(accountName);
+            if (null == id) {
+                id = users.size();
+                users.add(string(accountName));
+                userIDs.put(accountName, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Avoids instantiation of utility class.
+     */
+    private CourseCodec() {}
+
+    /**
+     * Writes the course as binary snapshot.
+     * @param course The course to write.
+     * @param out The stream to write to, won't be closed.
+     * @throws IOException If writing to the stream fails
+     */
+    public static void write(Course course, OutputStream out) throws IOException {
+        // First pass: Create tables and encode the course with IDs
+        Tables tables = new Tables();
+        int courseName = tables.string(course.getCourseName());
+        int semester = tables.string(course.getSemester());
+        int[] tutors = null != course.getTutors() ? encodeGroup(tables, course.getTutors()) : null;
+        List<User> studentList = course.getStudents();
+        int[] students = null;
+        if (null != studentList) {
+            students = new int[studentList.size()];
+            for (int i = 0; i < students.length; i++) {
+                students[i] = tables.user(studentList.get(i));
+            }
+        }
+        List<int[]> assignments = null;
+        if (null != course.getAssignments()) {
+            assignments = new ArrayList<>();
+            for (ManagedAssignment assignment : course.getAssignments()) {
+                assignments.add(encodeAssignment(tables, assignment));
+            }
+        }
+
+        // Second pass: Write tables followed by the encoded course
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(tables.strings.size());
+        for (String str : tables.strings) {
+            data.writeUTF(str);
+        }
+        data.writeInt(tables.users.size());
+        for (int accountName : tables.users) {
+            data.writeInt(accountName);
+        }
+        data.writeInt(courseName);
+        data.writeInt(semester);
+        data.writeBoolean(null != tutors);
+        if (null != tutors) {
+            writeInts(data, tutors);
+        }
+        if (null != students) {
+            data.writeInt(students.length);
+            writeInts(data, students);
+        } else {
+            data.writeInt(NULL);
+        }
+        if (null != assignments) {
+            data.writeInt(assignments.size());
+            for (int[] assignment : assignments) {
+                writeInts(data, assignment);
+            }
+        } else {
+            data.writeInt(NULL);
+        }
+        data.flush();
+    }
+
+    /**
+     * Encodes a group as: name, number of members, members.
+     * @param tables The tables to use.
+     * @param group The group to encode.
+     * @return The encoded group.
+     */
+    private static int[] encodeGroup(Tables tables, Group group) {
+        List<Integer> members = new ArrayList<>();
+        for (User user : group) {
+            members.add(tables.user(user));
+        }
+        int[] result = new int[members.size() + 2];
+        result[0] = tables.string(group.getName());
+        result[1] = members.size();
+        for (int i = 0; i < members.size(); i++) {
+            result[i + 2] = members.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Encodes an assignment as: name, ID, state (name), group work (0/1), number of groups, groups.
+     * @param tables The tables to use.
+     * @param assignment The assignment to encode.
+     * @return The encoded assignment.
+     */
+    private static int[] encodeAssignment(Tables tables, ManagedAssignment assignment) {
+        List<int[]> groups = new ArrayList<>();
+        int size = 5;
+        for (Group group : assignment) {
+            int[] encoded = encodeGroup(tables, group);
+            groups.add(encoded);
+            size += encoded.length;
+        }
+
+        int[] result = new int[size];
+        result[0] = tables.string(assignment.getName());
+        result[1] = tables.string(assignment.getID());
+        result[2] = tables.string(null != assignment.getState() ? assignment.getState().name() : null);
+        result[3] = assignment.isGroupWork() ? 1 : 0;
+        result[4] = groups.size();
+        int pos = 5;
+        for (int[] group : groups) {
+            System.arraycopy(group, 0, result, pos, group.length);
+            pos += group.length;
+        }
+        return result;
+    }
+
+    /**
+     * Writes encoded values.
+     * @param data The stream to write to.
+     * @param values The values to write.
+     * @throws IOException If writing to the stream fails
+     */
+    private static void writeInts(DataOutputStream data, int[] values) throws IOException {
+        for (int value : values) {
+            data.writeInt(value);
+        }
+    }
+
+    /**
+     * Reads a binary snapshot.
+     * @param in The stream to read from, won't be closed.
+     * @return The read course.
+     * @throws IOException If reading from the stream fails or the stream does not contain a supported snapshot
+     */
+    public static Course read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a course snapshot");
+        }
+        short version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ", expected " + VERSION);
+        }
+
+        int nStrings = readCount(data, "strings");
+        List<String> strings = new ArrayList<>(Math.min(nStrings, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < nStrings; i++) {
+            strings.add(data.readUTF());
+        }
+        int nUsers = readCount(data, "users");
+        List<User> users = new ArrayList<>(Math.min(nUsers, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < nUsers; i++) {
+            String accountName = string(strings, data.readInt());
+            users.add(new User(accountName, accountName, null));
+        }
+
+        Course course = new Course();
+        course.setCourseName(string(strings, data.readInt()));
+        course.setSemester(string(strings, data.readInt()));
+        if (data.readBoolean()) {
+            course.setTutors(readGroup(data, strings, users));
+        }
+        int nStudents = data.readInt();
+        List<User> students = null;
+        if (nStudents != NULL) {
+            nStudents = checkCount(nStudents, "students");
+            students = new ArrayList<>(Math.min(nStudents, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < nStudents; i++) {
+                students.add(user(users, data.readInt()));
+            }
+        }
+        course.setStudents(students);
+
+        int nAssignments = data.readInt();
+        List<ManagedAssignment> assignments = null;
+        if (nAssignments != NULL) {
+            nAssignments = checkCount(nAssignments, "assignments");
+            assignments = new ArrayList<>(Math.min(nAssignments, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < nAssignments; i++) {
+                String name = string(strings, data.readInt());
+                String id = string(strings, data.readInt());
+                State state = readState(data, strings);
+                boolean groupWork = data.readInt() != 0;
+                ManagedAssignment assignment = new ManagedAssignment(name, id, state, groupWork, 0);
+                int nGroups = readCount(data, "groups");
+                for (int j = 0; j < nGroups; j++) {
+                    assignment.addGroup(readGroup(data, strings, users));
+                }
+                assignments.add(assignment);
+            }
+        }
+        course.setAssignments(assignments);
+
+        return course;
+    }
+
+    /**
+     * Reads the state of an assignment.
+     * @param data The stream to read from.
+     * @param strings The string table.
+     * @return The read state, may be <tt>null</tt>.
+     * @throws IOException If reading from the stream fails or the state is unknown
+     */
+    private static State readState(DataInputStream data, List<String> strings) throws IOException {
+        String name = string(strings, data.readInt());
+        State state = null;
+        if (null != name) {
+            try {
+                state = State.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt snapshot, unknown state " + name, e);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Reads an encoded group.
+     * @param data The stream to read from.
+     * @param strings The string table.
+     * @param users The user table.
+     * @return The read group.
+     * @throws IOException If reading from the stream fails
+     */
+    private static Group readGroup(DataInputStream data, List<String> strings, List<User> users) throws IOException {
+        Group group = new Group(string(strings, data.readInt()));
+        int nMembers = readCount(data, "members");
+        List<User> members = new ArrayList<>(Math.min(nMembers, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < nMembers; i++) {
+            members.add(user(users, data.readInt()));
+        }
+        group.addMembers(members.toArray(new User[0]));
+        return group;
+    }
+
+    /**
+     * Reads the number of the following elements.
+     * @param data The stream to read from.
+     * @param elements The kind of elements, used for error messages.
+     * @return The number of elements, &ge; 0.
+     * @throws IOException If reading from the stream fails or the number is negative
+     */
+    private static int readCount(DataInputStream data, String elements) throws IOException {
+        return checkCount(data.readInt(), elements);
+    }
+
+    /**
+     * Checks a read number of elements.
+     * @param count The read number.
+     * @param elements The kind of elements, used for error messages.
+     * @return The number of elements, &ge; 0.
+     * @throws IOException If the number is negative
+     */
+    private static int checkCount(int count, String elements) throws IOException {
+        if (count < 0) {
+            throw new IOException("Corrupt snapshot, invalid number of " + elements + ": " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Resolves a user reference.
+     * @param users The user table.
+     * @param id The ID of the user.
+     * @return The referenced user.
+     * @throws IOException If the ID does not point to the user table.
+     */
+    private static User user(List<User> users, int id) throws IOException {
+        if (id < 0 || id >= users.size()) {
+            throw new IOException("Corrupt snapshot, unknown user " + id);
+        }
+        return users.get(id);
+    }
+
+    /**
+     * Resolves a string reference.
+     * @param strings The string table.
+     * @param id The ID of the string.
+     * @return The referenced string, may be <tt>null</tt>.
+     * @throws IOException If the ID does not point to the string table.
+     */
+    private static String string(List<String> strings, int id) throws IOException {
+        if (id == NULL) {
+            return null;
+        }
+        if (id < 0 || id >= strings.size()) {
+            throw new IOException("Corrupt snapshot, unknown string " + id);
+        }
+        return strings.get(id);
+    }
+
+}
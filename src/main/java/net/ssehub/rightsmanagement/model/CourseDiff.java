@@ -0,0 +1,395 @@
+package net.ssehub.rightsmanagement.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+
+/**
+ * Structural difference between two states of a {@link Course}, as far as it is relevant for the repository and the
+ * access file: assignments (name and state), their groups, the members of the groups, and the tutors.<p>
+ * Since handlers may update a {@link Course} in place, the states are compared as {@link Snapshot}s. Assignments are
+ * matched by their ID and groups by their name, thus, the diff is computed in linear time of the number of memberships.
+ * @author El-Sharkawy
+ *
+ */
+public class CourseDiff {
+
+    private final List<String> addedAssignments = new ArrayList<>();
+    private final List<String> removedAssignments = new ArrayList<>();
+    private final Map<String, String> stateChanges = new LinkedHashMap<>();
+    private final List<String> addedGroups = new ArrayList<>();
+    private final List<String> removedGroups = new ArrayList<>();
+    private final Map<String, Set<String>> addedMembers = new LinkedHashMap<>();
+    private final Map<String, Set<String>> removedMembers = new LinkedHashMap<>();
+    private final Set<String> changedAssignments = new LinkedHashSet<>();
+    private boolean tutorsChanged;
+    private boolean structuralChange;
+
+    /**
+     * Immutable copy of the parts of a {@link Course}, which are relevant for the repository and the access file.
+     */
+    public static class Snapshot {
+
+        private final String tutorGroup;
+        private final Set<String> tutors;
+        private final Map<String, AssignmentSnapshot> assignments;
+        private final long folderFingerprint;
+
+        /**
+         * Copies the current state of the course.
+         * @param course The course to copy, may be changed afterwards.
+         */
+        public Snapshot(Course course) {
+            Group tutorGroup = course.getTutors();
+            this.tutorGroup = null != tutorGroup ? tutorGroup.getName() : null;
+            this.tutors = null != tutorGroup ? members(tutorGroup) : Collections.emptySet();
+
+            List<ManagedAssignment> courseAssignments = null != course.getAssignments() ? course.getAssignments()
+                : Collections.emptyList();
+            assignments = new LinkedHashMap<>(2 * courseAssignments.size());
+            for (ManagedAssignment assignment : courseAssignments) {
+                // Tests and legacy caches may contain assignments without ID
+                String key = null != assignment.getID() ? assignment.getID() : "name:" + assignment.getName();
+                assignments.put(key, new AssignmentSnapshot(assignment));
+            }
+            
+            // Order independent: sum of the hashes of all folders
+            long fingerprint = 0;
+            for (AssignmentSnapshot assignment : assignments.values()) {
+                fingerprint += hash(assignment.name, null);
+                for (String group : assignment.groups.keySet()) {
+                    fingerprint += hash(assignment.name, group);
+                }
+            }
+            folderFingerprint = fingerprint;
+        }
+        
+        /**
+         * Returns a fingerprint of the folder structure, i.e., of the names of the assignments and their groups.
+         * Changes of states, members, tutors, and the order of assignments and groups do not affect the fingerprint.
+         * @return The fingerprint, equal fingerprints denote (with a very high probability) equal folders.
+         */
+        public long getFolderFingerprint() {
+            return folderFingerprint;
+        }
+        
+        /**
+         * Computes a 64 bit hash of a folder (FNV-1a over the characters, followed by the finalizer of SplitMix64).
+         * @param assignment The name of the assignment.
+         * @param group The name of the group, <tt>null</tt> for the folder of the assignment.
+         * @return The hash of the folder.
+         */
+        private static long hash(String assignment, String group) {
+            long hash = 0xcbf29ce484222325L;
+            hash = hash(hash, assignment);
+            if (null != group) {
+                hash = (hash ^ '/') * 0x100000001b3L;
+                hash = hash(hash, group);
+            }
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            return hash ^ (hash >>> 31);
+        }
+        
+        /**
+         * Continues a FNV-1a hash over the characters of a name.
+         * @param hash The hash so far.
+         * @param name The name to add, may be <tt>null</tt>.
+         * @return The combined hash.
+         */
+        private static long hash(long hash, String name) {
+            if (null == name) {
+                return (hash ^ 0xFFFF) * 0x100000001b3L;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * Immutable copy of one assignment.
+     */
+    private static class AssignmentSnapshot {
+
+        private final String name;
+        private final State state;
+        private final Map<String, Set<String>> groups;
+
+        /**
+         * Copies the current state of the assignment.
+         * @param assignment The assignment to copy.
+         */
+        private AssignmentSnapshot(ManagedAssignment assignment) {
+            name = assignment.getName();
+            state = assignment.getState();
+            groups = new LinkedHashMap<>();
+            for (Group group : assignment) {
+                Set<String> members = groups.get(group.getName());
+                if (null == members) {
+                    groups.put(group.getName(), members(group));
+                } else {
+                    // Groups with the same name share one folder
+                    members.addAll(members(group));
+                }
+            }
+        }
+    }
+
+    /**
+     * Instances are created by {@link #compute(Snapshot, Snapshot)}.
+     */
+    private CourseDiff() {}
+
+    /**
+     * Returns the account names of the members of a group.
+     * @param group The group.
+     * @return The account names (modifiable copy).
+     */
+    private static Set<String> members(Group group) {
+        Set<String> members = new HashSet<>(2 * group.getMembers().size());
+        for (User member : group) {
+            members.add(member.getAccountName());
+        }
+        return members;
+    }
+
+    /**
+     * Computes the changes between two states of a course.
+     * @param before The previous state, may be <tt>null</tt> if there is no previous state (everything is new).
+     * @param after The current state.
+     * @return The changes, {@link #isEmpty()} if the relevant parts of the course are equal.
+     */
+    public static CourseDiff compute(Snapshot before, Snapshot after) {
+        CourseDiff diff = new CourseDiff();
+        Map<String, AssignmentSnapshot> oldAssignments = null != before ? before.assignments
+            : Collections.emptyMap();
+        diff.tutorsChanged = null == before || !before.tutors.equals(after.tutors)
+            || !equals(before.tutorGroup, after.tutorGroup);
+        diff.structuralChange = null == before || before.folderFingerprint != after.folderFingerprint;
+
+        for (Map.Entry<String, AssignmentSnapshot> entry : after.assignments.entrySet()) {
+            AssignmentSnapshot newAssignment = entry.getValue();
+            AssignmentSnapshot oldAssignment = oldAssignments.get(entry.getKey());
+            if (null == oldAssignment || !equals(oldAssignment.name, newAssignment.name)) {
+                // A renamed assignment is stored in another folder
+                if (null != oldAssignment) {
+                    diff.removedAssignments.add(oldAssignment.name);
+                }
+                diff.addedAssignments.add(newAssignment.name);
+                diff.changedAssignments.add(entry.getKey());
+            } else if (diff.compareAssignments(oldAssignment, newAssignment)) {
+                diff.changedAssignments.add(entry.getKey());
+            }
+        }
+        for (Map.Entry<String, AssignmentSnapshot> entry : oldAssignments.entrySet()) {
+            if (!after.assignments.containsKey(entry.getKey())) {
+                diff.removedAssignments.add(entry.getValue().name);
+                diff.changedAssignments.add(entry.getKey());
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Compares two states of the same assignment and records the changes.
+     * @param before The previous state.
+     * @param after The current state.
+     * @return <tt>true</tt> if the assignment was changed.
+     */
+    private boolean compareAssignments(AssignmentSnapshot before, AssignmentSnapshot after) {
+        boolean changed = false;
+        if (before.state != after.state) {
+            stateChanges.put(after.name, before.state + " -> " + after.state);
+            changed = true;
+        }
+
+        for (Map.Entry<String, Set<String>> group : after.groups.entrySet()) {
+            String path = after.name + "/" + group.getKey();
+            Set<String> oldMembers = before.groups.get(group.getKey());
+            if (null == oldMembers) {
+                addedGroups.add(path);
+                changed = true;
+            } else if (!oldMembers.equals(group.getValue())) {
+                addedMembers.put(path, difference(group.getValue(), oldMembers));
+                removedMembers.put(path, difference(oldMembers, group.getValue()));
+                changed = true;
+            }
+        }
+        for (String group : before.groups.keySet()) {
+            if (!after.groups.containsKey(group)) {
+                removedGroups.add(after.name + "/" + group);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Computes the elements of the first set, which are not part of the second set.
+     * @param set The first set.
+     * @param other The elements to remove.
+     * @return The difference of both sets.
+     */
+    private static Set<String> difference(Set<String> set, Set<String> other) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String element : set) {
+            if (!other.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compares two (nullable) strings.
+     * @param first The first string.
+     * @param second The second string.
+     * @return <tt>true</tt> if both are equal or both are <tt>null</tt>.
+     */
+    private static boolean equals(String first, String second) {
+        return null == first ? null == second : first.equals(second);
+    }
+
+    /**
+     * Returns whether the course is unchanged. Changes, which other clients made to the repository or the access file,
+     * are not covered by the diff.
+     * @return <tt>true</tt> if nothing has changed.
+     */
+    public boolean isEmpty() {
+        return changedAssignments.isEmpty() && !tutorsChanged;
+    }
+
+    /**
+     * Returns whether the folder structure of the repository is affected, i.e., whether assignments or groups were
+     * added, removed, or renamed (compared via {@link Snapshot#getFolderFingerprint()}). Changes of states and
+     * memberships affect only the access file.
+     * @return <tt>true</tt> if the repository needs to be updated.
+     */
+    public boolean isStructuralChange() {
+        return structuralChange;
+    }
+
+    /**
+     * Returns the IDs of all assignments, which were added, removed, or changed. Only the sections of these
+     * assignments need to be rendered again. Assignments without ID are identified by <tt>name:</tt> and their name.
+     * @return The IDs of the changed assignments.
+     */
+    public Set<String> getChangedAssignments() {
+        return Collections.unmodifiableSet(changedAssignments);
+    }
+
+    /**
+     * Returns the names of the added (or renamed) assignments.
+     * @return The names of the new assignments.
+     */
+    public List<String> getAddedAssignments() {
+        return Collections.unmodifiableList(addedAssignments);
+    }
+
+    /**
+     * Returns the names of the removed (or renamed) assignments.
+     * @return The previous names of the removed assignments.
+     */
+    public List<String> getRemovedAssignments() {
+        return Collections.unmodifiableList(removedAssignments);
+    }
+
+    /**
+     * Returns the state changes of the assignments.
+     * @return Assignment name &rarr; <tt>old state -&gt; new state</tt>.
+     */
+    public Map<String, String> getStateChanges() {
+        return Collections.unmodifiableMap(stateChanges);
+    }
+
+    /**
+     * Returns the groups, which were added to existing assignments.
+     * @return The paths (<tt>assignment/group</tt>) of the new groups.
+     */
+    public List<String> getAddedGroups() {
+        return Collections.unmodifiableList(addedGroups);
+    }
+
+    /**
+     * Returns the groups, which were removed from existing assignments.
+     * @return The paths (<tt>assignment/group</tt>) of the removed groups.
+     */
+    public List<String> getRemovedGroups() {
+        return Collections.unmodifiableList(removedGroups);
+    }
+
+    /**
+     * Returns the members, which joined existing groups.
+     * @return Path of the group (<tt>assignment/group</tt>) &rarr; account names of the new members, contains only
+     *     groups with changed members.
+     */
+    public Map<String, Set<String>> getAddedMembers() {
+        return Collections.unmodifiableMap(addedMembers);
+    }
+
+    /**
+     * Returns the members, which left existing groups.
+     * @return Path of the group (<tt>assignment/group</tt>) &rarr; account names of the removed members, contains only
+     *     groups with changed members.
+     */
+    public Map<String, Set<String>> getRemovedMembers() {
+        return Collections.unmodifiableMap(removedMembers);
+    }
+
+    /**
+     * Returns whether the tutor group or its members have changed.
+     * @return <tt>true</tt> if the tutors have changed.
+     */
+    public boolean isTutorsChanged() {
+        return tutorsChanged;
+    }
+
+    /**
+     * Summarizes the changes for logging.
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "no changes";
+        }
+        StringBuilder result = new StringBuilder();
+        append(result, "added assignments", addedAssignments, !addedAssignments.isEmpty());
+        append(result, "removed assignments", removedAssignments, !removedAssignments.isEmpty());
+        append(result, "state changes", stateChanges, !stateChanges.isEmpty());
+        append(result, "added groups", addedGroups, !addedGroups.isEmpty());
+        append(result, "removed groups", removedGroups, !removedGroups.isEmpty());
+        append(result, "added members", addedMembers, !addedMembers.isEmpty());
+        append(result, "removed members", removedMembers, !removedMembers.isEmpty());
+        append(result, "tutors changed", tutorsChanged, tutorsChanged);
+        return result.toString();
+    }
+
+    /**
+     * Appends one category of changes to the summary.
+     * @param summary The summary to extend.
+     * @param label The name of the category.
+     * @param value The changes of the category.
+     * @param hasChanges <tt>true</tt> if the category shall be appended.
+     */
+    private static void append(StringBuilder summary, String label, Object value, boolean hasChanges) {
+        if (hasChanges) {
+            if (summary.length() > 0) {
+                summary.append("; ");
+            }
+            summary.append(label).append(": ").append(value);
+        }
+    }
+}
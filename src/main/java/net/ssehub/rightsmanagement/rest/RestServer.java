@@ -23,12 +23,22 @@ public class RestServer implements Closeable {
     private Server server;
     
     /**
-     * Creates a new {@link RestServer} instance.
+     * Creates a new {@link RestServer} instance and blocks the calling thread until the server is stopped.
      * @param port The port at which it should listen for new messages.
      */
     public RestServer(int port) {
+        this(port, true);
+    }
+    
+    /**
+     * Creates and starts a new {@link RestServer} instance.
+     * @param port The port at which it should listen for new messages.
+     * @param join <tt>true</tt> blocks the calling thread until the server is stopped, <tt>false</tt> returns after
+     *     the server was started (for testing purpose).
+     */
+    RestServer(int port, boolean join) {
         LOGGER.info("Starting server on port: {}", port);
-        Server server = new Server(port);
+        server = new Server(port);
         
         ServletContextHandler servletContextHandler = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
 
@@ -44,7 +54,9 @@ public class RestServer implements Closeable {
 
         try {
             server.start();
-            server.join();
+            if (join) {
+                server.join();
+            }
             // checkstyle: stop exception type check (used interface of library throws exception)
         } catch (Exception ex) {
             // checkstyle: resume exception type check
@@ -55,6 +67,13 @@ public class RestServer implements Closeable {
     
     @Override
     public void close() {
+        try {
+            server.stop();
+            // checkstyle: stop exception type check (used interface of library throws exception)
+        } catch (Exception ex) {
+            // checkstyle: resume exception type check
+            LOGGER.warn("Could not stop server", ex);
+        }
         server.destroy();
     }
     
@@ -0,0 +1,101 @@
+package net.ssehub.rightsmanagement.rest.resources;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.MediaType;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.ssehub.rightsmanagement.RightsIndex;
+import net.ssehub.rightsmanagement.logic.CourseUpdateQueue;
+import net.ssehub.rightsmanagement.logic.UpdateChangeListener;
+
+/**
+ * Answers which rights a user has for a path of a managed repository at
+ * <tt>server/rest/rights?user=&lt;account&gt;&amp;path=&lt;path&gt;[&amp;course=&lt;course-semester&gt;]</tt>.<p>
+ * The rights are taken from the {@link RightsIndex} of the most recently written access file, thus, requests are not
+ * blocked by running updates. Before the first update, the access file found at start-up is used.
+ *
+ * @author El-Sharkawy
+ */
+@Path("/rights")
+public class Rights {
+
+    private static final Logger LOGGER = LogManager.getLogger(Rights.class);
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Returns the rights of a user for a path.
+     * @param user The account name of the user.
+     * @param path The path inside the repository, e.g., <tt>/Homework/Group</tt>.
+     * @param course The ID of the course (<tt>name-semester</tt>), may be omitted if only one course is managed.
+     * @return A JSON object containing the rights (<tt>""</tt>, <tt>"r"</tt>, or <tt>"rw"</tt>).
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public String rights(@QueryParam("user") String user, @QueryParam("path") String path,
+        @QueryParam("course") String course) {
+
+        LOGGER.debug("Rights request received for user {} at {} in course {}", user, path, course);
+        if (null == user || user.isEmpty() || null == path) {
+            throw new BadRequestException("Parameters \"user\" and \"path\" are required.");
+        }
+
+        CourseUpdateQueue queue = findQueue(course);
+        RightsIndex index = queue.getRightsIndex();
+        if (null == index) {
+            throw new ServiceUnavailableException("Rights of course \"" + queue.getCourseID()
+                + "\" not computed yet.");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("course", queue.getCourseID());
+        result.put("repository", index.getSvnName());
+        result.put("user", user);
+        result.put("path", path);
+        result.put("rights", index.getRightsAsString(user, path));
+        return GSON.toJson(result);
+    }
+
+    /**
+     * Selects the queue of the requested course.
+     * @param course The ID of the course, may be <tt>null</tt> if only one course is managed.
+     * @return The queue of the course.
+     */
+    private static CourseUpdateQueue findQueue(String course) {
+        Collection<CourseUpdateQueue> queues = UpdateChangeListener.INSTANCE.getQueues();
+        CourseUpdateQueue result = null;
+        if (null == course || course.isEmpty()) {
+            if (queues.size() != 1) {
+                throw new BadRequestException("Parameter \"course\" is required, " + queues.size()
+                    + " courses are managed.");
+            }
+            result = queues.iterator().next();
+        } else {
+            for (CourseUpdateQueue queue : queues) {
+                if (course.equals(queue.getCourseID())) {
+                    result = queue;
+                }
+            }
+            if (null == result) {
+                throw new NotFoundException("Course \"" + course + "\" is not managed.");
+            }
+        }
+        return result;
+    }
+
+}
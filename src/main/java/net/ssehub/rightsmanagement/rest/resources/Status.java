@@ -0,0 +1,65 @@
+package net.ssehub.rightsmanagement.rest.resources;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.ssehub.rightsmanagement.PathLockManager;
+import net.ssehub.rightsmanagement.logic.CourseUpdateQueue;
+import net.ssehub.rightsmanagement.logic.UpdateChangeListener;
+
+/**
+ * Provides monitoring information about the processing of updates at <tt>server/rest/status</tt>.
+ * 
+ * @author El-Sharkawy
+ */
+@Path("/status")
+public class Status {
+    
+    private static final Logger LOGGER = LogManager.getLogger(Status.class);
+    
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Returns the statistics of the update queues of all managed courses.
+     * @return A JSON object with one entry per managed course.
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public String status() {
+        LOGGER.debug("Status request received");
+        
+        List<Map<String, Object>> courses = new ArrayList<>();
+        for (CourseUpdateQueue queue : UpdateChangeListener.INSTANCE.getQueues()) {
+            Map<String, Object> course = new LinkedHashMap<>();
+            course.put("course", queue.getCourseID());
+            course.put("queueDepth", queue.getQueueDepth());
+            course.put("receivedEvents", queue.getReceivedEvents());
+            course.put("coalescedEvents", queue.getCoalescedEvents());
+            course.put("rebuilds", queue.getRebuilds());
+            course.put("pullTimings", queue.getPullTimings());
+            course.put("fragmentCache", queue.getFragmentCacheStatistics());
+            courses.add(course);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pendingAsyncUpdates", UpdateChangeListener.INSTANCE.getPendingAsyncUpdates());
+        result.put("pathLocks", PathLockManager.getInstance().getStatistics());
+        result.put("maintenance", UpdateChangeListener.INSTANCE.getMaintenanceReports());
+        result.put("courses", courses);
+        return GSON.toJson(result);
+    }
+    
+}
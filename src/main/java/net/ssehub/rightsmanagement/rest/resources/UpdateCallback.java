@@ -1,26 +1,45 @@
 package net.ssehub.rightsmanagement.rest.resources;
 import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
 import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.NotAcceptableException;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonParseException;
 
+import net.ssehub.rightsmanagement.conf.Settings;
 import net.ssehub.rightsmanagement.logic.UpdateChangeListener;
+import net.ssehub.rightsmanagement.logic.UpdateTracker.UpdateState;
 import net.ssehub.rightsmanagement.logic.WrongFormatException;
 import net.ssehub.studentmgmt.backend_api.JSON;
 import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
 
 /**
- * Listens at <tt>server/rest/update/</tt> for changes at the student management system.
+ * Listens at <tt>server/rest/update/</tt> for changes at the student management system.<p>
+ * If asynchronous updates are configured, messages are only validated and answered with <tt>202 Accepted</tt>.
+ * If further the tracking of updates is configured, the processing state of each accepted message may be polled
+ * at <tt>server/rest/update/&lt;id&gt;</tt> as denoted by the <tt>Location</tt> header of the response.
  * @author El-Sharkawy
  *
  */
@@ -29,33 +48,61 @@ public class UpdateCallback {
 
     private static final Logger LOGGER = LogManager.getLogger(UpdateCallback.class);
     
+    private static final Gson GSON = new Gson();
+    
+    @Context
+    private UriInfo uriInfo;
+    
     /**
      * Retrieves a JSON message which was specified as <tt>text/plain</tt> converts it and handles the message.
      * @param update A {@link NotificationDto} in serialized as JSON.
+     * @return <tt>204 No Content</tt> after the update was applied or <tt>202 Accepted</tt> in asynchronous mode.
      */
     @POST
     @Consumes(MediaType.TEXT_PLAIN)
-    public void helloUsingTxt(String update) {
+    public Response helloUsingTxt(String update) {
         LOGGER.debug("Received plain text message = {}", update);
-        processMessage(update);
+        return processMessage(update);
     }
     
     /**
      * Retrieves a JSON message which was specified as <tt>application/json</tt> converts it and handles the message.
      * @param json A {@link NotificationDto} in serialized as JSON.
+     * @return <tt>204 No Content</tt> after the update was applied or <tt>202 Accepted</tt> in asynchronous mode.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
-    public void helloUsingJson(String json) {
+    public Response helloUsingJson(String json) {
         LOGGER.debug("Received JSON message = {}", json);
-        processMessage(json);
+        return processMessage(json);
+    }
+    
+    /**
+     * Returns the processing state of an asynchronously accepted update message.
+     * @param id The ID of the accepted message as provided by the <tt>Location</tt> header.
+     * @return A JSON object containing the processing state.
+     */
+    @GET
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public String state(@PathParam("id") String id) {
+        UpdateState state = UpdateChangeListener.INSTANCE.getTracker().getState(id);
+        if (null == state) {
+            throw new NotFoundException("Unknown update: " + id);
+        }
+        
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("id", id);
+        result.put("state", state.name());
+        return GSON.toJson(result);
     }
 
     /**
      * Parsed the JSON message and processes the the update via {@link UpdateChangeListener}.
      * @param json A JSON representation of {@link NotificationDto}.
+     * @return The response to send.
      */
-    private void processMessage(String json) {
+    private Response processMessage(String json) {
         NotificationDto msg;
         try {
             msg = new JSON().deserialize(json, NotificationDto.class);
@@ -65,6 +112,10 @@ public class UpdateCallback {
             throw new BadRequestException(e);
         }
         
+        if (Settings.getConfig().isAsyncUpdates()) {
+            return acceptMessage(json, msg);
+        }
+        
         try {
             UpdateChangeListener.INSTANCE.onChange(msg);
         } catch (WrongFormatException e) {
@@ -76,5 +127,37 @@ public class UpdateCallback {
             // internal error -> server side error
             throw new InternalServerErrorException(e);
         }
+        
+        return Response.noContent().build();
+    }
+    
+    /**
+     * Enqueues the validated message for asynchronous processing.
+     * @param json A JSON representation of {@link NotificationDto}, only used for logging.
+     * @param msg The parsed message.
+     * @return <tt>202 Accepted</tt>, with the status URL as <tt>Location</tt> if tracking of updates is enabled.
+     */
+    private Response acceptMessage(String json, NotificationDto msg) {
+        CompletableFuture<Void> processing;
+        try {
+            processing = UpdateChangeListener.INSTANCE.accept(msg);
+        } catch (WrongFormatException e) {
+            LOGGER.info("Could not process {}", json, e);
+            // Malformed input -> client side error
+            throw new NotAcceptableException(e);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Could not accept {}, cause {}", json, e.getMessage());
+            // Overloaded -> client shall retry later
+            throw new ServiceUnavailableException(e.getMessage());
+        }
+        
+        Response.ResponseBuilder response = Response.accepted();
+        if (Settings.getConfig().isTrackUpdateStatus()) {
+            String id = UpdateChangeListener.INSTANCE.getTracker().track(processing);
+            URI statusURI = uriInfo.getAbsolutePathBuilder().path(id).build();
+            response.location(statusURI);
+        }
+        
+        return response.build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The folders, which need to be created in the repository to reflect a course. The plan is computed first and applied
+ * afterwards as <b>one</b> commit, independent of the number of affected assignments.
+ * @author El-Sharkawy
+ *
+ */
+class FolderPlan {
+
+    private final Map<String, Set<String>> groups = new LinkedHashMap<>();
+    private final Set<String> newAssignments = new LinkedHashSet<>();
+    private int nFolders;
+
+    /**
+     * Plans the creation of an assignment folder.
+     * @param assignment The name of the assignment, which does not exist in the repository.
+     */
+    void addAssignment(String assignment) {
+        if (newAssignments.add(assignment)) {
+            groups.computeIfAbsent(assignment, k -> new LinkedHashSet<>());
+            nFolders++;
+        }
+    }
+
+    /**
+     * Plans the creation of a submission folder.
+     * @param assignment The name of the assignment, which contains the group. Must be added via
+     *     {@link #addAssignment(String)} before if the assignment folder does not exist.
+     * @param group The name of the group, which has no folder inside the assignment folder.
+     */
+    void addGroup(String assignment, String group) {
+        if (groups.computeIfAbsent(assignment, k -> new LinkedHashSet<>()).add(group)) {
+            nFolders++;
+        }
+    }
+
+    /**
+     * Returns the affected assignments.
+     * @return The names of all assignments, which are new or get new submission folders, in planned order.
+     */
+    Collection<String> getAssignments() {
+        return Collections.unmodifiableSet(groups.keySet());
+    }
+
+    /**
+     * Returns whether the assignment folder needs to be created.
+     * @param assignment The name of the assignment.
+     * @return <tt>true</tt> if the assignment is new, <tt>false</tt> if it exists already.
+     */
+    boolean isNewAssignment(String assignment) {
+        return newAssignments.contains(assignment);
+    }
+
+    /**
+     * Returns the submission folders to create for an assignment.
+     * @param assignment The name of the assignment.
+     * @return The names of the groups without folder, maybe empty.
+     */
+    Collection<String> getGroups(String assignment) {
+        Set<String> result = groups.get(assignment);
+        return null != result ? Collections.unmodifiableSet(result) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the number of folders to create (assignment and submission folders).
+     * @return The number of planned folders.
+     */
+    int size() {
+        return nFolders;
+    }
+
+    /**
+     * Returns whether the repository is already up to date.
+     * @return <tt>true</tt> if there are no folders to create.
+     */
+    boolean isEmpty() {
+        return nFolders == 0;
+    }
+}
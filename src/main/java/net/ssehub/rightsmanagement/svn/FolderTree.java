@@ -0,0 +1,104 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory copy of the first-level (assignments) and second-level (submission directories) folders of a repository,
+ * together with the revision it reflects. Not thread-safe, guarded by the owning {@link Repository}.
+ * @author El-Sharkawy
+ *
+ */
+class FolderTree {
+
+    private final Map<String, Set<String>> assignments = new HashMap<>();
+    private long revision;
+
+    /**
+     * Creates an empty tree.
+     * @param revision The revision, which is reflected by the tree.
+     */
+    FolderTree(long revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * Returns the revision, which is reflected by the tree.
+     * @return The revision of the repository.
+     */
+    long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Sets the revision, which is reflected by the tree after an update.
+     * @param revision The revision of the repository.
+     */
+    void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * Sets (replaces) the folder of an assignment.
+     * @param assignment The name of the assignment folder.
+     * @param groups The names of the submission folders inside of the assignment folder.
+     */
+    void setAssignment(String assignment, Collection<String> groups) {
+        assignments.put(assignment, new HashSet<>(groups));
+    }
+
+    /**
+     * Adds a submission folder, creates the assignment folder if it does not exist.
+     * @param assignment The name of the assignment folder.
+     * @param group The name of the submission folder.
+     */
+    void addGroup(String assignment, String group) {
+        assignments.computeIfAbsent(assignment, k -> new HashSet<>()).add(group);
+    }
+
+    /**
+     * Removes the folder of an assignment, together with its submission folders.
+     * @param assignment The name of the assignment folder.
+     */
+    void removeAssignment(String assignment) {
+        assignments.remove(assignment);
+    }
+
+    /**
+     * Returns the names of all assignment folders.
+     * @return The assignment folders (read-only view).
+     */
+    Set<String> getAssignments() {
+        return Collections.unmodifiableSet(assignments.keySet());
+    }
+
+    /**
+     * Returns the submission folders of an assignment.
+     * @param assignment The name of the assignment folder.
+     * @return The names of the submission folders (read-only view) or <tt>null</tt> if the assignment folder does not
+     *     exist.
+     */
+    Set<String> getGroups(String assignment) {
+        Set<String> groups = assignments.get(assignment);
+        return null != groups ? Collections.unmodifiableSet(groups) : null;
+    }
+
+    /**
+     * Lists all folders as relative paths.
+     * @return <tt>assignment</tt> and <tt>assignment/group</tt> for all folders of the tree (modifiable copy).
+     */
+    Set<String> toPaths() {
+        Set<String> paths = new HashSet<>();
+        for (Map.Entry<String, Set<String>> assignment : assignments.entrySet()) {
+            paths.add(assignment.getKey());
+            for (String group : assignment.getValue()) {
+                paths.add(assignment.getKey() + "/" + group);
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,107 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Path trie of existing and expected folders of a repository, which computes the folders that are no longer used.
+ * Paths are passed as segments (e.g., <tt>assignment, group</tt>), thus, no joined strings are created while the trie
+ * is filled. Supports hierarchies of any depth. Not thread-safe.
+ * @author El-Sharkawy
+ *
+ */
+class FolderTrie {
+
+    private final Node root = new Node();
+
+    /**
+     * A folder of the trie.
+     */
+    private static class Node {
+
+        private Map<String, Node> children;
+        private boolean existing;
+        private boolean expected;
+
+        /**
+         * Returns the child with the given name, creates it if it does not exist.
+         * @param name The name of the child folder.
+         * @return The child node.
+         */
+        private Node getOrCreateChild(String name) {
+            if (null == children) {
+                children = new HashMap<>();
+            }
+            Node child = children.get(name);
+            if (null == child) {
+                child = new Node();
+                children.put(name, child);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * Records a folder, which exists in the repository. Its parent folders are recorded as existing, too.
+     * @param path The segments of the path, starting at the first-level folder.
+     */
+    void addExisting(String... path) {
+        Node node = root;
+        for (String segment : path) {
+            node = node.getOrCreateChild(segment);
+            node.existing = true;
+        }
+    }
+
+    /**
+     * Records a folder, which is used by the course. Its parent folders are recorded as used, too.
+     * @param path The segments of the path, starting at the first-level folder.
+     */
+    void addExpected(String... path) {
+        Node node = root;
+        for (String segment : path) {
+            node = node.getOrCreateChild(segment);
+            node.expected = true;
+        }
+    }
+
+    /**
+     * Computes the minimal set of obsolete folders in one traversal: Folders which exist, but are not expected. Nested
+     * folders of an obsolete folder are not listed, as they are covered by their parent.
+     * @return The relative paths (segments separated by <tt>/</tt>) of the obsolete folders, maybe empty.
+     */
+    Set<String> getObsoleteFolders() {
+        Set<String> obsolete = new HashSet<>();
+        collectObsolete(root, new StringBuilder(), obsolete);
+        return obsolete;
+    }
+
+    /**
+     * Recursive part of {@link #getObsoleteFolders()}.
+     * @param node The folder, whose children shall be checked.
+     * @param path The path of the folder, will be restored before this method returns.
+     * @param obsolete The obsolete folders found so far, will be changed as side effect.
+     */
+    private static void collectObsolete(Node node, StringBuilder path, Set<String> obsolete) {
+        if (null != node.children) {
+            int parentLength = path.length();
+            for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+                Node child = entry.getValue();
+                if (parentLength > 0) {
+                    path.append('/');
+                }
+                path.append(entry.getKey());
+                if (!child.expected) {
+                    if (child.existing) {
+                        obsolete.add(path.toString());
+                    }
+                } else {
+                    collectObsolete(child, path, obsolete);
+                }
+                path.setLength(parentLength);
+            }
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package net.ssehub.rightsmanagement.svn;
 
+import java.io.Closeable;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.tmatesoft.svn.core.SVNCommitInfo;
 import org.tmatesoft.svn.core.SVNDirEntry;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNNodeKind;
@@ -23,6 +26,7 @@ import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
 
 import net.ssehub.exercisesubmitter.protocol.frontend.Group;
 import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.rightsmanagement.PathLockManager;
 import net.ssehub.rightsmanagement.model.Course;
 import net.ssehub.rightsmanagement.rest.resources.UpdateCallback;
 
@@ -34,7 +38,7 @@ import net.ssehub.rightsmanagement.rest.resources.UpdateCallback;
  * @author Kunold
  *
  */
-public class Repository {
+public class Repository implements Closeable {
     
     static {
         // Init driver for file system access
@@ -43,12 +47,43 @@ public class Repository {
     
     private static final int LATEST_REVISION = -1;
     
+    /**
+     * Operations on the repository are synchronized, additional sessions are only needed for concurrently used
+     * instances of the same repository.
+     */
+    private static final int MAX_IDLE_SESSIONS = 2;
+    
+    /**
+     * Number of folders after which the progress of a provisioning is reported.
+     */
+    private static final int PROGRESS_INTERVAL = 1000;
+    
     private static final Logger LOGGER = LogManager.getLogger(UpdateCallback.class);
     
     private File file;
     
     private String author;
     
+    private SessionPool sessions;
+    
+    // Guarded by this
+    private FolderTree folderTree;
+    private long directoryReads;
+    private long revisionChecks;
+    
+    /**
+     * Observes the progress of {@link Repository#provision(Course, ProgressListener)}.
+     */
+    public interface ProgressListener {
+        
+        /**
+         * Called periodically while the folders are added to the commit and once all folders were added (before the
+         * revision is written).
+         * @param created The number of folders added so far.
+         * @param total The number of folders to create.
+         */
+        void progress(int created, int total);
+    }
     
     /**
      * Constructor of Repository.
@@ -82,6 +117,12 @@ public class Repository {
                         + file.getAbsolutePath() + " due to " + e.getMessage());
             }
         }
+        try {
+            sessions = new SessionPool(SVNURL.fromFile(file), MAX_IDLE_SESSIONS);
+        } catch (SVNException e) {
+            throw new RepositoryNotFoundException(file.getAbsolutePath() + " is not a valid repository location: "
+                + e.getMessage());
+        }
     }
     
     /**
@@ -94,22 +135,6 @@ public class Repository {
         return SVNRepositoryFactory.createLocalRepository(file, true, false);
     }
     
-    /**
-     * Loads the (file system) access to the repository.
-     * According to <a href="https://svnkit.com/javadoc/org/tmatesoft/svn/core/io/SVNRepository.html">
-     * https://svnkit.com/javadoc/org/tmatesoft/svn/core/io/SVNRepository.html</a> this is <b>not</b>
-     * thread safe! For this reason all public method are synchronized. Further each thread of the rights management
-     * should use at most one repository.
-     * @return the loaded repository.
-     * @throws SVNException If there's no implementation for the specified protocol (the user may have forgotten to
-     *     register a specific factory that creates <b>SVNRepository</b> instances for that protocol or the SVNKit
-     *     library does not support that protocol at all)
-     */
-    private SVNRepository loadRepository() throws SVNException {   
-        return SVNRepositoryFactory.create(SVNURL.fromFile(file));
-    }
-    
-    
     /**
      * Checks if a specified path in the repository exists.
      * @param path that is checked for existence.
@@ -137,57 +162,148 @@ public class Repository {
      *     (see {@link org.tmatesoft.svn.core.SVNAuthenticationException})
      */
     boolean pathExists(String path) throws SVNException {
-        SVNRepository readOnlyConnection = loadRepository();
-        boolean exists = false;
-        try {
-            exists = pathExists(readOnlyConnection, path);
-        } finally {
-            readOnlyConnection.closeSession();
-        }
-        return exists;
+        return sessions.execute(con -> pathExists(con, path));
     }
     
     /**
      * Creates a list of first-level (Assignments) and second-level (submission directories) folders.
      * If there is currently no assignment or submission user / group configured, they should be disabled via the access
-     * file.
+     * file.<p>
+     * The folders are taken from the cached {@link FolderTree}, which is only refreshed if the repository has changed.
      * @return The list of first-level (Assignments) and second-level (submission directories) folders, maybe empty
      *     if there are not folders yet or in case of errors.
      */
-    protected Set<String> listFolders() {
-        Set<String> folders = new HashSet<>();
+    protected synchronized Set<String> listFolders() {
+        FolderTree tree = readFolderTree();
+        return null != tree ? tree.toPaths() : new HashSet<>();
+    }
+    
+    /**
+     * Reads the folders to check for unused folders, errors are logged.
+     * @return The current folders of the repository or <tt>null</tt> in case of errors.
+     */
+    private FolderTree readFolderTree() {
+        FolderTree tree = null;
         
-        SVNRepository repository = null;
         try {
-            repository = loadRepository();
-            Collection<SVNDirEntry> entries = repository.getDir("/", LATEST_REVISION, null, SVNDirEntry.DIRENT_ALL,
-                (Collection<?>) null);
-            for (SVNDirEntry svnDirEntry : entries) {
-                if (svnDirEntry.getKind() == SVNNodeKind.DIR) {
-                    String assignmentPath = svnDirEntry.getRelativePath();
-                    folders.add(assignmentPath);
-                    
-                    Collection<SVNDirEntry> nestedEntries = repository.getDir("/" + assignmentPath, LATEST_REVISION,
-                        null, SVNDirEntry.DIRENT_ALL, (Collection<?>) null);
-                    for (SVNDirEntry nested : nestedEntries) {
-                        if (nested.getKind() == SVNNodeKind.DIR) {
-                            folders.add(assignmentPath + "/" + nested.getRelativePath());
-                        }
+            tree = sessions.execute(this::refreshFolderTree);
+        } catch (SVNException e) {
+            LOGGER.error("Could not load list of folders to check for unused folders", e);
+            // Folders will be empty -> nothing will be blocked, read the complete tree again at next call
+            folderTree = null;
+        }
+        
+        return tree;
+    }
+    
+    /**
+     * Brings the cached {@link FolderTree} up to date: The tree is read completely at the first call. Afterwards, only
+     * folders that are affected by revisions committed in the meantime (by other clients) are read again.
+     * @param con A read-only connection to the repository.
+     * @return The folders of the latest revision.
+     * @throws SVNException If a failure occurred while connecting to a repository
+     */
+    private FolderTree refreshFolderTree(SVNRepository con) throws SVNException {
+        revisionChecks++;
+        long latestRevision = con.getLatestRevision();
+        if (null == folderTree) {
+            LOGGER.debug("Reading folders of revision {}", latestRevision);
+            FolderTree tree = new FolderTree(latestRevision);
+            for (String assignment : readFolders(con, "", latestRevision)) {
+                tree.setAssignment(assignment, readFolders(con, assignment, latestRevision));
+            }
+            folderTree = tree;
+        } else if (latestRevision > folderTree.getRevision()) {
+            // Collect the assignment folders, which may have been changed
+            Set<String> changedAssignments = new HashSet<>();
+            boolean[] rootChanged = {false};
+            con.log(new String[] {""}, folderTree.getRevision() + 1, latestRevision, true, false, entry -> {
+                for (String path : entry.getChangedPaths().keySet()) {
+                    String[] segments = path.startsWith("/") ? path.substring(1).split("/") : path.split("/");
+                    if (segments[0].isEmpty()) {
+                        rootChanged[0] = true;
+                    } else if (segments.length <= 2) {
+                        // Deeper paths are files of the students, which do not affect the folder structure
+                        rootChanged[0] |= segments.length == 1;
+                        changedAssignments.add(segments[0]);
                     }
                 }
+            });
+            LOGGER.debug("Updating folders from revision {} to {}, changed assignments: {}", folderTree.getRevision(),
+                latestRevision, changedAssignments);
+            
+            if (rootChanged[0]) {
+                Set<String> assignments = new HashSet<>(readFolders(con, "", latestRevision));
+                for (String assignment : new ArrayList<>(folderTree.getAssignments())) {
+                    if (!assignments.contains(assignment)) {
+                        folderTree.removeAssignment(assignment);
+                        changedAssignments.remove(assignment);
+                    }
+                }
+                assignments.removeAll(folderTree.getAssignments());
+                changedAssignments.addAll(assignments);
             }
-        } catch (SVNException e) {
-            LOGGER.error("Could not load list of folders to check for unused folders", e);
-            // Folders will be empty -> nothing will be blocked
-        } finally {
-            if (null != repository) {
-                repository.closeSession();
+            for (String assignment : changedAssignments) {
+                if (con.checkPath(assignment, latestRevision) == SVNNodeKind.DIR) {
+                    folderTree.setAssignment(assignment, readFolders(con, assignment, latestRevision));
+                } else {
+                    folderTree.removeAssignment(assignment);
+                }
+            }
+            folderTree.setRevision(latestRevision);
+        }
+        return folderTree;
+    }
+    
+    /**
+     * Checks whether the cached {@link FolderTree} still reflects the latest revision, i.e., nobody committed since the
+     * last update. Costs one round-trip to the repository, the folders are not read.
+     * @return <tt>true</tt> if the folders are unchanged, <tt>false</tt> if they have changed or were not read yet.
+     * @throws SVNException If a failure occurred while connecting to a repository
+     */
+    public synchronized boolean isUpToDate() throws SVNException {
+        return null != folderTree && lastRevision() == folderTree.getRevision();
+    }
+    
+    /**
+     * Lists the sub folders of a folder.
+     * @param con A read-only connection to the repository.
+     * @param path The path of the folder relative to the root of the repository, <tt>""</tt> for the root.
+     * @param revision The revision to read.
+     * @return The names of the sub folders.
+     * @throws SVNException If a failure occurred while connecting to a repository
+     */
+    private List<String> readFolders(SVNRepository con, String path, long revision) throws SVNException {
+        directoryReads++;
+        List<String> folders = new ArrayList<>();
+        Collection<SVNDirEntry> entries = con.getDir("/" + path, revision, null, SVNDirEntry.DIRENT_KIND,
+            (Collection<?>) null);
+        for (SVNDirEntry entry : entries) {
+            if (entry.getKind() == SVNNodeKind.DIR) {
+                folders.add(entry.getRelativePath());
             }
         }
-        
         return folders;
     }
     
+    /**
+     * Returns the number of directory listings, which were read from the repository to update the cached folders.
+     * Only intended for testing purpose.
+     * @return The number of directory listings since the creation of this instance.
+     */
+    synchronized long getDirectoryReads() {
+        return directoryReads;
+    }
+    
+    /**
+     * Returns the number of times the latest revision was requested to bring the cached folders up to date.
+     * Only intended for testing purpose.
+     * @return The number of revision checks since the creation of this instance.
+     */
+    synchronized long getRevisionChecks() {
+        return revisionChecks;
+    }
+    
     /**
      * Returns the Latest revision of the repository.
      * Only intended for testing purpose to check if repository has changed.
@@ -196,55 +312,135 @@ public class Repository {
      *     (see {@link org.tmatesoft.svn.core.SVNAuthenticationException})
      */
     long lastRevision() throws SVNException {
-        SVNRepository readOnlyConnection = loadRepository();
-        long lastRevision = 0;
-        try {
-            lastRevision = readOnlyConnection.getLatestRevision();
-        } finally {
-            readOnlyConnection.closeSession();
+        return sessions.execute(SVNRepository::getLatestRevision);
+    }
+    
+    /**
+     * Creates all planned folders with <b>one</b> commit, i.e., one new revision.
+     * @param plan The folders to create, won't create a revision if the plan is empty.
+     * @throws SVNException If a failure occurred while connecting to a repository, nothing will be created in this
+     *     case
+     */
+    private void applyPlan(FolderPlan plan) throws SVNException {
+        if (plan.isEmpty()) {
+            return;
         }
-        return lastRevision;
+        
+        SVNCommitInfo info = sessions.execute(con -> commit(con, plan, null));
+        updateFolderTree(plan, info.getNewRevision());
+        LOGGER.debug("Created {} folders in {} assignments", plan.size(), plan.getAssignments().size());
     }
     
     /**
-     * Creates folders for assignment and groups if the assignment folder doesn`t exist yet.
-     * @param updateAssignment <tt>true</tt> if an existing assignment shall be updated, <tt>false</tt>otherwise.
-     * @param assignment The name of the assignment that is created/updated.
-     * @param groups The name of the groups for which sub folders shall be created.
-     * @throws SVNException If a failure occurred while connecting to a repository
+     * Creates all planned folders with one commit editor.
+     * @param con The session to use.
+     * @param plan The folders to create, must not be empty.
+     * @param listener Optional, will be informed every {@value #PROGRESS_INTERVAL} folders, may be <tt>null</tt>.
+     * @return The information about the new revision.
+     * @throws SVNException If a failure occurred while connecting to a repository, nothing will be created in this
+     *     case
      */
-    private void createFolders(boolean updateAssignment, String assignment, String... groups) throws SVNException {
-        SVNRepository con = loadRepository();
+    private SVNCommitInfo commit(SVNRepository con, FolderPlan plan, ProgressListener listener)
+        throws SVNException {
+        
+        int created = 0;
+        SVNProperties commitProperties = new SVNProperties();
+        if (null != author && !author.isEmpty()) {
+            commitProperties.put(SVNRevisionProperty.AUTHOR, author);
+        }
+        ISVNEditor svnEditor = con.getCommitEditor(commitMessage(plan), null, false, commitProperties, null);
         try {
-            String msg = updateAssignment ? "Update " + assignment : "Initialize " + assignment;
-            SVNProperties commitProperties = new SVNProperties();
-            if (null != author && !author.isEmpty()) {
-                commitProperties.put(SVNRevisionProperty.AUTHOR, author);
-            }
-            ISVNEditor svnEditor = con.getCommitEditor(msg, null, false, commitProperties, null);
-            
             LOGGER.debug("Open root");
             svnEditor.openRoot(LATEST_REVISION);
-          
-            // We checked that assignment already exists -> No need to re-create it
-            if (!updateAssignment) {
-                LOGGER.debug("Create folder for assignment: {}", assignment);
-                svnEditor.addDir(assignment, null, LATEST_REVISION);
+            for (String assignment : plan.getAssignments()) {
+                if (plan.isNewAssignment(assignment)) {
+                    LOGGER.debug("Create folder for assignment: {}", assignment);
+                    svnEditor.addDir(assignment, null, LATEST_REVISION);
+                    created = reportProgress(listener, created, plan.size());
+                } else {
+                    // We checked that assignment already exists -> No need to re-create it
+                    svnEditor.openDir(assignment, LATEST_REVISION);
+                }
+                
+                // Add missing groups inside of assignment
+                LOGGER.debug("Create group folders for assignment: {}", assignment);
+                for (String group : plan.getGroups(assignment)) {
+                    svnEditor.addDir(toPath(assignment, group), null, LATEST_REVISION);
+                    svnEditor.closeDir();
+                    created = reportProgress(listener, created, plan.size());
+                }
                 svnEditor.closeDir();
             }
-            
-            // Add missing groups inside of assignment
-            LOGGER.debug("Create group folders for assignment: {}", assignment);
-            for (int i = 0; i < groups.length; i++) {
-                svnEditor.addDir(toPath(assignment, groups[i]), null, LATEST_REVISION);         
-                svnEditor.closeDir();
+            svnEditor.closeDir();
+            if (null != listener && created % PROGRESS_INTERVAL != 0) {
+                listener.progress(created, plan.size());
             }
             LOGGER.debug("Write delta");
-            svnEditor.closeEdit();
-        } finally {
-            con.closeSession();
+            return svnEditor.closeEdit();
+        } catch (SVNException e) {
+            // Discard the transaction, the next update plans the missing folders again
+            svnEditor.abortEdit();
+            throw e;
+        }
+    }
+    
+    /**
+     * Counts a folder, which was added to a commit, and informs the listener every {@value #PROGRESS_INTERVAL}
+     * folders.
+     * @param listener The listener to inform, may be <tt>null</tt>.
+     * @param created The number of folders added before.
+     * @param total The number of folders to create.
+     * @return The number of folders added so far, including the new one.
+     */
+    private static int reportProgress(ProgressListener listener, int created, int total) {
+        created++;
+        if (null != listener && created % PROGRESS_INTERVAL == 0) {
+            listener.progress(created, total);
+        }
+        return created;
+    }
+    
+    /**
+     * Applies an own commit to the cached {@link FolderTree}, to avoid reading the folders again.
+     * @param plan The created folders.
+     * @param newRevision The revision created by the commit.
+     */
+    private void updateFolderTree(FolderPlan plan, long newRevision) {
+        if (null != folderTree && newRevision == folderTree.getRevision() + 1) {
+            for (String assignment : plan.getAssignments()) {
+                if (plan.isNewAssignment(assignment)) {
+                    folderTree.setAssignment(assignment, plan.getGroups(assignment));
+                } else {
+                    for (String group : plan.getGroups(assignment)) {
+                        folderTree.addGroup(assignment, group);
+                    }
+                }
+            }
+            folderTree.setRevision(newRevision);
+        }
+        // Otherwise, another client committed in between -> the tree is updated from the log at the next read
+    }
+    
+    /**
+     * Creates the log message for the commit of a plan.
+     * @param plan The folders to create.
+     * @return <tt>Initialize/Update &lt;assignment&gt;</tt> if only one assignment is affected, otherwise a summary
+     *     of all affected assignments.
+     */
+    private static String commitMessage(FolderPlan plan) {
+        StringBuilder msg = new StringBuilder();
+        if (plan.getAssignments().size() > 1) {
+            msg.append("Update ").append(plan.getAssignments().size()).append(" assignments: ");
+        }
+        boolean first = true;
+        for (String assignment : plan.getAssignments()) {
+            if (!first) {
+                msg.append(", ");
+            }
+            msg.append(plan.isNewAssignment(assignment) ? "Initialize " : "Update ").append(assignment);
+            first = false;
         }
-        LOGGER.debug("Finished");
+        return msg.toString();
     }
     
     /**
@@ -258,6 +454,67 @@ public class Repository {
         return assignmentName + "/" + groupName;
     }
     
+    /**
+     * Checks if for an assignment and the groups that belongs to the assignment, already exists folder or if they need
+     * to be created.
+     * @param tree The current folders of the repository.
+     * @param assignment is checked if there already exists a folder for it or if a folder must be created.
+     * @param plan The plan to add the missing folders to, will be changed as side effect.
+     */
+    private static void planAssignment(FolderTree tree, ManagedAssignment assignment, FolderPlan plan) {
+        String assignmentName = assignment.getName();
+        Set<String> existingGroups = tree.getGroups(assignmentName);
+        if (null == existingGroups || plan.isNewAssignment(assignmentName)) {
+            // If folders doesn`t exists create folders for assignment and groups (also for a second assignment with the
+            // same name, which shares the folder)
+            plan.addAssignment(assignmentName);
+            for (String group : assignment.getAllGroupNames()) {
+                plan.addGroup(assignmentName, group);
+            }
+        } else {
+            LOGGER.debug("Folder of assignment \"{}\" already existing", assignmentName);
+            for (Group group : assignment) {
+                if (!existingGroups.contains(group.getName())) {
+                    plan.addGroup(assignmentName, group.getName());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Plans all folders, which are missing for the given assignments. The existing folders are taken from the cached
+     * {@link FolderTree}, i.e., at most one directory listing per changed assignment is read.
+     * @param assignments The assignments to reflect in the repository.
+     * @return The missing folders.
+     * @throws SVNException If a failure occurred while connecting to a repository
+     */
+    private FolderPlan plan(Collection<ManagedAssignment> assignments) throws SVNException {
+        FolderTree tree;
+        try {
+            tree = sessions.execute(this::refreshFolderTree);
+        } catch (SVNException e) {
+            // Read the complete tree again at next call
+            folderTree = null;
+            throw e;
+        }
+        
+        return plan(tree, assignments);
+    }
+    
+    /**
+     * Plans all folders, which are missing for the given assignments in the given folders.
+     * @param tree The current folders of the repository.
+     * @param assignments The assignments to reflect in the repository.
+     * @return The missing folders.
+     */
+    private static FolderPlan plan(FolderTree tree, Collection<ManagedAssignment> assignments) {
+        FolderPlan plan = new FolderPlan();
+        for (ManagedAssignment assignment : assignments) {
+            planAssignment(tree, assignment, plan);
+        }
+        return plan;
+    }
+    
     /**
      * Checks if for an assignment and the groups that belongs to the assignment, already exists folder or if they need
      * to be created.
@@ -266,29 +523,11 @@ public class Repository {
      * @throws SVNException If a failure occurred while connecting to a repository
      */
     protected synchronized void createOrModifyAssignment(ManagedAssignment assignment) throws SVNException {
-        SVNRepository repos = loadRepository();
+        Lock lock = PathLockManager.getInstance().lock(file.toPath());
         try {
-            List<String> newSubmisionFolders = new ArrayList<>();
-            if (pathExists(repos, assignment.getName())) {
-                // If folders exists do nothing
-                LOGGER.debug("Folder of assignment \"{}\" already existing", assignment.getName());
-                for (Group group : assignment) {
-                    if (!pathExists(repos, toPath(assignment.getName(), group.getName()))) {
-                        newSubmisionFolders.add(group.getName());
-                    }
-                }
-                repos.closeSession();
-                // only create folders if newGroups is not empty
-                if (!newSubmisionFolders.isEmpty()) {
-                    String[] groupArray = newSubmisionFolders.toArray(new String[0]);
-                    createFolders(true, assignment.getName(), groupArray);
-                }
-            } else {
-                // If folders doesn`t exists create folders for assignment and groups
-                createFolders(false, assignment.getName(), assignment.getAllGroupNames());
-            }
+            applyPlan(plan(Collections.singletonList(assignment)));
         } finally {
-            repos.closeSession();
+            lock.unlock();
         }
     }
     
@@ -304,38 +543,85 @@ public class Repository {
          * Collect unused folders (through createOrModify should only new folders be created 
          * -> this may be called before
          */
-        Set<String> folders = listFolders();
+        FolderTrie folders = new FolderTrie();
         
-        for (ManagedAssignment assignment : course.getAssignments()) {
-            // Create new folders
-            createOrModifyAssignment(assignment);
+        // Other courses may use the same repository -> serialize planning and commit
+        Lock lock = PathLockManager.getInstance().lock(file.toPath());
+        try {
+            FolderTree tree = readFolderTree();
+            FolderPlan plan;
+            if (null != tree) {
+                for (String assignment : tree.getAssignments()) {
+                    folders.addExisting(assignment);
+                    for (String group : tree.getGroups(assignment)) {
+                        folders.addExisting(assignment, group);
+                    }
+                }
+                // Plan on the same revision, without asking the repository again
+                plan = plan(tree, course.getAssignments());
+            } else {
+                // Try once more, fails if the repository is still not available
+                plan = plan(course.getAssignments());
+            }
             
-            // Delete all created folders from blacklist
+            // Create all new folders with one commit
+            applyPlan(plan);
+        } finally {
+            lock.unlock();
+        }
+        
+        for (ManagedAssignment assignment : course.getAssignments()) {
+            // Created folders are not blacklisted
             String assignmentName = assignment.getName();
-            folders.remove(assignmentName);
+            folders.addExpected(assignmentName);
             for (Group group : assignment) {
-                folders.remove(assignmentName + "/" + group.getName());
+                folders.addExpected(assignmentName, group.getName());
             }
-            
         }
-        // Shrink list: If list contains top level folders, remove all nested folders
-        Set<String> top = new HashSet<>();
-        folders.stream()
-            .filter(s -> !s.contains("/"))
-            .forEach(top::add);
-        if (!top.isEmpty()) {
-            Iterator<String> itr = folders.iterator();
-            while (itr.hasNext()) {
-                String folder = itr.next();
-                if (folder.contains("/")) {
-                    String parent = folder.split("/")[0];
-                    if (top.contains(parent)) {
-                        itr.remove();
-                    }
-                }
+        
+        // Only the top level folder is listed, if a complete assignment is unused
+        return folders.getObsoleteFolders();
+    }
+    
+    /**
+     * Bulk provisioning, e.g., at the beginning of a semester: Creates all missing folders of the course with one
+     * commit and reports the progress. In contrast to {@link #updateRepository(Course)}, unused folders are not
+     * determined.
+     * @param course The course to create the folders for.
+     * @param listener Will be informed about the progress, may be <tt>null</tt>.
+     * @return The number of created folders, 0 if all folders exist already.
+     * @throws SVNException If a failure occurred while connecting to a repository, nothing will be created in this
+     *     case
+     */
+    public synchronized int provision(Course course, ProgressListener listener) throws SVNException {
+        Lock lock = PathLockManager.getInstance().lock(file.toPath());
+        try {
+            FolderPlan plan = plan(course.getAssignments());
+            if (!plan.isEmpty()) {
+                LOGGER.info("Provisioning {} folders in {} assignments", plan.size(), plan.getAssignments().size());
+                SVNCommitInfo info = sessions.execute(con -> commit(con, plan, listener));
+                updateFolderTree(plan, info.getNewRevision());
             }
+            return plan.size();
+        } finally {
+            lock.unlock();
         }
-        
-        return folders;
+    }
+    
+    /**
+     * Closes the pooled sessions to the repository. Should be called once the repository is no longer used.
+     */
+    @Override
+    public void close() {
+        sessions.close();
+    }
+    
+    /**
+     * Returns the session pool of this repository.
+     * Only intended for testing purpose.
+     * @return The pool of sessions.
+     */
+    SessionPool getSessions() {
+        return sessions;
     }
 }
@@ -0,0 +1,141 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.auth.ISVNAuthenticationManager;
+import org.tmatesoft.svn.core.wc.SVNWCUtil;
+import org.tmatesoft.svn.core.wc.admin.SVNAdminClient;
+
+import net.ssehub.rightsmanagement.PathLockManager;
+
+/**
+ * Maintenance of a FSFS repository: Packs completed shards of revision files and revision properties into single
+ * files, which reduces the number of files in the repository and improves the read performance.<p>
+ * Packing runs under the same lock as the updates of the repository (see {@link PathLockManager}), i.e., it is never
+ * executed in parallel to an update of this service. Commits of other clients are handled by FSFS.
+ * @author El-Sharkawy
+ *
+ */
+public class RepositoryMaintenance {
+
+    private static final Logger LOGGER = LogManager.getLogger(RepositoryMaintenance.class);
+
+    private final File file;
+
+    /**
+     * Creates the maintenance for a repository.
+     * @param path The location of the repository.
+     */
+    public RepositoryMaintenance(String path) {
+        this.file = new File(path);
+    }
+
+    /**
+     * Returns the location of the repository.
+     * @return The path of the repository as configured.
+     */
+    public String getPath() {
+        return file.getPath();
+    }
+
+    /**
+     * Returns the time of the latest commit, which is the last time FSFS changed <tt>db/current</tt>.
+     * @return The time of the latest commit in milliseconds since the epoch, <tt>0</tt> if the repository does not
+     *     exist.
+     */
+    public long getLastCommitTime() {
+        return new File(file, "db/current").lastModified();
+    }
+
+    /**
+     * Checks whether the repository can be packed by SVNKit: The repository must use a sharded layout with physical
+     * addressing (repositories created by <tt>svnadmin</tt> 1.9 or newer use logical addressing by default).
+     * @return <tt>true</tt> if the repository can be packed, <tt>false</tt> if it cannot or if it does not exist.
+     * @throws IOException If the format of the repository cannot be read.
+     */
+    public boolean isPackable() throws IOException {
+        boolean packable = false;
+        File format = new File(file, "db/format");
+        if (format.isFile()) {
+            List<String> lines = Files.readAllLines(format.toPath(), StandardCharsets.UTF_8);
+            boolean sharded = false;
+            boolean logical = false;
+            for (String line : lines) {
+                sharded |= line.startsWith("layout sharded");
+                logical |= line.equals("addressing logical");
+            }
+            packable = sharded && !logical;
+        }
+        return packable;
+    }
+
+    /**
+     * Counts the files of revisions and revision properties.
+     * @return The number of files in <tt>db/revs</tt> and <tt>db/revprops</tt>.
+     * @throws IOException If the folders cannot be read.
+     */
+    long countRevisionFiles() throws IOException {
+        return countFiles(new File(file, "db/revs").toPath()) + countFiles(new File(file, "db/revprops").toPath());
+    }
+
+    /**
+     * Counts all regular files inside of a folder (recursively).
+     * @param folder The folder to count the files of.
+     * @return The number of files, <tt>0</tt> if the folder does not exist.
+     * @throws IOException If the folder cannot be read.
+     */
+    private static long countFiles(Path folder) throws IOException {
+        long nFiles = 0;
+        if (Files.isDirectory(folder)) {
+            try (Stream<Path> files = Files.walk(folder)) {
+                nFiles = files.filter(Files::isRegularFile).count();
+            }
+        }
+        return nFiles;
+    }
+
+    /**
+     * Packs all completed shards of the repository. Blocks until running updates of the repository are finished.
+     * @return The statistics of the run: <tt>durationMillis</tt>, <tt>filesBefore</tt> and <tt>filesAfter</tt>
+     *     (files of revisions and revision properties).
+     * @throws IOException If the repository could not be packed, e.g., because it does not exist or is not
+     *     {@link #isPackable()}.
+     */
+    public Map<String, Long> pack() throws IOException {
+        Map<String, Long> report = new LinkedHashMap<>();
+        Lock lock = PathLockManager.getInstance().lock(file.toPath());
+        try {
+            long start = System.currentTimeMillis();
+            long filesBefore = countRevisionFiles();
+            SVNAdminClient admin = new SVNAdminClient((ISVNAuthenticationManager) null,
+                SVNWCUtil.createDefaultOptions(true));
+            try {
+                admin.doPack(file);
+            } catch (SVNException e) {
+                throw new IOException("Could not pack " + file.getAbsolutePath(), e);
+            }
+            long filesAfter = countRevisionFiles();
+            report.put("durationMillis", System.currentTimeMillis() - start);
+            report.put("filesBefore", filesBefore);
+            report.put("filesAfter", filesAfter);
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.info("Packed {} in {} ms, files of revisions: {} -> {}", file.getAbsolutePath(),
+            report.get("durationMillis"), report.get("filesBefore"), report.get("filesAfter"));
+
+        return report;
+    }
+}
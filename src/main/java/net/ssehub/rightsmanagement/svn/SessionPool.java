@@ -0,0 +1,204 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+
+/**
+ * Keeps opened sessions to a repository, to avoid opening the repository (format, configuration, caches of SVNKit)
+ * for each operation.<p>
+ * According to <a href="https://svnkit.com/javadoc/org/tmatesoft/svn/core/io/SVNRepository.html">
+ * https://svnkit.com/javadoc/org/tmatesoft/svn/core/io/SVNRepository.html</a> a session is <b>not</b> thread safe,
+ * thus, each session is used by at most one operation at a time. Sessions which failed are closed instead of being
+ * reused, sessions which were idle for a longer time are checked before they are reused.
+ * @author El-Sharkawy
+ *
+ */
+class SessionPool implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(SessionPool.class);
+
+    /**
+     * Sessions idle for a longer time (in milliseconds) are checked before they are reused.
+     */
+    private static final long VALIDATION_INTERVAL = 30 * 1000L;
+
+    private final SVNURL url;
+    private final int maxIdle;
+
+    // Guarded by this
+    private final Deque<IdleSession> idle = new ArrayDeque<>();
+    private long openedSessions;
+    private long reusedSessions;
+    private boolean closed;
+
+    /**
+     * An operation on the repository.
+     * @param <T> The result of the operation.
+     */
+    interface Operation<T> {
+
+        /**
+         * Executes the operation.
+         * @param session The session to use, must not be closed or passed to other threads.
+         * @return The result of the operation.
+         * @throws SVNException If a failure occurred while accessing the repository.
+         */
+        T run(SVNRepository session) throws SVNException;
+    }
+
+    /**
+     * A pooled session, which is currently not used.
+     */
+    private static class IdleSession {
+
+        private final SVNRepository session;
+        private final long since;
+
+        /**
+         * Creates a pooled session.
+         * @param session The session.
+         * @param since The time when the session was returned to the pool, in milliseconds.
+         */
+        private IdleSession(SVNRepository session, long since) {
+            this.session = session;
+            this.since = since;
+        }
+    }
+
+    /**
+     * Creates a new pool, sessions are opened on demand.
+     * @param url The location of the repository.
+     * @param maxIdle The maximum number of sessions, which are kept open while they are not used.
+     */
+    SessionPool(SVNURL url, int maxIdle) {
+        this.url = url;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Executes an operation with a pooled session. The session is returned to the pool if the operation succeeds and
+     * closed otherwise, since it may be in an undefined state.
+     * @param <T> The result of the operation.
+     * @param operation The operation to execute.
+     * @return The result of the operation.
+     * @throws SVNException If a session could not be opened or the operation failed.
+     */
+    <T> T execute(Operation<T> operation) throws SVNException {
+        SVNRepository session = acquire();
+        boolean healthy = false;
+        try {
+            T result = operation.run(session);
+            healthy = true;
+            return result;
+        } finally {
+            release(session, healthy);
+        }
+    }
+
+    /**
+     * Takes a session from the pool or opens a new one.
+     * @return A session, which is used exclusively by the caller.
+     * @throws SVNException If no session could be opened.
+     */
+    private SVNRepository acquire() throws SVNException {
+        SVNRepository session = null;
+        while (null == session) {
+            IdleSession candidate;
+            synchronized (this) {
+                candidate = idle.pollFirst();
+            }
+            if (null == candidate) {
+                session = SVNRepositoryFactory.create(url);
+                synchronized (this) {
+                    openedSessions++;
+                }
+            } else if (System.currentTimeMillis() - candidate.since < VALIDATION_INTERVAL || isHealthy(candidate)) {
+                session = candidate.session;
+                synchronized (this) {
+                    reusedSessions++;
+                }
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Checks whether an idle session is still usable, closes it otherwise.
+     * @param candidate The session to check.
+     * @return <tt>true</tt> if the session may be used.
+     */
+    private boolean isHealthy(IdleSession candidate) {
+        boolean healthy = false;
+        try {
+            candidate.session.getLatestRevision();
+            healthy = true;
+        } catch (SVNException e) {
+            LOGGER.warn("Closing broken session to {}: {}", url, e.getMessage());
+            candidate.session.closeSession();
+        }
+        return healthy;
+    }
+
+    /**
+     * Returns a session to the pool.
+     * @param session The session, which is no longer used by the caller.
+     * @param healthy <tt>false</tt> if an operation failed, the session will be closed in this case.
+     */
+    private void release(SVNRepository session, boolean healthy) {
+        boolean pooled = false;
+        if (healthy) {
+            synchronized (this) {
+                if (!closed && idle.size() < maxIdle) {
+                    // LIFO: Reuse the most recently used session, surplus sessions remain idle
+                    idle.offerFirst(new IdleSession(session, System.currentTimeMillis()));
+                    pooled = true;
+                }
+            }
+        }
+        if (!pooled) {
+            session.closeSession();
+        }
+    }
+
+    /**
+     * Returns the number of sessions opened by the pool.
+     * Only intended for testing purpose.
+     * @return The number of opened sessions.
+     */
+    synchronized long getOpenedSessions() {
+        return openedSessions;
+    }
+
+    /**
+     * Returns the number of operations, which reused a pooled session.
+     * Only intended for testing purpose.
+     * @return The number of reused sessions.
+     */
+    synchronized long getReusedSessions() {
+        return reusedSessions;
+    }
+
+    /**
+     * Closes all idle sessions, sessions currently in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        Deque<IdleSession> sessions;
+        synchronized (this) {
+            closed = true;
+            sessions = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        for (IdleSession session : sessions) {
+            session.session.closeSession();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class contains the test cases that belongs to {@link AccessFile}.
+ *
+ * @author El-Sharkawy
+ *
+ */
+public class AccessFileTests {
+
+    private Path path;
+
+    /**
+     * Creates a temporary location for the access file.
+     * @throws IOException If the temporary folder cannot be created
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        path = Files.createTempDirectory("AccessFileTests").resolve("svn.access");
+    }
+
+    /**
+     * Removes the temporary access file.
+     */
+    @AfterEach
+    public void tearDown() {
+        File folder = path.getParent().toFile();
+        for (File file : folder.listFiles()) {
+            file.delete();
+        }
+        folder.delete();
+    }
+
+    /**
+     * Writes the content via {@link AccessFile#openWriter()}.
+     * @param file The access file to write.
+     * @param content The content to write.
+     * @throws IOException If writing fails
+     */
+    private static void write(AccessFile file, String content) throws IOException {
+        try (Writer writer = file.openWriter()) {
+            writer.append(content);
+        }
+    }
+
+    /**
+     * Tests that the file is created at first and only replaced when the content changes.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testOnlyChangedContentIsWritten() throws IOException {
+        AccessFile file = new AccessFile(path);
+
+        write(file, "[groups]");
+        Assertions.assertEquals("[groups]", Files.readString(path));
+        Assertions.assertEquals(1, file.getWrites());
+
+        write(file, "[groups]");
+        Assertions.assertEquals(1, file.getWrites());
+        Assertions.assertEquals(1, file.getSkippedWrites());
+
+        write(file, "[groups]\ntutors = tutor");
+        Assertions.assertEquals("[groups]\ntutors = tutor", Files.readString(path));
+        Assertions.assertEquals(2, file.getWrites());
+        Assertions.assertFalse(Files.exists(path.resolveSibling("svn.access.tmp")));
+    }
+
+    /**
+     * Tests that an existing file with the same content is not replaced after a restart of the service.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testExistingFileIsFingerprinted() throws IOException {
+        Files.writeString(path, "[groups]\n\u00C4nderung", StandardCharsets.UTF_8);
+
+        AccessFile file = new AccessFile(path);
+        write(file, "[groups]\n\u00C4nderung");
+        Assertions.assertEquals(0, file.getWrites());
+        Assertions.assertEquals(1, file.getSkippedWrites());
+    }
+
+    /**
+     * Tests that discarded content does not replace the access file.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testDiscardedContentIsNotWritten() throws IOException {
+        AccessFile file = new AccessFile(path);
+        write(file, "[groups]");
+
+        AccessFile.StagingChannel channel = file.openChannel();
+        channel.write(ByteBuffer.wrap("[gro".getBytes(StandardCharsets.UTF_8)));
+        channel.discard();
+        channel.close();
+
+        Assertions.assertFalse(channel.isOpen());
+        Assertions.assertThrows(ClosedChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+        Assertions.assertEquals("[groups]", Files.readString(path));
+        Assertions.assertEquals(1, file.getWrites());
+        Assertions.assertFalse(Files.exists(path.resolveSibling("svn.access.tmp")));
+    }
+
+    /**
+     * Tests that changes by others are detected and overwritten.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testExternalChangeIsDetected() throws IOException {
+        AccessFile file = new AccessFile(path);
+        write(file, "[groups]");
+        Files.writeString(path, "[groups]\nmanually = changed");
+
+        write(file, "[groups]");
+        Assertions.assertEquals("[groups]", Files.readString(path));
+        Assertions.assertEquals(2, file.getWrites());
+    }
+
+}
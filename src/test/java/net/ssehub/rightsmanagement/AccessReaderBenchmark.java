@@ -0,0 +1,57 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Measures the time to read a large access file with the {@link AccessReader}.<p>
+ * Tagged as benchmark, thus, not executed during the regular build. Run it manually to measure the read times.
+ * @author El-Sharkawy
+ *
+ */
+@Tag("benchmark")
+public class AccessReaderBenchmark {
+
+    private static final int N_STUDENTS = 10000;
+    private static final int N_ASSIGNMENTS = 10;
+    private static final int N_RUNS = 20;
+
+    /**
+     * Measures the time to read an access file written by the {@link AccessWriter}.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void readWrittenFile() throws IOException {
+        Course course = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AccessWriter writer = new AccessWriter(Channels.newChannel(out))) {
+            writer.write(course, "submissions", null);
+        }
+        byte[] content = out.toByteArray();
+
+        long time = 0;
+        AccessModel model = null;
+        // First half of the runs is used as warm up
+        for (int i = 0; i < 2 * N_RUNS; i++) {
+            long start = System.nanoTime();
+            model = AccessReader.read(new ByteArrayInputStream(content));
+            if (i >= N_RUNS) {
+                time += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("%d students, %d assignments, %,d bytes, %,d sections%n", N_STUDENTS, N_ASSIGNMENTS,
+            content.length, model.getSections().size());
+        System.out.printf("AccessReader: %,8d us%n", time / N_RUNS / 1000);
+        Assertions.assertEquals(N_STUDENTS * N_ASSIGNMENTS + 1, model.getSections().size());
+    }
+
+}
@@ -0,0 +1,148 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * This class contains the test cases that belongs to {@link AccessReader} and {@link AccessModel}.
+ *
+ * @author El-Sharkawy
+ *
+ */
+public class AccessReaderTests {
+
+    private static final File TEST_FOLDER = new File(AllTests.TEST_FOLDER, "AccessWriter");
+
+    /**
+     * Parses an access file given as string.
+     * @param content The content of the access file.
+     * @return The parsed model.
+     * @throws IOException Not expected during test
+     */
+    private static AccessModel read(String content) throws IOException {
+        return AccessReader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Tests that an access file written by the {@link AccessWriter} is read completely.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testReadWrittenFile() throws IOException {
+        File file = new File(TEST_FOLDER, "AccessForDeprecatedFolderWithTutors_access");
+        AccessModel model = AccessReader.read(file.toPath());
+
+        Assertions.assertEquals(Set.of("Tutors"), model.getGroups());
+        Assertions.assertEquals(Set.of("tutor1", "tutor2"), model.getGroupMembers("Tutors"));
+        Assertions.assertEquals(Arrays.asList("submissionSystem:/", "submissionSystem:/Exam/musterma",
+            "submissionSystem:/DeprecatedAssignment", "submissionSystem:/RunningAssignment/DeprecatedGroup"),
+            Arrays.asList(model.getSections().toArray()));
+        Assertions.assertEquals(Map.of("*", "", "@Tutors", "rw", "musterma", "r"),
+            model.getEntries("submissionSystem:/Exam/musterma"));
+        Assertions.assertEquals(Set.of("tutor1", "tutor2", "musterma"), model.getUsers());
+
+        // Rights, also inherited ones
+        Assertions.assertEquals("r", model.getRightsAsString("submissionSystem", "/Exam/musterma", "musterma"));
+        Assertions.assertEquals("r", model.getRightsAsString("submissionSystem", "/Exam/musterma/a.java", "musterma"));
+        Assertions.assertEquals("", model.getRightsAsString("submissionSystem", "/Exam/musterma", "other"));
+        Assertions.assertEquals("rw", model.getRightsAsString("submissionSystem", "/Exam/musterma", "tutor1"));
+        Assertions.assertEquals("r", model.getRightsAsString("submissionSystem", "/Exam", "musterma"));
+        Assertions.assertEquals("", model.getRightsAsString("submissionSystem", "/DeprecatedAssignment/x", "musterma"));
+        Assertions.assertEquals("", model.getRightsAsString("otherRepository", "/Exam", "musterma"));
+    }
+
+    /**
+     * Tests the features of the authz format, which are not used by the {@link AccessWriter}: comments, nested groups,
+     * aliases, inversions, special tokens, sections without repository, and glob sections.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testAuthzFeatures() throws IOException {
+        AccessModel model = read("\uFEFF# Comment\r\n"
+            + "[aliases]\r\n"
+            + "boss = j\u00FCrgen\r\n"
+            + "[groups]\r\n"
+            + "tutors = tutor1 ,tutor2\r\n"
+            + "staff = @tutors, &boss\r\n"
+            + "\r\n"
+            + "[/]\r\n"
+            + "$authenticated = r\r\n"
+            + "[repo:/Homework]\r\n"
+            + "~@staff = \r\n"
+            + "@staff = rw\r\n"
+            + "[:glob:repo:/Homework/*/review]\r\n"
+            + "* = \r\n"
+            + "&boss = r\r\n");
+
+        Assertions.assertEquals(Set.of("tutor1", "tutor2", "j\u00FCrgen"), model.getGroupMembers("staff"));
+        Assertions.assertEquals(Set.of(), model.getGroupMembers("undefined"));
+        Assertions.assertEquals(Set.of("tutor1", "tutor2", "j\u00FCrgen"), model.getUsers());
+        Assertions.assertEquals(Arrays.asList("repo:/Homework/*/review"), model.getGlobSections());
+
+        Assertions.assertEquals(AccessModel.READ, model.getRights("repo", "/Exam", "student"));
+        Assertions.assertEquals(AccessModel.NONE, model.getRights("repo", "/Exam", null));
+        Assertions.assertEquals(AccessModel.NONE, model.getRights("repo", "/Homework/Group1", "student"));
+        Assertions.assertEquals(AccessModel.READ | AccessModel.WRITE,
+            model.getRights("repo", "/Homework/Group1", "tutor2"));
+        Assertions.assertEquals(AccessModel.NONE, model.getRights("repo", "/Homework/Group1/review/a.txt", "tutor2"));
+        Assertions.assertEquals(AccessModel.READ, model.getRights("repo", "/Homework/Group1/review", "j\u00FCrgen"));
+        Assertions.assertEquals(AccessModel.READ, model.getRights("other", "/Homework", "student"));
+    }
+
+    /**
+     * Tests that the content written by the {@link AccessWriter} is read back with the same rights for all members
+     * of all groups, also for lines, which are longer than the internal buffer.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        Course course = TestUtils.createCourse(5000, 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AccessWriter writer = new AccessWriter(Channels.newChannel(out))) {
+            writer.setCompact(true);
+            writer.write(course, "repo", null);
+        }
+        // Tutors and 5000 single student sections per assignment
+        AccessModel model = AccessReader.read(new ByteArrayInputStream(out.toByteArray()));
+        Assertions.assertEquals(1 + 3 * 5000, model.getSections().size());
+        Assertions.assertEquals(5002, model.getUsers().size());
+        Assertions.assertEquals("rw", model.getRightsAsString("repo", "/Assignment 1/student42", "student42"));
+        Assertions.assertEquals("r", model.getRightsAsString("repo", "/Assignment 1", "student42"));
+        Assertions.assertEquals("", model.getRightsAsString("repo", "/Assignment 1/student42", "student43"));
+        Assertions.assertEquals("rw", model.getRightsAsString("repo", "/Assignment 1/student42", "tutor2"));
+    }
+
+    /**
+     * Tests that repeated subjects of a section replace the previous entry at its position, also in large sections.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testRepeatedSubjectsAreReplaced() throws IOException {
+        StringBuilder content = new StringBuilder("[repo:/Homework]\n");
+        for (int i = 0; i < 10000; i++) {
+            content.append("student").append(i).append(" = r\n");
+        }
+        content.append("student1 = rw\n");
+        AccessModel model = read(content.toString());
+
+        Map<String, String> entries = model.getEntries("repo:/Homework");
+        Assertions.assertEquals(10000, entries.size());
+        Assertions.assertEquals("student1", entries.keySet().toArray()[1]);
+        Assertions.assertEquals("rw", entries.get("student1"));
+        Assertions.assertEquals("rw", model.getRightsAsString("repo", "/Homework", "student1"));
+        Assertions.assertEquals("r", model.getRightsAsString("repo", "/Homework", "student9999"));
+    }
+
+}
@@ -0,0 +1,168 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Compares the {@link AccessWriter} with the {@link LegacyAccessWriter}.<p>
+ * Tagged as benchmark, thus, not executed during the regular build. Run it manually to compare the write times.
+ * @author El-Sharkawy
+ *
+ */
+@Tag("benchmark")
+public class AccessWriterBenchmark {
+
+    private static final int N_STUDENTS = 10000;
+    private static final int N_ASSIGNMENTS = 10;
+    private static final int N_RUNS = 20;
+    private static final int N_PARALLEL_STUDENTS = 2000;
+    private static final int N_PARALLEL_ASSIGNMENTS = 60;
+
+    /**
+     * Measures the time to write an access file with both writers.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void compareWithLegacyWriter() throws IOException {
+        Course course = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+        File file = File.createTempFile("AccessWriterBenchmark", ".access");
+        file.deleteOnExit();
+
+        long legacyTime = 0;
+        long newTime = 0;
+        // First half of the runs is used as warm up
+        for (int i = 0; i < 2 * N_RUNS; i++) {
+            long start = System.nanoTime();
+            try (LegacyAccessWriter writer = new LegacyAccessWriter(new BufferedWriter(new FileWriter(file)))) {
+                writer.write(course, "submissions", null);
+            }
+            if (i >= N_RUNS) {
+                legacyTime += System.nanoTime() - start;
+            }
+
+            start = System.nanoTime();
+            try (AccessWriter writer = new AccessWriter(FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))) {
+                writer.write(course, "submissions", null);
+            }
+            if (i >= N_RUNS) {
+                newTime += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("%d students, %d assignments, %,d bytes%n", N_STUDENTS, N_ASSIGNMENTS,
+            Files.size(file.toPath()));
+        System.out.printf("LegacyAccessWriter (buffered): %,8d us%n", legacyTime / N_RUNS / 1000);
+        System.out.printf("AccessWriter:                  %,8d us%n", newTime / N_RUNS / 1000);
+        Assertions.assertTrue(Files.size(file.toPath()) > 0);
+    }
+
+    /**
+     * Measures the time to write an access file of a course with many assignments with sequential and parallel
+     * rendering of the assignments.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void compareSequentialWithParallel() throws IOException {
+        Course course = TestUtils.createCourse(N_PARALLEL_STUDENTS, N_PARALLEL_ASSIGNMENTS);
+        File file = File.createTempFile("AccessWriterBenchmark", ".access");
+        file.deleteOnExit();
+
+        long sequentialTime = 0;
+        long parallelTime = 0;
+        // First half of the runs is used as warm up
+        for (int i = 0; i < 2 * N_RUNS; i++) {
+            long start = System.nanoTime();
+            write(course, file, Integer.MAX_VALUE);
+            if (i >= N_RUNS) {
+                sequentialTime += System.nanoTime() - start;
+            }
+
+            start = System.nanoTime();
+            write(course, file, 0);
+            if (i >= N_RUNS) {
+                parallelTime += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("%d students, %d assignments, %,d bytes%n", N_PARALLEL_STUDENTS, N_PARALLEL_ASSIGNMENTS,
+            Files.size(file.toPath()));
+        System.out.printf("Sequential:                    %,8d us%n", sequentialTime / N_RUNS / 1000);
+        System.out.printf("Parallel:                      %,8d us%n", parallelTime / N_RUNS / 1000);
+        Assertions.assertTrue(Files.size(file.toPath()) > 0);
+    }
+
+    /**
+     * Measures the time to write an access file after a change of one assignment with and without a
+     * {@link FragmentCache}.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void compareWithFragmentCache() throws IOException {
+        Course course = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+        File file = File.createTempFile("AccessWriterBenchmark", ".access");
+        file.deleteOnExit();
+        FragmentCache cache = new FragmentCache(64 * 1024 * 1024);
+
+        long uncachedTime = 0;
+        long cachedTime = 0;
+        // First half of the runs is used as warm up
+        for (int i = 0; i < 2 * N_RUNS; i++) {
+            // Change one group of one assignment
+            ManagedAssignment changed = course.getAssignments().get(i % N_ASSIGNMENTS);
+            changed.iterator().next().addMembers(new User("late" + i, "late" + i, ""));
+
+            long start = System.nanoTime();
+            write(course, file, Integer.MAX_VALUE);
+            if (i >= N_RUNS) {
+                uncachedTime += System.nanoTime() - start;
+            }
+
+            start = System.nanoTime();
+            try (AccessWriter writer = new AccessWriter(FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))) {
+                writer.setFragmentCache(cache);
+                writer.write(course, "submissions", null);
+            }
+            if (i >= N_RUNS) {
+                cachedTime += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("%d students, %d assignments, %,d bytes, one assignment changed%n", N_STUDENTS,
+            N_ASSIGNMENTS, Files.size(file.toPath()));
+        System.out.printf("Without cache:                 %,8d us%n", uncachedTime / N_RUNS / 1000);
+        System.out.printf("With cache:                    %,8d us (%d hits, %d misses, %,d bytes)%n",
+            cachedTime / N_RUNS / 1000, cache.getHits(), cache.getMisses(), cache.getSize());
+        Assertions.assertTrue(cache.getHits() > 0);
+    }
+
+    /**
+     * Writes the access file of the course.
+     * @param course The course to write.
+     * @param file The file to write to.
+     * @param parallelThreshold The minimum number of groups to render the assignments in parallel.
+     * @throws IOException Not expected during test
+     */
+    private static void write(Course course, File file, int parallelThreshold) throws IOException {
+        try (AccessWriter writer = new AccessWriter(FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))) {
+            writer.setParallelThreshold(parallelThreshold);
+            writer.write(course, "submissions", null);
+        }
+    }
+
+}
@@ -1,9 +1,19 @@
 package net.ssehub.rightsmanagement;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -320,6 +330,385 @@ public class AccessWriterTests {
         Assertions.assertEquals(expected, sWriter.toString().trim());
     }
     
+    /**
+     * Tests that the {@link AccessWriter} writes byte-identical output as the {@link LegacyAccessWriter}, also for
+     * non-ASCII names, <tt>null</tt> values, and content larger than the internal buffer.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    @Test
+    public void testByteIdenticalToLegacyWriter() throws IOException {
+        // Create test data for writing
+        Course course = new Course();
+        course.setTutors(getTutorGroup("Tutors"));
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            students.add(new User("Student", "j\u00FCrgen\u20AC\uD83D\uDE00" + i, ""));
+        }
+        students.add(new User("Invalid", "broken\uD83D", ""));
+        students.add(new User("Null", null, ""));
+        ManagedAssignment hw1 = new ManagedAssignment("\u00DCbung 1", null, State.SUBMISSION, false, 0);
+        ManagedAssignment hw2 = new ManagedAssignment(null, null, State.IN_REVIEW, false, 0);
+        for (User student : students) {
+            hw1.addGroup(Group.createSingleStudentGroup(student));
+        }
+        Group group = new Group(null);
+        group.addMembers(students.get(0), students.get(1));
+        hw2.addGroup(group);
+        course.setAssignments(Arrays.asList(hw1, hw2));
+        List<String> blacklistedFolders = Arrays.asList("Deprecated", "\u00DCbung 0/Gruppe");
+        
+        // Write with both writers
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        LegacyAccessWriter legacyWriter = new LegacyAccessWriter(
+            new OutputStreamWriter(expected, StandardCharsets.UTF_8));
+        legacyWriter.write(course, "submissionSystem", blacklistedFolders);
+        legacyWriter.close();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        AccessWriter aWriter = new AccessWriter(Channels.newChannel(actual));
+        aWriter.write(course, "submissionSystem", blacklistedFolders);
+        aWriter.close();
+        
+        Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+    
+    /**
+     * Tests that rendering the assignments in parallel writes the sections in their original order, both for
+     * gathering (file) and non-gathering outputs.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    @Test
+    public void testParallelRenderingIsByteIdentical() throws IOException {
+        Course course = TestUtils.createCourse(200, 50);
+        List<ManagedAssignment> assignments = new ArrayList<>(course.getAssignments());
+        ManagedAssignment reviewed = new ManagedAssignment("Reviewed", "r", State.REVIEWED, true, 0);
+        reviewed.addGroup(getMemberGroup("Group1"));
+        reviewed.addGroup(getMemberGroup("Group2"));
+        assignments.add(3, reviewed);
+        assignments.add(7, new ManagedAssignment("Empty", "e", State.INVISIBLE, true, 0));
+        course.setAssignments(assignments);
+        List<String> blacklistedFolders = Arrays.asList("Deprecated");
+        
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        LegacyAccessWriter legacyWriter = new LegacyAccessWriter(
+            new OutputStreamWriter(expected, StandardCharsets.UTF_8));
+        legacyWriter.write(course, "submissionSystem", blacklistedFolders);
+        legacyWriter.close();
+        
+        // Non-gathering output
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        AccessWriter aWriter = new AccessWriter(Channels.newChannel(actual));
+        aWriter.setParallelThreshold(0);
+        aWriter.write(course, "submissionSystem", blacklistedFolders);
+        aWriter.close();
+        Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        
+        // Gathering output
+        Path file = Files.createTempFile("AccessWriterTests", ".access");
+        try {
+            aWriter = new AccessWriter(FileChannel.open(file, StandardOpenOption.WRITE));
+            aWriter.setParallelThreshold(0);
+            aWriter.write(course, "submissionSystem", blacklistedFolders);
+            aWriter.close();
+            Assertions.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    /**
+     * Tests that the compact mode declares teams once as group and grants exactly the same rights as the default
+     * mode.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    @Test
+    public void testCompactModeGrantsSameRights() throws IOException {
+        // Teams stay the same across the assignments, one student submits alone
+        Course course = new Course();
+        course.setTutors(getTutorGroup("Tutors"));
+        Group team1 = getMemberGroup("Team1");
+        Group team2 = getMemberGroup("Team2");
+        Group single = new Group("Single");
+        single.addMembers(new User("single", "single", ""));
+        List<ManagedAssignment> assignments = new ArrayList<>();
+        State[] states = {State.SUBMISSION, State.IN_REVIEW, State.REVIEWED, State.INVISIBLE};
+        for (int i = 0; i < states.length; i++) {
+            ManagedAssignment assignment = new ManagedAssignment("Homework" + i, String.valueOf(i), states[i], true, 0);
+            assignment.addGroup(team1);
+            assignment.addGroup(team2);
+            assignment.addGroup(single);
+            assignments.add(assignment);
+        }
+        // Same members as team 1, but different order and name
+        Group renamedTeam = new Group("Renamed");
+        renamedTeam.addMembers(new User("Team1_user2", "Team1_user2", ""), new User("Team1_user1", "Team1_user1", ""));
+        assignments.get(0).addGroup(renamedTeam);
+        course.setAssignments(assignments);
+        List<String> blacklistedFolders = Arrays.asList("Deprecated");
+        
+        StringWriter defaultOut = new StringWriter();
+        try (AccessWriter aWriter = new AccessWriter(defaultOut)) {
+            aWriter.write(course, "submissionSystem", blacklistedFolders);
+        }
+        StringWriter compactOut = new StringWriter();
+        try (AccessWriter aWriter = new AccessWriter(compactOut)) {
+            aWriter.setCompact(true);
+            aWriter.write(course, "submissionSystem", blacklistedFolders);
+        }
+        
+        String compact = compactOut.toString();
+        String team1Alias = getAlias(compact, "Team1_user1, Team1_user2");
+        String team2Alias = getAlias(compact, "Team2_user1, Team2_user2");
+        Assertions.assertNotEquals(team1Alias, team2Alias);
+        // Only two member sets are declared: Team 1 and the renamed team share their alias
+        Assertions.assertEquals(2, countOccurrences(compact, System.lineSeparator() + "m_"));
+        Assertions.assertTrue(compact.contains("@" + team1Alias + " = rw" + System.lineSeparator()));
+        Assertions.assertTrue(compact.contains("single = rw" + System.lineSeparator()));
+        Assertions.assertTrue(compact.length() < defaultOut.toString().length());
+        assertSameRights(defaultOut.toString(), compact);
+    }
+    
+    /**
+     * Returns the alias, which is declared for the given members.
+     * @param content The written access file.
+     * @param members The expected members of the alias.
+     * @return The declared alias.
+     */
+    private static String getAlias(String content, String members) {
+        String suffix = " = " + members + System.lineSeparator();
+        int end = content.indexOf(suffix);
+        Assertions.assertTrue(end > 0, "No alias declared for " + members);
+        int start = content.lastIndexOf(System.lineSeparator(), end) + System.lineSeparator().length();
+        String alias = content.substring(start, end);
+        Assertions.assertTrue(alias.startsWith("m_"), alias);
+        return alias;
+    }
+    
+    /**
+     * Counts the occurrences of a string.
+     * @param content The string to search in.
+     * @param str The string to count.
+     * @return The number of occurrences.
+     */
+    private static int countOccurrences(String content, String str) {
+        return content.split(str, -1).length - 1;
+    }
+    
+    /**
+     * Tests that the aliases of the compact mode do not change if other member sets are added or removed.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    @Test
+    public void testCompactAliasesAreStable() throws IOException {
+        Course course = new Course();
+        course.setTutors(getTutorGroup("Tutors"));
+        ManagedAssignment assignment = new ManagedAssignment("Homework", "1", State.SUBMISSION, true, 0);
+        assignment.addGroup(getMemberGroup("Team1"));
+        assignment.addGroup(getMemberGroup("Team2"));
+        course.setAssignments(new ArrayList<>(Arrays.asList(assignment)));
+        StringWriter before = new StringWriter();
+        try (AccessWriter aWriter = new AccessWriter(before)) {
+            aWriter.setCompact(true);
+            aWriter.write(course, "submissionSystem", null);
+        }
+        
+        // Team 1 is removed, a new team is added in front of team 2
+        ManagedAssignment changed = new ManagedAssignment("Homework", "1", State.SUBMISSION, true, 0);
+        changed.addGroup(getMemberGroup("Team0"));
+        changed.addGroup(getMemberGroup("Team2"));
+        course.setAssignments(new ArrayList<>(Arrays.asList(changed)));
+        StringWriter after = new StringWriter();
+        try (AccessWriter aWriter = new AccessWriter(after)) {
+            aWriter.setCompact(true);
+            aWriter.write(course, "submissionSystem", null);
+        }
+        
+        Assertions.assertEquals(getAlias(before.toString(), "Team2_user1, Team2_user2"),
+            getAlias(after.toString(), "Team2_user1, Team2_user2"));
+    }
+    
+    /**
+     * Tests that glob rules replace the per student sections of assignments, which grant no rights to the students,
+     * and that the effective rights of all existing folders remain unchanged.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    @Test
+    public void testGlobRulesGrantSameRights() throws IOException {
+        Course course = TestUtils.createCourse(50, 0);
+        List<ManagedAssignment> assignments = new ArrayList<>();
+        State[] states = {State.SUBMISSION, State.IN_REVIEW, State.REVIEWED, State.INVISIBLE};
+        for (int i = 0; i < states.length; i++) {
+            ManagedAssignment assignment = new ManagedAssignment("Homework*" + i, String.valueOf(i), states[i], false,
+                0);
+            for (User student : course.getStudents()) {
+                assignment.addGroup(Group.createSingleStudentGroup(student));
+            }
+            assignments.add(assignment);
+        }
+        assignments.add(new ManagedAssignment("Empty", "empty", State.INVISIBLE, false, 0));
+        course.setAssignments(assignments);
+        List<String> blacklistedFolders = Arrays.asList("Deprecated");
+        
+        StringWriter defaultOut = new StringWriter();
+        try (AccessWriter aWriter = new AccessWriter(defaultOut)) {
+            aWriter.write(course, "submissionSystem", blacklistedFolders);
+        }
+        StringWriter globOut = new StringWriter();
+        try (AccessWriter aWriter = new AccessWriter(globOut)) {
+            aWriter.setGlobRules(true);
+            aWriter.write(course, "submissionSystem", blacklistedFolders);
+        }
+        
+        String glob = globOut.toString();
+        Assertions.assertTrue(glob.contains("[:glob:submissionSystem:/Homework\\*1/*]"));
+        Assertions.assertTrue(glob.contains("[:glob:submissionSystem:/Homework\\*3/*]"));
+        Assertions.assertFalse(glob.contains("Empty"));
+        Assertions.assertFalse(glob.contains("[submissionSystem:/Homework*1/"));
+        Assertions.assertTrue(glob.contains("[submissionSystem:/Homework*0/student0]"));
+        
+        assertSameRights(defaultOut.toString(), glob);
+    }
+    
+    /**
+     * Checks via the {@link AccessReader} that two access files grant the same rights to all users for all paths of
+     * the expected file (and files inside these paths).
+     * @param expected The expected access file.
+     * @param actual The actual access file.
+     * @throws IOException If the files cannot be parsed.
+     */
+    private static void assertSameRights(String expected, String actual) throws IOException {
+        AccessModel expectedModel = AccessReader.read(new ByteArrayInputStream(
+            expected.getBytes(StandardCharsets.UTF_8)));
+        AccessModel actualModel = AccessReader.read(new ByteArrayInputStream(actual.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(expectedModel.getUsers(), actualModel.getUsers());
+        
+        for (String section : expectedModel.getSections()) {
+            int separator = section.indexOf(':');
+            String repository = section.substring(0, separator);
+            String path = section.substring(separator + 1);
+            for (String user : expectedModel.getUsers()) {
+                Assertions.assertEquals(expectedModel.getRightsAsString(repository, path, user),
+                    actualModel.getRightsAsString(repository, path, user), section + " " + user);
+                Assertions.assertEquals(expectedModel.getRightsAsString(repository, path + "/src/Main.java", user),
+                    actualModel.getRightsAsString(repository, path + "/src/Main.java", user));
+            }
+        }
+    }
+    
+    /**
+     * Tests that with a {@link FragmentCache} only changed assignments are rendered again and that the output is
+     * still byte-identical to the {@link LegacyAccessWriter}.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    @Test
+    public void testFragmentCacheRendersOnlyChangedAssignments() throws IOException {
+        Course course = TestUtils.createCourse(20, 5);
+        FragmentCache cache = new FragmentCache(1024 * 1024);
+        List<String> blacklistedFolders = Arrays.asList("Deprecated");
+        
+        assertCachedWriteIsIdentical(course, cache, blacklistedFolders);
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(5, cache.getMisses());
+        
+        // Unchanged course
+        assertCachedWriteIsIdentical(course, cache, blacklistedFolders);
+        Assertions.assertEquals(5, cache.getHits());
+        Assertions.assertEquals(5, cache.getMisses());
+        
+        // One member more in one group of one assignment
+        course.getAssignments().get(2).iterator().next().addMembers(new User("late", "late", ""));
+        assertCachedWriteIsIdentical(course, cache, blacklistedFolders);
+        Assertions.assertEquals(9, cache.getHits());
+        Assertions.assertEquals(6, cache.getMisses());
+        
+        // Other tutors: affects all assignments
+        course.setTutors(getTutorGroup("OtherTutors"));
+        assertCachedWriteIsIdentical(course, cache, blacklistedFolders);
+        Assertions.assertEquals(9, cache.getHits());
+        Assertions.assertEquals(11, cache.getMisses());
+    }
+    
+    /**
+     * Tests that cached and newly rendered assignments are written via the reused buffer (in chunks of the buffer
+     * size), also if an assignment is larger than the buffer, and that the parallel path writes the same content.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    @Test
+    public void testFragmentCacheWritesViaReusedBuffer() throws IOException {
+        Course course = TestUtils.createCourse(1500, 3);
+        List<String> blacklistedFolders = Arrays.asList("Deprecated");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        AccessWriter uncachedWriter = new AccessWriter(Channels.newChannel(expected));
+        uncachedWriter.write(course, "submissionSystem", blacklistedFolders);
+        uncachedWriter.close();
+        
+        FragmentCache cache = new FragmentCache(16 * 1024 * 1024);
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            List<Integer> writes = new ArrayList<>();
+            WritableByteChannel channel = Channels.newChannel(actual);
+            AccessWriter aWriter = new AccessWriter(new WritableByteChannel() {
+                
+                @Override
+                public boolean isOpen() {
+                    return channel.isOpen();
+                }
+                
+                @Override
+                public void close() throws IOException {
+                    channel.close();
+                }
+                
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    writes.add(src.remaining());
+                    return channel.write(src);
+                }
+            });
+            aWriter.setFragmentCache(cache);
+            aWriter.write(course, "submissionSystem", blacklistedFolders);
+            aWriter.close();
+            
+            Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+            Assertions.assertEquals(expected.size() / (64 * 1024) + 1, writes.size(), "Writes: " + writes);
+        }
+        Assertions.assertEquals(3, cache.getHits());
+        Assertions.assertEquals(3, cache.getMisses());
+        
+        // Parallel rendering uses the same cached fragments
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        AccessWriter parallelWriter = new AccessWriter(Channels.newChannel(actual));
+        parallelWriter.setFragmentCache(cache);
+        parallelWriter.setParallelThreshold(0);
+        parallelWriter.write(course, "submissionSystem", blacklistedFolders);
+        parallelWriter.close();
+        Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        Assertions.assertEquals(6, cache.getHits());
+    }
+    
+    /**
+     * Writes the course with a {@link FragmentCache} and compares the result with the {@link LegacyAccessWriter}.
+     * @param course The course to write.
+     * @param cache The cache to use.
+     * @param blacklistedFolders The blacklisted folders to write.
+     * @throws IOException If an I/O error occurs during writing.
+     */
+    private static void assertCachedWriteIsIdentical(Course course, FragmentCache cache,
+        List<String> blacklistedFolders) throws IOException {
+        
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        LegacyAccessWriter legacyWriter = new LegacyAccessWriter(
+            new OutputStreamWriter(expected, StandardCharsets.UTF_8));
+        legacyWriter.write(course, "submissionSystem", blacklistedFolders);
+        legacyWriter.close();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        AccessWriter aWriter = new AccessWriter(Channels.newChannel(actual));
+        aWriter.setFragmentCache(cache);
+        aWriter.write(course, "submissionSystem", blacklistedFolders);
+        aWriter.close();
+        
+        Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+    
     // Create test data for writing -----------------------------------------------------------------------------------
     
     /**
@@ -0,0 +1,98 @@
+package net.ssehub.rightsmanagement;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class contains the test cases that belongs to {@link FragmentCache}.
+ *
+ * @author El-Sharkawy
+ *
+ */
+public class FragmentCacheTests {
+
+    /**
+     * Tests that fragments are only used for keys with equal values, that changed assignments replace their
+     * previous fragment, and that hits and misses are counted.
+     */
+    @Test
+    public void testKeysAreComparedByValue() {
+        FragmentCache cache = new FragmentCache(1024 * 1024);
+        cache.put("1", Arrays.asList("svn", "Homework", "student1"), fragment("section"));
+        long size = cache.getSize();
+
+        ByteBuffer cached = cache.get("1", Arrays.asList("svn", "Homework", new String("student1")));
+        Assertions.assertEquals(fragment("section"), cached);
+        Assertions.assertNull(cache.get("1", Arrays.asList("svn", "Homework", "student2")));
+        Assertions.assertNull(cache.get("2", Arrays.asList("svn", "Homework", "student1")));
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+        
+        // Changed assignment
+        cache.put("1", Arrays.asList("svn", "Homework", "student2"), fragment("changed"));
+        Assertions.assertEquals(size, cache.getSize());
+        Assertions.assertNull(cache.get("1", Arrays.asList("svn", "Homework", "student1")));
+        Assertions.assertEquals(fragment("changed"), cache.get("1", Arrays.asList("svn", "Homework", "student2")));
+    }
+
+    /**
+     * Tests that the least recently used fragments are evicted if the cache exceeds its memory limit.
+     */
+    @Test
+    public void testLeastRecentlyUsedAreEvicted() {
+        List<Object> key1 = Arrays.asList("Homework1");
+        List<Object> key2 = Arrays.asList("Homework2");
+        List<Object> key3 = Arrays.asList("Homework3");
+        FragmentCache cache = new FragmentCache(1000);
+        cache.put("1", key1, fragment("x".repeat(300)));
+        cache.put("2", key2, fragment("x".repeat(300)));
+        Assertions.assertNotNull(cache.get("1", key1));
+
+        // Exceeds the limit: key2 is the least recently used fragment
+        cache.put("3", key3, fragment("x".repeat(300)));
+        Assertions.assertNotNull(cache.get("1", key1));
+        Assertions.assertNull(cache.get("2", key2));
+        Assertions.assertNotNull(cache.get("3", key3));
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertTrue(cache.getSize() <= 1000);
+
+        // Larger than the whole cache: not cached
+        cache.put("2", key2, fragment("x".repeat(2000)));
+        Assertions.assertNull(cache.get("2", key2));
+        Assertions.assertNotNull(cache.get("1", key1));
+    }
+
+    /**
+     * Tests that invalidated fragments are removed and release their memory.
+     */
+    @Test
+    public void testInvalidatedFragmentsAreRemoved() {
+        List<Object> key1 = Arrays.asList("Homework1");
+        List<Object> key2 = Arrays.asList("Homework2");
+        FragmentCache cache = new FragmentCache(1024 * 1024);
+        cache.put("1", key1, fragment("section"));
+        long size = cache.getSize();
+        cache.put("2", key2, fragment("section"));
+
+        cache.invalidate(Arrays.asList("2", "unknown"));
+        Assertions.assertEquals(size, cache.getSize());
+        Assertions.assertNull(cache.get("2", key2));
+        Assertions.assertNotNull(cache.get("1", key1));
+        Assertions.assertEquals(0, cache.getEvictions());
+    }
+
+    /**
+     * Creates a rendered fragment.
+     * @param content The content of the fragment.
+     * @return The fragment, ready to be read.
+     */
+    private static ByteBuffer fragment(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,79 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class contains the test cases that belongs to {@link PathLockManager}.
+ *
+ * @author El-Sharkawy
+ *
+ */
+public class PathLockManagerTests {
+
+    /**
+     * Tests that different spellings of the same location (relative, with <tt>..</tt>, not yet existing) share the
+     * same lock.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testSameLocationSharesLock() throws IOException {
+        PathLockManager manager = new PathLockManager(1024);
+        Path folder = Files.createTempDirectory("PathLockManagerTests");
+        try {
+            Path file = folder.resolve("access");
+            Path sameFile = folder.resolve("sub").resolve("..").resolve("access");
+            Assertions.assertEquals(PathLockManager.canonicalize(file), PathLockManager.canonicalize(sameFile));
+            Assertions.assertSame(manager.getLock(file), manager.getLock(sameFile));
+            Assertions.assertEquals(PathLockManager.canonicalize(Paths.get("").toAbsolutePath().resolve("x")),
+                PathLockManager.canonicalize(Paths.get("x")));
+        } finally {
+            Files.delete(folder);
+        }
+    }
+
+    /**
+     * Tests that a held lock blocks other threads for the same path, but not for other paths, and that the waiting
+     * is counted as contention.
+     * @throws InterruptedException Not expected during test
+     */
+    @Test
+    public void testContention() throws InterruptedException {
+        PathLockManager manager = new PathLockManager(1024);
+        Path repository = Paths.get("repositories", "java");
+        Path otherRepository = Paths.get("repositories", "python");
+        Assertions.assertNotSame(manager.getLock(repository), manager.getLock(otherRepository),
+            "Test paths share a stripe, choose other names");
+
+        Lock lock = manager.lock(repository);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        CountDownLatch sameDone = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            manager.lock(otherRepository).unlock();
+            otherDone.countDown();
+            manager.lock(repository).unlock();
+            sameDone.countDown();
+        });
+        other.start();
+        try {
+            Assertions.assertTrue(otherDone.await(5, TimeUnit.SECONDS), "Unrelated path was blocked");
+            Assertions.assertFalse(sameDone.await(100, TimeUnit.MILLISECONDS), "Same path was not blocked");
+        } finally {
+            lock.unlock();
+        }
+        Assertions.assertTrue(sameDone.await(5, TimeUnit.SECONDS));
+        other.join();
+
+        Assertions.assertEquals(3, manager.getStatistics().get("acquisitions"));
+        Assertions.assertEquals(1, manager.getStatistics().get("contentions"));
+        Assertions.assertTrue(manager.getStatistics().get("maxWaitMillis") >= 50);
+    }
+}
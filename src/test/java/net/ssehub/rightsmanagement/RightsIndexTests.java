@@ -0,0 +1,160 @@
+package net.ssehub.rightsmanagement;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * This class contains the test cases that belongs to {@link RightsIndex}.
+ *
+ * @author El-Sharkawy
+ *
+ */
+public class RightsIndexTests {
+
+    private static final String SVN_NAME = "submissionSystem";
+
+    /**
+     * Creates a course with assignments in all states, a team, single students, and an empty group.
+     * @param tutors The tutor group of the course.
+     * @return The course.
+     */
+    private static Course createCourse(Group tutors) {
+        Course course = new Course();
+        course.setTutors(tutors);
+        Group team = new Group("Team");
+        team.addMembers(new User("member1", "member1", ""), new User("member2", "member2", ""));
+        Group single = new Group("single");
+        single.addMembers(new User("single", "single", ""));
+        List<ManagedAssignment> assignments = new ArrayList<>();
+        State[] states = {State.SUBMISSION, State.IN_REVIEW, State.REVIEWED, State.INVISIBLE};
+        for (int i = 0; i < states.length; i++) {
+            ManagedAssignment assignment = new ManagedAssignment("Homework " + i, String.valueOf(i), states[i], true,
+                0);
+            assignment.addGroup(team);
+            assignment.addGroup(single);
+            assignment.addGroup(new Group("Empty"));
+            assignments.add(assignment);
+        }
+        course.setAssignments(assignments);
+        return course;
+    }
+
+    /**
+     * Asserts that the index grants the same rights as the access file written for the same course and as the index,
+     * which is read from that access file.
+     * @param course The course to test.
+     * @param blacklistedFolders The blacklisted folders of the course.
+     * @param globRules <tt>true</tt> to write assignments without member rights as glob rule.
+     * @throws IOException Not expected during test
+     */
+    private static void assertSameRightsAsAccessFile(Course course, List<String> blacklistedFolders,
+        boolean globRules) throws IOException {
+
+        StringWriter out = new StringWriter();
+        try (AccessWriter writer = new AccessWriter(out)) {
+            writer.setGlobRules(globRules);
+            writer.write(course, SVN_NAME, blacklistedFolders);
+        }
+        AccessModel model = AccessReader.read(new ByteArrayInputStream(
+            out.toString().getBytes(StandardCharsets.UTF_8)));
+        RightsIndex index = new RightsIndex(course, SVN_NAME, blacklistedFolders, globRules);
+        RightsIndex readIndex = new RightsIndex(model, SVN_NAME);
+
+        // All sections, their parents, and files and sub folders inside of them
+        Set<String> paths = new LinkedHashSet<>(Arrays.asList("/", "", "/Unknown", "/Unknown/file.txt"));
+        for (ManagedAssignment assignment : course.getAssignments()) {
+            // Folders, which do not belong to a group
+            paths.add("/" + assignment.getName() + "/Other");
+            paths.add("/" + assignment.getName() + "/Other/file.txt");
+        }
+        for (String section : model.getSections()) {
+            String path = section.substring(SVN_NAME.length() + 1);
+            paths.add(path);
+            paths.add(path + "/");
+            paths.add(path + "/src/Main.java");
+            paths.add(path.substring(0, path.lastIndexOf('/') + 1));
+        }
+        Set<String> users = new LinkedHashSet<>(model.getUsers());
+        users.add("unknown");
+
+        for (String path : paths) {
+            for (String user : users) {
+                // The model expects paths without trailing separator
+                String modelPath = path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1)
+                    : path;
+                Assertions.assertEquals(model.getRightsAsString(SVN_NAME, modelPath, user),
+                    index.getRightsAsString(user, path), "Rights of " + user + " at \"" + path + "\"");
+                Assertions.assertEquals(index.getRightsAsString(user, path), readIndex.getRightsAsString(user, path),
+                    "Rights of " + user + " at \"" + path + "\" read from access file");
+            }
+        }
+    }
+
+    /**
+     * Tests that the index grants exactly the rights of the access file, including inherited rights of sub folders and
+     * blacklisted folders.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testSameRightsAsAccessFile() throws IOException {
+        Group tutors = new Group("Tutors");
+        tutors.addMembers(new User("tutor1", "tutor1", ""), new User("tutor2", "tutor2", ""));
+        Course course = createCourse(tutors);
+        assertSameRightsAsAccessFile(course, Arrays.asList("Deprecated", "Homework 0/DeprecatedGroup"), false);
+
+        RightsIndex index = new RightsIndex(course, SVN_NAME, Arrays.asList("Deprecated"));
+        Assertions.assertEquals("rw", index.getRightsAsString("member1", "/Homework 0/Team/src"));
+        Assertions.assertEquals("", index.getRightsAsString("single", "/Homework 0/Team"));
+        Assertions.assertEquals("r", index.getRightsAsString("single", "/Homework 2/single"));
+        Assertions.assertEquals("", index.getRightsAsString("single", "/Homework 1/single"));
+        Assertions.assertEquals("rw", index.getRightsAsString("tutor1", "/Homework 1/single"));
+        Assertions.assertEquals("", index.getRightsAsString("member1", "/Deprecated/file.txt"));
+        Assertions.assertEquals("r", index.getRightsAsString("member1", "/Homework 1"));
+    }
+
+    /**
+     * Tests that the index grants exactly the rights of the access file if there are no tutors.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testSameRightsAsAccessFileWithoutTutors() throws IOException {
+        assertSameRightsAsAccessFile(createCourse(new Group("Tutors")), Arrays.asList("Deprecated"), false);
+        assertSameRightsAsAccessFile(createCourse(null), null, false);
+    }
+
+    /**
+     * Tests that the index grants exactly the rights of an access file with glob rules, which also hide sub folders
+     * of assignments that do not belong to a group.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testSameRightsAsAccessFileWithGlobRules() throws IOException {
+        Group tutors = new Group("Tutors");
+        tutors.addMembers(new User("tutor1", "tutor1", ""));
+        Course course = createCourse(tutors);
+        assertSameRightsAsAccessFile(course, Arrays.asList("Deprecated", "Homework 1/DeprecatedGroup"), true);
+        assertSameRightsAsAccessFile(createCourse(null), null, true);
+
+        RightsIndex index = new RightsIndex(course, SVN_NAME, null, true);
+        Assertions.assertEquals("", index.getRightsAsString("member1", "/Homework 1/Other/file.txt"));
+        Assertions.assertEquals("rw", index.getRightsAsString("tutor1", "/Homework 1/Other"));
+        Assertions.assertEquals("r", index.getRightsAsString("member1", "/Homework 1"));
+        Assertions.assertEquals("r", index.getRightsAsString("member1", "/Homework 0/Other"));
+    }
+}
@@ -1,11 +1,19 @@
 package net.ssehub.rightsmanagement;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Assumptions;
 
 import net.ssehub.exercisesubmitter.protocol.backend.LoginComponent;
 import net.ssehub.exercisesubmitter.protocol.backend.ServerNotFoundException;
 import net.ssehub.exercisesubmitter.protocol.backend.UnknownCredentialsException;
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.model.Course;
 
 /**
  * Provides constants and utility functions used by multiple tests.
@@ -79,4 +87,41 @@ public class TestUtils {
         
         return loginComp.getManagementToken();
     }
+    
+    /**
+     * Creates a course of the default java course with two tutors, the given number of students, and individual
+     * assignments. The states of the assignments alternate in the order of {@link State}.
+     * @param nStudents The number of students (<tt>student0</tt>, <tt>student1</tt>, ...).
+     * @param nAssignments The number of assignments (<tt>Assignment 0</tt> with ID <tt>id-0</tt>, ...), each student
+     *     forms its own group.
+     * @return The course for testing.
+     */
+    public static Course createCourse(int nStudents, int nAssignments) {
+        Course course = new Course();
+        course.setCourseName(TEST_DEFAULT_JAVA_COURSE);
+        course.setSemester(TEST_DEFAULT_SEMESTER);
+        Group tutors = new Group("Tutors");
+        tutors.addMembers(new User("tutor1", "tutor1", ""), new User("tutor2", "tutor2", ""));
+        course.setTutors(tutors);
+        
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < nStudents; i++) {
+            students.add(new User("student" + i, "student" + i, ""));
+        }
+        course.setStudents(students);
+        
+        List<ManagedAssignment> assignments = new ArrayList<>();
+        State[] states = State.values();
+        for (int i = 0; i < nAssignments; i++) {
+            ManagedAssignment assignment = new ManagedAssignment("Assignment " + i, "id-" + i,
+                states[i % states.length], false, 10);
+            for (User student : students) {
+                assignment.addGroup(Group.createSingleStudentGroup(student));
+            }
+            assignments.add(assignment);
+        }
+        course.setAssignments(assignments);
+        
+        return course;
+    }
 }
@@ -0,0 +1,152 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
+import net.ssehub.rightsmanagement.model.Course;
+import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
+
+/**
+ * Tests the {@link CourseUpdateQueue}.
+ * @author El-Sharkawy
+ *
+ */
+public class CourseUpdateQueueTest {
+
+    private static final CourseConfiguration CONFIG;
+
+    static {
+        CourseConfiguration config = new CourseConfiguration();
+        config.setCourseName("java");
+        config.setSemester("wise1920");
+        config.setSvnName("javaAssignments");
+        CONFIG = config;
+    }
+
+    /**
+     * Handler which records the processed batches instead of updating a repository. The first rebuild blocks until
+     * it is released by the test, to simulate a burst of messages arriving during a long running rebuild.
+     * @author El-Sharkawy
+     *
+     */
+    private static class RecordingHandler extends RestUpdateHandler {
+
+        private final CountDownLatch firstRebuildStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseFirstRebuild = new CountDownLatch(1);
+        private final List<List<NotificationDto>> batches = new ArrayList<>();
+        private boolean fail;
+
+        /**
+         * Creates a handler, which won't query the student management system.
+         */
+        private RecordingHandler() {
+            super(CONFIG, null);
+        }
+
+        @Override
+        public void updateBatch(List<NotificationDto> msgs) throws IOException {
+            synchronized (batches) {
+                batches.add(new ArrayList<>(msgs));
+            }
+            firstRebuildStarted.countDown();
+            try {
+                releaseFirstRebuild.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail) {
+                throw new IOException("Simulated error");
+            }
+        }
+
+        @Override
+        protected Course computeFullConfiguration(NotificationDto msg) {
+            return new Course();
+        }
+    }
+
+    /**
+     * Tests that a burst of messages, which arrive during a running rebuild, is coalesced into one follow-up rebuild.
+     * @throws Exception Not expected during test
+     */
+    @Test
+    public void testBurstIsCoalesced() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        CourseUpdateQueue queue = new CourseUpdateQueue(handler);
+        int nMessages = 300;
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(queue.submit(new NotificationDto()));
+        Assertions.assertTrue(handler.firstRebuildStarted.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < nMessages; i++) {
+            results.add(queue.submit(new NotificationDto()));
+        }
+        Assertions.assertEquals(nMessages - 1, queue.getQueueDepth());
+
+        handler.releaseFirstRebuild.countDown();
+        for (CompletableFuture<Void> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        // First message alone, all others together in one follow-up rebuild
+        Assertions.assertEquals(2, handler.batches.size());
+        Assertions.assertEquals(1, handler.batches.get(0).size());
+        Assertions.assertEquals(nMessages - 1, handler.batches.get(1).size());
+        Assertions.assertEquals(2, queue.getRebuilds());
+        Assertions.assertEquals(nMessages, queue.getReceivedEvents());
+        Assertions.assertEquals(nMessages - 2, queue.getCoalescedEvents());
+        Assertions.assertEquals(0, queue.getQueueDepth());
+        queue.close();
+    }
+
+    /**
+     * Tests that errors of a rebuild are passed to all callers, which are waiting for that rebuild.
+     * @throws InterruptedException Not expected during test
+     * @throws TimeoutException Not expected during test
+     */
+    @Test
+    public void testErrorIsPropagated() throws InterruptedException, TimeoutException {
+        RecordingHandler handler = new RecordingHandler();
+        handler.fail = true;
+        handler.releaseFirstRebuild.countDown();
+        CourseUpdateQueue queue = new CourseUpdateQueue(handler);
+
+        CompletableFuture<Void> result = queue.submit(new NotificationDto());
+        ExecutionException exc = Assertions.assertThrows(ExecutionException.class,
+            () -> result.get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(exc.getCause() instanceof IOException);
+        queue.close();
+    }
+
+    /**
+     * Tests that messages submitted after the queue was closed are rejected instead of being queued forever.
+     */
+    @Test
+    public void testSubmitAfterCloseIsRejected() {
+        RecordingHandler handler = new RecordingHandler();
+        handler.releaseFirstRebuild.countDown();
+        CourseUpdateQueue queue = new CourseUpdateQueue(handler);
+        queue.close();
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<Void> result = queue.submit(new NotificationDto());
+            ExecutionException exc = Assertions.assertThrows(ExecutionException.class,
+                () -> result.get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(exc.getCause() instanceof RejectedExecutionException);
+            Assertions.assertEquals(0, queue.getQueueDepth());
+        }
+        Assertions.assertTrue(handler.batches.isEmpty());
+    }
+
+}
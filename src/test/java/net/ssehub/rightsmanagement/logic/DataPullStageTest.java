@@ -0,0 +1,176 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.exercisesubmitter.protocol.backend.NetworkException;
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.RightsManagementProtocol;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Tests the {@link DataPullStage}.
+ * @author El-Sharkawy
+ *
+ */
+public class DataPullStageTest {
+
+    private static final long LATENCY = 200;
+
+    /**
+     * Protocol that simulates a slow server without any network access.
+     * @author El-Sharkawy
+     *
+     */
+    private static class SlowProtocol extends RightsManagementProtocol {
+
+        private final long latency;
+        private final AtomicInteger updatedAssignments = new AtomicInteger();
+        private final AtomicInteger activeCalls = new AtomicInteger();
+        private final AtomicInteger maxActiveCalls = new AtomicInteger();
+
+        /**
+         * Creates a protocol, which answers each call after the given latency.
+         * @param latency The simulated latency in milliseconds.
+         */
+        private SlowProtocol(long latency) {
+            super("http://localhost", "http://localhost", "java", "wise1920");
+            this.latency = latency;
+        }
+
+        /**
+         * Simulates the latency of the server.
+         */
+        private void delay() {
+            maxActiveCalls.accumulateAndGet(activeCalls.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeCalls.decrementAndGet();
+            }
+        }
+
+        @Override
+        public Group getTutors() throws NetworkException {
+            delay();
+            Group tutors = new Group("Tutors");
+            tutors.addMembers(new User("Tutor", "tutor", null));
+            return tutors;
+        }
+
+        @Override
+        public List<User> getStudents() throws NetworkException {
+            delay();
+            return new ArrayList<>(Arrays.asList(new User("Student", "student", null)));
+        }
+
+        @Override
+        public List<ManagedAssignment> loadAssignments(List<User> students) throws NetworkException {
+            delay();
+            List<ManagedAssignment> assignments = new ArrayList<>();
+            assignments.add(new ManagedAssignment("Test", "1", State.SUBMISSION, false, 0));
+            return assignments;
+        }
+
+        @Override
+        public void updateAssignment(ManagedAssignment assignment) throws NetworkException {
+            delay();
+            updatedAssignments.incrementAndGet();
+        }
+    }
+
+    /**
+     * Tests that tutors are pulled in parallel to students and assignments.
+     * @throws NetworkException Not expected during test
+     */
+    @Test
+    public void testFullConfigurationIsPulledConcurrently() throws NetworkException {
+        DataPullStage stage = new DataPullStage(new SlowProtocol(LATENCY), 10000, true);
+        Course course = new Course();
+
+        long start = System.currentTimeMillis();
+        stage.pullFullConfiguration(course);
+        long duration = System.currentTimeMillis() - start;
+
+        Assertions.assertEquals("tutor", course.getTutors().iterator().next().getAccountName());
+        Assertions.assertEquals(1, course.getStudents().size());
+        Assertions.assertEquals(1, course.getAssignments().size());
+        // Sequentially this would take 3 * LATENCY, only students -> assignments depend on each other
+        Assertions.assertTrue(duration < 3 * LATENCY, "Took " + duration + " ms");
+
+        Map<String, Long> timings = stage.getTimings();
+        Assertions.assertTrue(timings.get(DataPullStage.CALL_TUTORS) >= LATENCY - 10);
+        Assertions.assertTrue(timings.get(DataPullStage.CALL_STUDENTS) >= LATENCY - 10);
+        Assertions.assertTrue(timings.get(DataPullStage.CALL_ASSIGNMENTS) >= LATENCY - 10);
+        Assertions.assertTrue(timings.containsKey(DataPullStage.CALL_TOTAL));
+    }
+
+    /**
+     * Tests that several assignments are reloaded in parallel.
+     * @throws NetworkException Not expected during test
+     */
+    @Test
+    public void testAssignmentsAreUpdatedConcurrently() throws NetworkException {
+        SlowProtocol protocol = new SlowProtocol(LATENCY);
+        DataPullStage stage = new DataPullStage(protocol, 10000, true);
+        List<ManagedAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            assignments.add(new ManagedAssignment("Test" + i, String.valueOf(i), State.SUBMISSION, false, 0));
+        }
+
+        long start = System.currentTimeMillis();
+        stage.updateAssignments(assignments);
+        long duration = System.currentTimeMillis() - start;
+
+        Assertions.assertEquals(5, protocol.updatedAssignments.get());
+        Assertions.assertTrue(duration < 3 * LATENCY, "Took " + duration + " ms");
+    }
+
+    /**
+     * Tests that the calls of one connector are sent one after another, if concurrent calls are disabled.
+     * @throws NetworkException Not expected during test
+     */
+    @Test
+    public void testCallsAreSerializedPerConnector() throws NetworkException {
+        SlowProtocol protocol = new SlowProtocol(50);
+        DataPullStage stage = new DataPullStage(protocol, 10000, false);
+        List<ManagedAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            assignments.add(new ManagedAssignment("Test" + i, String.valueOf(i), State.SUBMISSION, false, 0));
+        }
+
+        Course course = new Course();
+        stage.pullFullConfiguration(course);
+        stage.updateAssignments(assignments);
+
+        Assertions.assertEquals(1, course.getAssignments().size());
+        Assertions.assertEquals(1, stage.loadAssignments(null).size());
+        Assertions.assertEquals(5, protocol.updatedAssignments.get());
+        Assertions.assertEquals(1, protocol.maxActiveCalls.get());
+    }
+
+    /**
+     * Tests that a call, which does not finish in time, is aborted with a {@link NetworkException}.
+     */
+    @Test
+    public void testTimeout() {
+        DataPullStage stage = new DataPullStage(new SlowProtocol(5000), 100, false);
+
+        long start = System.currentTimeMillis();
+        Assertions.assertThrows(NetworkException.class, () -> stage.pullFullConfiguration(new Course()));
+        long duration = System.currentTimeMillis() - start;
+        Assertions.assertTrue(duration < 1000, "Took " + duration + " ms");
+    }
+
+}
@@ -0,0 +1,69 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link DebounceScheduler}.
+ * @author El-Sharkawy
+ *
+ */
+public class DebounceSchedulerTest {
+
+    /**
+     * Tests that a burst of triggers results in exactly one execution after the quiet window.
+     * @throws InterruptedException Not expected during test
+     */
+    @Test
+    public void testBurstIsExecutedOnce() throws InterruptedException {
+        AtomicInteger nRuns = new AtomicInteger();
+        DebounceScheduler scheduler = new DebounceScheduler("test", 200, 10000, nRuns::incrementAndGet);
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.trigger();
+        }
+        Assertions.assertTrue(scheduler.isPending());
+        Assertions.assertEquals(0, nRuns.get());
+
+        Thread.sleep(1000);
+        Assertions.assertEquals(1, nRuns.get());
+        Assertions.assertFalse(scheduler.isPending());
+        scheduler.close();
+    }
+
+    /**
+     * Tests that a continuous stream of triggers does not starve the execution, the action is executed at the latest
+     * after the maximum wait time.
+     * @throws InterruptedException Not expected during test
+     */
+    @Test
+    public void testMaxWaitAvoidsStarvation() throws InterruptedException {
+        AtomicInteger nRuns = new AtomicInteger();
+        DebounceScheduler scheduler = new DebounceScheduler("test", 200, 500, nRuns::incrementAndGet);
+
+        // Triggers more often than the quiet window for about 1.5 seconds
+        long end = System.currentTimeMillis() + 1500;
+        while (System.currentTimeMillis() < end) {
+            scheduler.trigger();
+            Thread.sleep(50);
+        }
+        Assertions.assertTrue(nRuns.get() >= 2, "Action was starved, executed only " + nRuns.get() + " times");
+        scheduler.close();
+    }
+
+    /**
+     * Tests that closing the scheduler executes a pending action instead of dropping it.
+     */
+    @Test
+    public void testCloseFlushesPendingAction() {
+        AtomicInteger nRuns = new AtomicInteger();
+        DebounceScheduler scheduler = new DebounceScheduler("test", 60000, 60000, nRuns::incrementAndGet);
+
+        scheduler.trigger();
+        scheduler.close();
+        Assertions.assertEquals(1, nRuns.get());
+    }
+
+}
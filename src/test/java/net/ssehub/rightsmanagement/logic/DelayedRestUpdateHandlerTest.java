@@ -0,0 +1,117 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.rightsmanagement.AccessWriter;
+import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
+import net.ssehub.rightsmanagement.model.Course;
+import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
+
+/**
+ * Tests the {@link DelayedRestUpdateHandler}.
+ * @author El-Sharkawy
+ *
+ */
+public class DelayedRestUpdateHandlerTest {
+
+    private static final CourseConfiguration CONFIG;
+
+    static {
+        CourseConfiguration config = new CourseConfiguration();
+        config.setCourseName("java");
+        config.setSemester("wise1920");
+        config.setSvnName("javaAssignments");
+        CONFIG = config;
+    }
+
+    /**
+     * Handler which counts the applied updates instead of updating a repository.
+     * @author El-Sharkawy
+     *
+     */
+    private static class CountingHandler extends DelayedRestUpdateHandler {
+
+        private final AtomicInteger nUpdates = new AtomicInteger();
+        private volatile boolean fail;
+
+        /**
+         * Creates a handler, which won't query the student management system.
+         * @param quietWindow the time to wait for further changes in milli seconds.
+         */
+        private CountingHandler(long quietWindow) {
+            super(CONFIG, null, quietWindow, 10 * quietWindow);
+        }
+
+        @Override
+        protected Course computeFullConfiguration(NotificationDto msg) {
+            return new Course();
+        }
+
+        @Override
+        protected Set<String> updateRepository(Course course) throws IOException {
+            nUpdates.incrementAndGet();
+            if (fail) {
+                throw new IOException("Repository not available");
+            }
+            return Collections.emptySet();
+        }
+
+        @Override
+        protected AccessWriter createWriter() {
+            return new AccessWriter(new StringWriter());
+        }
+    }
+
+    /**
+     * Tests that the callers are informed after the delayed update was applied and not when it was scheduled.
+     * @throws Exception Not expected during test
+     */
+    @Test
+    public void testCallersWaitForDelayedUpdate() throws Exception {
+        CountingHandler handler = new CountingHandler(300);
+        try (CourseUpdateQueue queue = new CourseUpdateQueue(handler)) {
+            CompletableFuture<Void> first = queue.submit(new NotificationDto());
+            CompletableFuture<Void> second = queue.submit(new NotificationDto());
+            Thread.sleep(100);
+            Assertions.assertFalse(first.isDone());
+            Assertions.assertFalse(second.isDone());
+
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(1, handler.nUpdates.get());
+        } finally {
+            handler.close();
+        }
+    }
+
+    /**
+     * Tests that a failed delayed update is reported to all waiting callers.
+     * @throws Exception Not expected during test
+     */
+    @Test
+    public void testFailedDelayedUpdateIsReported() throws Exception {
+        CountingHandler handler = new CountingHandler(50);
+        handler.fail = true;
+        try (CourseUpdateQueue queue = new CourseUpdateQueue(handler)) {
+            CompletableFuture<Void> result = queue.submit(new NotificationDto());
+            ExecutionException exc = Assertions.assertThrows(ExecutionException.class,
+                () -> result.get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(exc.getCause() instanceof IOException);
+
+            // Also for direct calls
+            Assertions.assertThrows(IOException.class, () -> handler.update(new NotificationDto()));
+        } finally {
+            handler.close();
+        }
+    }
+}
@@ -2,8 +2,11 @@ package net.ssehub.rightsmanagement.logic;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
@@ -19,11 +22,13 @@ import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
 import net.ssehub.exercisesubmitter.protocol.frontend.Group;
 import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
 import net.ssehub.exercisesubmitter.protocol.frontend.RightsManagementProtocol;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
 import net.ssehub.rightsmanagement.TestUtils;
 import net.ssehub.rightsmanagement.UpdateMessageLoader;
 import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
 import net.ssehub.rightsmanagement.conf.Settings;
 import net.ssehub.rightsmanagement.model.Course;
+import net.ssehub.studentmgmt.backend_api.JSON;
 import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
 
 /**
@@ -645,6 +650,155 @@ public class IncrementalUpdateHandlerTest {
         Assertions.assertEquals(expectedState, actual.getState());
     }
     
+    /**
+     * Tests that the in-memory state is updated in place and persisted (only) at shutdown as snapshot.
+     * @throws IOException Not expected during test
+     * @throws NetworkException Not expected during test
+     */
+    @Test
+    public void testStateIsPersistedAtShutdown() throws IOException, NetworkException {
+        cacheFolder = new File(TEMP_DIR, "test_SNAPSHOT");
+        cacheFolder.mkdir();
+        Settings.getConfig().setCacheDir(cacheFolder.getAbsolutePath());
+        Settings.getConfig().setCacheFlushInterval(3600);
+        CourseConfiguration config = new CourseConfiguration();
+        config.setCourseName(COURSE_NAME_FOR_TESTING);
+        config.setSemester(SEMESTER_FOR_TESTING);
+        
+        // Precondition: Cache file is created with the initial state of the server
+        OfflineProtocol protocol = new OfflineProtocol();
+        protocol.students.add(new User("Student 1", "student1", null));
+        IncrementalUpdateHandler handler = new IncrementalUpdateHandler(config, protocol);
+        File cacheFile = new File(cacheFolder, handler.getCourseID() + ".snapshot");
+        Assertions.assertTrue(cacheFile.exists());
+        
+        // Changes are applied to the in-memory state, not to the file
+        protocol.students.add(new User("Student 2", "student2", null));
+        NotificationDto courseJoined = new NotificationDto();
+        courseJoined.setEvent(NotificationDto.EventEnum.COURSE_JOINED);
+        Assertions.assertEquals(2, handler.computeFullConfiguration(courseJoined).getStudents().size());
+        Assertions.assertEquals(1, new IncrementalUpdateHandler(config, null).getCachedState().getStudents().size());
+        
+        // Post condition: Snapshot is written at shutdown
+        handler.close();
+        Assertions.assertEquals(2, new IncrementalUpdateHandler(config, null).getCachedState().getStudents().size());
+        Settings.getConfig().setCacheFlushInterval(10);
+    }
+    
+    /**
+     * Tests that a batch, which fails after it was partially applied, does not leave a half-applied state in memory
+     * or in the cache file.
+     * @throws IOException Not expected during test
+     * @throws NetworkException Not expected during test
+     */
+    @Test
+    public void testPartiallyAppliedBatchIsDiscarded() throws IOException, NetworkException {
+        cacheFolder = new File(TEMP_DIR, "test_DISCARD");
+        cacheFolder.mkdir();
+        Settings.getConfig().setCacheDir(cacheFolder.getAbsolutePath());
+        CourseConfiguration config = new CourseConfiguration();
+        config.setCourseName(COURSE_NAME_FOR_TESTING);
+        config.setSemester(SEMESTER_FOR_TESTING);
+        
+        // Precondition: Cache file is created with the initial state of the server
+        OfflineProtocol protocol = new OfflineProtocol();
+        protocol.students.add(new User("Student 1", "student1", null));
+        protocol.assignments.add(new ManagedAssignment("Test", "1", State.SUBMISSION, false, 0));
+        IncrementalUpdateHandler handler = new IncrementalUpdateHandler(config, protocol);
+        File cacheFile = new File(cacheFolder, handler.getCourseID() + ".snapshot");
+        Assertions.assertTrue(cacheFile.exists());
+        
+        // First message is applied, reloading the assignment of the second message fails
+        protocol.students.add(new User("Student 2", "student2", null));
+        protocol.offline = true;
+        NotificationDto courseJoined = new NotificationDto();
+        courseJoined.setEvent(NotificationDto.EventEnum.COURSE_JOINED);
+        NotificationDto stateChanged = new NotificationDto();
+        stateChanged.setEvent(NotificationDto.EventEnum.ASSIGNMENT_STATE_CHANGED);
+        stateChanged.setAssignmentId("1");
+        Assertions.assertThrows(NetworkException.class,
+            () -> handler.computeFullConfiguration(Arrays.asList(courseJoined, stateChanged)));
+        
+        // Post condition: Neither the partial state nor the outdated snapshot are used, the full set-up is pulled
+        Assertions.assertFalse(cacheFile.exists());
+        protocol.students.add(new User("Student 3", "student3", null));
+        protocol.offline = false;
+        Assertions.assertEquals(3, handler.getCachedState().getStudents().size());
+        handler.close();
+    }
+    
+    /**
+     * Tests that a legacy JSON cache is read and migrated to the binary snapshot format.
+     * @throws IOException Not expected during test
+     * @throws NetworkException Not expected during test
+     */
+    @Test
+    public void testMigrationOfJsonCache() throws IOException, NetworkException {
+        cacheFolder = new File(TEMP_DIR, "test_MIGRATION");
+        cacheFolder.mkdir();
+        Settings.getConfig().setCacheDir(cacheFolder.getAbsolutePath());
+        CourseConfiguration config = new CourseConfiguration();
+        config.setCourseName(COURSE_NAME_FOR_TESTING);
+        config.setSemester(SEMESTER_FOR_TESTING);
+        
+        // Precondition: Only a legacy cache exists
+        initEmptyCourse();
+        cachedState.setStudents(new ArrayList<>(Arrays.asList(new User("Student 1", "student1", null))));
+        File jsonFile = new File(cacheFolder, COURSE_NAME_FOR_TESTING + "-" + SEMESTER_FOR_TESTING + ".json");
+        Files.writeString(jsonFile.toPath(), new JSON().serialize(cachedState));
+        
+        IncrementalUpdateHandler handler = new IncrementalUpdateHandler(config, null);
+        
+        // Post condition: State was read from JSON and is written as binary snapshot
+        Assertions.assertEquals("student1", handler.getCachedState().getStudents().get(0).getAccountName());
+        File snapshotFile = new File(cacheFolder, handler.getCourseID() + ".snapshot");
+        Assertions.assertTrue(snapshotFile.exists());
+        jsonFile.delete();
+        Assertions.assertEquals("student1",
+            new IncrementalUpdateHandler(config, null).getCachedState().getStudents().get(0).getAccountName());
+    }
+    
+    /**
+     * Simulates the <b>student management system</b> without any network access.
+     * @author El-Sharkawy
+     *
+     */
+    private static class OfflineProtocol extends RightsManagementProtocol {
+        
+        private List<User> students = new ArrayList<>();
+        private List<ManagedAssignment> assignments = new ArrayList<>();
+        private boolean offline;
+        
+        /**
+         * Creates a protocol for an empty course.
+         */
+        private OfflineProtocol() {
+            super("http://localhost", "http://localhost", COURSE_NAME_FOR_TESTING, SEMESTER_FOR_TESTING);
+        }
+        
+        @Override
+        public Group getTutors() {
+            return new Group("Tutors");
+        }
+        
+        @Override
+        public List<User> getStudents() {
+            return new ArrayList<>(students);
+        }
+        
+        @Override
+        public List<ManagedAssignment> loadAssignments(List<User> studentsOfCourse) {
+            return new ArrayList<>(assignments);
+        }
+        
+        @Override
+        public void updateAssignment(ManagedAssignment assignment) throws NetworkException {
+            if (offline) {
+                throw new NetworkException("Server not reachable");
+            }
+        }
+    }
+    
     /**
      * Creates a basis {@link Course} object for the tests.
      * This can be accessed via {@link #cachedState}.
@@ -0,0 +1,130 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.rightsmanagement.AllTests;
+import net.ssehub.rightsmanagement.Unzipper;
+import net.ssehub.rightsmanagement.svn.Repository;
+import net.ssehub.rightsmanagement.svn.RepositoryMaintenance;
+import net.ssehub.rightsmanagement.svn.RepositoryNotFoundException;
+
+/**
+ * Tests the {@link MaintenanceScheduler}.
+ * @author El-Sharkawy
+ *
+ */
+public class MaintenanceSchedulerTest {
+
+    private static final long NEVER = 24 * 60 * 60 * 1000L;
+
+    private File repositoryTestFolder;
+
+    /**
+     * Tests that a repository is packed only after the quiet period and only if it was changed since the last run.
+     * @throws IOException Not expected during test
+     * @throws RepositoryNotFoundException If the repository could not be created
+     */
+    @Test
+    public void testPackAfterQuietPeriod() throws IOException, RepositoryNotFoundException {
+        repositoryTestFolder = Files.createTempDirectory("MaintenanceSchedulerTest").toFile();
+        new Repository(repositoryTestFolder.getAbsolutePath(), "test", true).close();
+        String path = repositoryTestFolder.getAbsolutePath();
+
+        // Just created -> not quiet
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(NEVER, NEVER)) {
+            scheduler.addRepository(path);
+            scheduler.runMaintenance();
+            Assertions.assertTrue(scheduler.getReports().isEmpty());
+        }
+
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(NEVER, 0)) {
+            // Same repository added by two courses
+            scheduler.addRepository(path);
+            scheduler.addRepository(path + "/.");
+            Path link = Files.createSymbolicLink(repositoryTestFolder.toPath().resolveSibling(
+                repositoryTestFolder.getName() + "-link"), repositoryTestFolder.toPath());
+            try {
+                scheduler.addRepository(link.toString());
+            } finally {
+                Files.delete(link);
+            }
+            scheduler.runMaintenance();
+            Map<String, Map<String, Long>> reports = scheduler.getReports();
+            Assertions.assertEquals(1, reports.size());
+            Map<String, Long> report = reports.values().iterator().next();
+            Assertions.assertTrue(report.containsKey("durationMillis"));
+            Assertions.assertTrue(report.get("filesBefore") > 0);
+            Assertions.assertTrue(report.get("filesAfter") > 0);
+
+            // No commits since the last run -> skipped
+            long lastRun = report.get("lastRun");
+            scheduler.runMaintenance();
+            Assertions.assertEquals(lastRun, scheduler.getReports().values().iterator().next().get("lastRun"));
+        }
+    }
+
+    /**
+     * Tests that repositories, which cannot be packed, are skipped.
+     */
+    @Test
+    public void testSkipUnsupportedRepository() {
+        repositoryTestFolder = Unzipper.unTarGz(new File(new File(AllTests.TEST_FOLDER, "Repository"),
+            "Repository_with_one_Assignment.tar.gz"));
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(NEVER, 0)) {
+            scheduler.addRepository(repositoryTestFolder.getAbsolutePath());
+            scheduler.runMaintenance();
+            scheduler.runMaintenance();
+            Assertions.assertTrue(scheduler.getReports().isEmpty());
+        }
+    }
+
+    /**
+     * Tests that unexpected errors of one repository neither affect the other repositories nor the next runs.
+     * @throws IOException Not expected during test
+     * @throws RepositoryNotFoundException If the repository could not be created
+     */
+    @Test
+    public void testErrorsDoNotStopMaintenance() throws IOException, RepositoryNotFoundException {
+        repositoryTestFolder = Files.createTempDirectory("MaintenanceSchedulerTest").toFile();
+        new Repository(repositoryTestFolder.getAbsolutePath(), "test", true).close();
+        String path = repositoryTestFolder.getAbsolutePath();
+
+        try (MaintenanceScheduler scheduler = new MaintenanceScheduler(NEVER, 0)) {
+            scheduler.addRepository(path + "-broken", new RepositoryMaintenance(path + "-broken") {
+                @Override
+                public long getLastCommitTime() {
+                    throw new IllegalStateException("Broken repository");
+                }
+            });
+            scheduler.addRepository(path);
+            scheduler.runMaintenance();
+            Assertions.assertEquals(1, scheduler.getReports().size());
+            scheduler.runMaintenance();
+            Assertions.assertEquals(1, scheduler.getReports().size());
+        }
+    }
+
+    /**
+     * Cleans up after each test execution.
+     */
+    @AfterEach
+    public void tearDown() {
+        if (null != repositoryTestFolder && repositoryTestFolder.exists()) {
+            try {
+                FileUtils.deleteDirectory(repositoryTestFolder);
+            } catch (IOException e) {
+                Assertions.fail("Could not clean up " + repositoryTestFolder.getAbsolutePath() + " after test. "
+                        + "Please delete this folder manually, otherwise next tests will fails.", e);
+            }
+        }
+    }
+}
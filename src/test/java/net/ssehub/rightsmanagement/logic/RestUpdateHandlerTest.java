@@ -3,12 +3,20 @@ package net.ssehub.rightsmanagement.logic;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Set;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
 import net.ssehub.rightsmanagement.AccessWriter;
 import net.ssehub.rightsmanagement.AllTests;
 import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
@@ -62,6 +70,11 @@ public class RestUpdateHandlerTest {
 
         private StringWriter sWriter;
         private Course courseForTesting;
+        private Set<String> deprecatedFolders;
+        private int nRepositoryUpdates;
+        private int nWrites;
+        private boolean failWrites;
+        private boolean repositoryUpToDate = true;
         
         /**
          * Creates a {@link RestUpdateHandler} instance that can be used for testing and does not write to local disk.
@@ -94,12 +107,35 @@ public class RestUpdateHandlerTest {
         @Override
         protected Set<String> updateRepository(Course course) throws IOException {
             // Avoid writing to disk during test -> Not needed
-            return null;
+            nRepositoryUpdates++;
+            return deprecatedFolders;
+        }
+        
+        @Override
+        protected boolean isRepositoryUpToDate() {
+            // Simulates commits of other clients
+            return repositoryUpToDate;
         }
         
         @Override
         protected AccessWriter createWriter() throws IOException {
             // Avoid writing to disk during test -> Use StringWriter
+            nWrites++;
+            sWriter = new StringWriter();
+            if (failWrites) {
+                return new AccessWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        throw new IOException("Disk full");
+                    }
+                    
+                    @Override
+                    public void flush() {}
+                    
+                    @Override
+                    public void close() {}
+                });
+            }
             return new AccessWriter(sWriter);            
         }
     }
@@ -119,5 +155,98 @@ public class RestUpdateHandlerTest {
         String expected = readAccessFile("minimalAccess");
         Assertions.assertEquals(expected, content);
     }
-
+    
+    /**
+     * Tests that the repository is only updated if the folders are affected, either by the course or by other clients,
+     * while the access file is always checked, since other clients may have changed it.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testRepositoryUpdateIsSkipped() throws IOException {
+        Course course = new Course();
+        ManagedAssignment assignment = new ManagedAssignment("Homework", "1", State.SUBMISSION, true, 0);
+        Group group = new Group("Group");
+        group.addMembers(new User("student1", "student1", ""));
+        assignment.addGroup(group);
+        course.setAssignments(Arrays.asList(assignment));
+        HandlerForTesting handler = new HandlerForTesting(CONFIG, course);
+        handler.deprecatedFolders = Collections.emptySet();
+        
+        handler.update(null);
+        Assertions.assertEquals(1, handler.nRepositoryUpdates);
+        Assertions.assertEquals(1, handler.nWrites);
+        String content = handler.getAccessContent();
+        
+        // Same content -> repository not affected
+        handler.update(null);
+        Assertions.assertEquals(1, handler.nRepositoryUpdates);
+        Assertions.assertEquals(2, handler.nWrites);
+        Assertions.assertEquals(content, handler.getAccessContent());
+        
+        // New member -> access file only
+        group.addMembers(new User("student2", "student2", ""));
+        handler.update(null);
+        Assertions.assertEquals(1, handler.nRepositoryUpdates);
+        Assertions.assertEquals(3, handler.nWrites);
+        Assertions.assertTrue(handler.getAccessContent().contains("student2"));
+        
+        // Same content, but a folder was created by another client -> must be black listed
+        handler.repositoryUpToDate = false;
+        handler.deprecatedFolders = Collections.singleton("Homework/Foreign");
+        handler.update(null);
+        Assertions.assertEquals(2, handler.nRepositoryUpdates);
+        Assertions.assertTrue(handler.getAccessContent().contains("Homework/Foreign"));
+        handler.repositoryUpToDate = true;
+        
+        // New group -> new folder
+        Group newGroup = new Group("NewGroup");
+        newGroup.addMembers(new User("student3", "student3", ""));
+        assignment.addGroup(newGroup);
+        handler.update(null);
+        Assertions.assertEquals(3, handler.nRepositoryUpdates);
+        Assertions.assertEquals(5, handler.nWrites);
+    }
+    
+    /**
+     * Tests that the rights of the access file are available after a restart before the first update and that the
+     * rights are only replaced after the new access file was written.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testRightsIndexIsOnlyPublishedForWrittenAccessFiles() throws IOException {
+        Path accessFile = Files.createTempFile("RestUpdateHandlerTest", "access");
+        try {
+            Files.writeString(accessFile, "[javaAssignments:/]\n* = r\n\n[javaAssignments:/Homework/Team]\n"
+                + "* = \nstudent1 = rw\n");
+            CourseConfiguration config = new CourseConfiguration();
+            config.setCourseName("java");
+            config.setSemester("wise1920");
+            config.setSvnName("javaAssignments");
+            config.setAccessPath(accessFile.toString());
+            
+            // Rights of the existing access file
+            Course course = new Course();
+            HandlerForTesting handler = new HandlerForTesting(config, course);
+            Assertions.assertEquals("rw", handler.getRightsIndex().getRightsAsString("student1", "/Homework/Team"));
+            
+            // Failed write keeps the rights of the existing access file
+            ManagedAssignment assignment = new ManagedAssignment("Homework", "1", State.SUBMISSION, true, 0);
+            Group team = new Group("Team");
+            team.addMembers(new User("student2", "student2", ""));
+            assignment.addGroup(team);
+            course.setAssignments(Arrays.asList(assignment));
+            handler.failWrites = true;
+            handler.update(null);
+            Assertions.assertEquals("rw", handler.getRightsIndex().getRightsAsString("student1", "/Homework/Team"));
+            Assertions.assertEquals("", handler.getRightsIndex().getRightsAsString("student2", "/Homework/Team"));
+            
+            // Successful write publishes the new rights
+            handler.failWrites = false;
+            handler.update(null);
+            Assertions.assertEquals("", handler.getRightsIndex().getRightsAsString("student1", "/Homework/Team"));
+            Assertions.assertEquals("rw", handler.getRightsIndex().getRightsAsString("student2", "/Homework/Team"));
+        } finally {
+            Files.delete(accessFile);
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package net.ssehub.rightsmanagement.logic;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.rightsmanagement.logic.UpdateTracker.UpdateState;
+
+/**
+ * Tests the {@link UpdateTracker}.
+ * @author El-Sharkawy
+ *
+ */
+public class UpdateTrackerTest {
+
+    /**
+     * Tests that the state of a tracked update follows the processing of the update.
+     */
+    @Test
+    public void testStateChanges() {
+        UpdateTracker tracker = new UpdateTracker();
+        CompletableFuture<Void> successful = new CompletableFuture<>();
+        CompletableFuture<Void> failing = new CompletableFuture<>();
+        
+        String successfulID = tracker.track(successful);
+        String failingID = tracker.track(failing);
+        Assertions.assertNotEquals(successfulID, failingID);
+        Assertions.assertEquals(UpdateState.ACCEPTED, tracker.getState(successfulID));
+        Assertions.assertEquals(UpdateState.ACCEPTED, tracker.getState(failingID));
+        
+        successful.complete(null);
+        failing.completeExceptionally(new IOException("Simulated error"));
+        Assertions.assertEquals(UpdateState.DONE, tracker.getState(successfulID));
+        Assertions.assertEquals(UpdateState.FAILED, tracker.getState(failingID));
+    }
+    
+    /**
+     * Tests that unknown IDs are handled.
+     */
+    @Test
+    public void testUnknownID() {
+        Assertions.assertNull(new UpdateTracker().getState("not-existing"));
+    }
+
+}
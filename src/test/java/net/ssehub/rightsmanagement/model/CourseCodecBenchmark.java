@@ -0,0 +1,72 @@
+package net.ssehub.rightsmanagement.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.ssehub.rightsmanagement.TestUtils;
+
+/**
+ * Compares the {@link CourseCodec} with the JSON format previously used to cache courses.<p>
+ * Tagged as benchmark, thus, not executed during the regular build. Run it manually to compare load times and
+ * file sizes.
+ * @author El-Sharkawy
+ *
+ */
+@Tag("benchmark")
+public class CourseCodecBenchmark {
+
+    private static final int N_STUDENTS = 1500;
+    private static final int N_ASSIGNMENTS = 40;
+    private static final int N_RUNS = 20;
+
+    /**
+     * Measures the file size and load time of both formats.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void compareWithJson() throws IOException {
+        Course course = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+
+        // Legacy format: pretty printed JSON
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        byte[] json = gson.toJson(course).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CourseCodec.write(course, out);
+        byte[] binary = out.toByteArray();
+
+        // Warm up
+        for (int i = 0; i < N_RUNS; i++) {
+            gson.fromJson(new String(json, StandardCharsets.UTF_8), Course.class);
+            CourseCodec.read(new ByteArrayInputStream(binary));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < N_RUNS; i++) {
+            gson.fromJson(new String(json, StandardCharsets.UTF_8), Course.class);
+        }
+        long jsonTime = (System.nanoTime() - start) / N_RUNS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < N_RUNS; i++) {
+            CourseCodec.read(new ByteArrayInputStream(binary));
+        }
+        long binaryTime = (System.nanoTime() - start) / N_RUNS;
+
+        System.out.printf("%d students, %d assignments%n", N_STUDENTS, N_ASSIGNMENTS);
+        System.out.printf("JSON:     %,10d bytes, load %,8d us%n", json.length, jsonTime / 1000);
+        System.out.printf("Snapshot: %,10d bytes, load %,8d us%n", binary.length, binaryTime / 1000);
+
+        Assertions.assertTrue(binary.length < json.length);
+    }
+
+}
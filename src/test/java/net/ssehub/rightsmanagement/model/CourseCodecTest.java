@@ -0,0 +1,199 @@
+package net.ssehub.rightsmanagement.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.TestUtils;
+
+/**
+ * Tests the {@link CourseCodec}.
+ * @author El-Sharkawy
+ *
+ */
+public class CourseCodecTest {
+
+    /**
+     * Writes and reads the course via the {@link CourseCodec}.
+     * @param course The course to encode.
+     * @return The decoded course.
+     * @throws IOException Not expected during test
+     */
+    private static Course roundTrip(Course course) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CourseCodec.write(course, out);
+        return CourseCodec.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    /**
+     * Asserts that both groups have the same name and members (w.r.t. account names).
+     * @param expected The expected group.
+     * @param actual The decoded group.
+     */
+    private static void assertGroup(Group expected, Group actual) {
+        Assertions.assertEquals(expected.getName(), actual.getName());
+        Iterator<User> actualMembers = actual.iterator();
+        for (User member : expected) {
+            Assertions.assertTrue(actualMembers.hasNext());
+            Assertions.assertEquals(member.getAccountName(), actualMembers.next().getAccountName());
+        }
+        Assertions.assertFalse(actualMembers.hasNext());
+    }
+
+    /**
+     * Tests that all access relevant information survives encoding and decoding.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        Course expected = TestUtils.createCourse(10, 4);
+        ManagedAssignment groupAssignment = new ManagedAssignment("Group work", "id-g", State.SUBMISSION, true, 10);
+        Group group = new Group("Testgroup 1");
+        group.addMembers(expected.getStudents().get(0), expected.getStudents().get(1));
+        groupAssignment.addGroup(group);
+        expected.getAssignments().add(groupAssignment);
+
+        Course actual = roundTrip(expected);
+
+        Assertions.assertEquals(expected.getCourseName(), actual.getCourseName());
+        Assertions.assertEquals(expected.getSemester(), actual.getSemester());
+        assertGroup(expected.getTutors(), actual.getTutors());
+        Assertions.assertEquals(expected.getStudents().size(), actual.getStudents().size());
+        for (int i = 0; i < expected.getStudents().size(); i++) {
+            Assertions.assertEquals(expected.getStudents().get(i).getAccountName(),
+                actual.getStudents().get(i).getAccountName());
+        }
+        Assertions.assertEquals(expected.getAssignments().size(), actual.getAssignments().size());
+        for (int i = 0; i < expected.getAssignments().size(); i++) {
+            ManagedAssignment expectedAssignment = expected.getAssignments().get(i);
+            ManagedAssignment actualAssignment = actual.getAssignments().get(i);
+            Assertions.assertEquals(expectedAssignment.getName(), actualAssignment.getName());
+            Assertions.assertEquals(expectedAssignment.getID(), actualAssignment.getID());
+            Assertions.assertEquals(expectedAssignment.getState(), actualAssignment.getState());
+            Assertions.assertEquals(expectedAssignment.isGroupWork(), actualAssignment.isGroupWork());
+            Iterator<Group> actualGroups = actualAssignment.iterator();
+            for (Group expectedGroup : expectedAssignment) {
+                assertGroup(expectedGroup, actualGroups.next());
+            }
+            Assertions.assertFalse(actualGroups.hasNext());
+        }
+    }
+
+    /**
+     * Tests that an empty course (without tutors, names, or states) can be encoded.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testEmptyCourse() throws IOException {
+        Course expected = new Course();
+        expected.setAssignments(Arrays.asList(new ManagedAssignment(null, "id", null, false, 0)));
+
+        Course actual = roundTrip(expected);
+
+        Assertions.assertNull(actual.getCourseName());
+        Assertions.assertNull(actual.getTutors());
+        Assertions.assertTrue(actual.getStudents().isEmpty());
+        Assertions.assertNull(actual.getAssignments().get(0).getName());
+        Assertions.assertNull(actual.getAssignments().get(0).getState());
+    }
+
+    /**
+     * Tests that decoded users are shared between groups, i.e., each user is stored only once.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testUsersAreShared() throws IOException {
+        Course actual = roundTrip(TestUtils.createCourse(5, 3));
+
+        User student = actual.getStudents().get(2);
+        for (ManagedAssignment assignment : actual.getAssignments()) {
+            Iterator<Group> groups = assignment.iterator();
+            groups.next();
+            groups.next();
+            Assertions.assertSame(student, groups.next().iterator().next());
+        }
+    }
+
+    /**
+     * Tests that other formats (e.g., legacy JSON caches) are rejected.
+     */
+    @Test
+    public void testRejectsOtherFormats() {
+        byte[] json = "{\"courseName\": \"java\"}".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThrows(IOException.class, () -> CourseCodec.read(new ByteArrayInputStream(json)));
+    }
+
+    /**
+     * Tests that courses without lists of students and assignments can be encoded.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testNullLists() throws IOException {
+        Course expected = new Course();
+        expected.setStudents(null);
+        expected.setAssignments(null);
+
+        Course actual = roundTrip(expected);
+
+        Assertions.assertNull(actual.getStudents());
+        Assertions.assertNull(actual.getAssignments());
+    }
+
+    /**
+     * Writes the header of a snapshot and the given values.
+     * @param version The version of the snapshot.
+     * @param values The values to write after the header.
+     * @return The written snapshot.
+     * @throws IOException Not expected during test
+     */
+    private static byte[] snapshot(int version, int... values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(0x524D4353);
+        data.writeShort(version);
+        for (int value : values) {
+            data.writeInt(value);
+        }
+        data.flush();
+        return out.toByteArray();
+    }
+
+    /**
+     * Tests that corrupt counts and references as well as other versions are rejected without allocating memory.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testRejectsCorruptSnapshots() throws IOException {
+        // Huge number of strings, but the stream ends
+        byte[] hugeCount = snapshot(2, Integer.MAX_VALUE);
+        Assertions.assertThrows(IOException.class, () -> CourseCodec.read(new ByteArrayInputStream(hugeCount)));
+        // Negative number of users
+        byte[] negativeCount = snapshot(2, 0, -5);
+        Assertions.assertThrows(IOException.class, () -> CourseCodec.read(new ByteArrayInputStream(negativeCount)));
+        // Student refers to a user, which does not exist
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(snapshot(2, 0, 0, -1, -1));
+        out.write(0);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(1);
+        data.writeInt(3);
+        data.flush();
+        byte[] unknownUser = out.toByteArray();
+        Assertions.assertThrows(IOException.class, () -> CourseCodec.read(new ByteArrayInputStream(unknownUser)));
+        // Other version
+        byte[] otherVersion = snapshot(1, 0, 0, -1, -1);
+        Assertions.assertThrows(IOException.class, () -> CourseCodec.read(new ByteArrayInputStream(otherVersion)));
+    }
+
+}
@@ -0,0 +1,68 @@
+package net.ssehub.rightsmanagement.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.TestUtils;
+
+/**
+ * Measures the time to compute the {@link CourseDiff} of a large course.<p>
+ * Tagged as benchmark, thus, not executed during the regular build. Run it manually to measure the overhead per update.
+ * @author El-Sharkawy
+ *
+ */
+@Tag("benchmark")
+public class CourseDiffBenchmark {
+
+    private static final int N_STUDENTS = 1250;
+    private static final int N_ASSIGNMENTS = 40;
+    private static final int N_RUNS = 20;
+
+    /**
+     * Measures snapshot and diff of a course with 50k memberships, without and with one changed membership.
+     */
+    @Test
+    public void diffLargeCourse() {
+        Course course = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+        Course changed = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+        changed.getAssignments().get(N_ASSIGNMENTS / 2).iterator().next().addMembers(new User("New", "new", ""));
+        CourseDiff.Snapshot before = new CourseDiff.Snapshot(course);
+
+        // Warm up
+        for (int i = 0; i < N_RUNS; i++) {
+            CourseDiff.compute(before, new CourseDiff.Snapshot(course));
+            CourseDiff.compute(before, new CourseDiff.Snapshot(changed));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < N_RUNS; i++) {
+            new CourseDiff.Snapshot(course);
+        }
+        long snapshotTime = (System.nanoTime() - start) / N_RUNS;
+
+        CourseDiff.Snapshot unchangedSnapshot = new CourseDiff.Snapshot(course);
+        CourseDiff.Snapshot changedSnapshot = new CourseDiff.Snapshot(changed);
+        CourseDiff diff = null;
+        start = System.nanoTime();
+        for (int i = 0; i < N_RUNS; i++) {
+            diff = CourseDiff.compute(before, unchangedSnapshot);
+        }
+        long unchangedTime = (System.nanoTime() - start) / N_RUNS;
+        Assertions.assertTrue(diff.isEmpty());
+
+        start = System.nanoTime();
+        for (int i = 0; i < N_RUNS; i++) {
+            diff = CourseDiff.compute(before, changedSnapshot);
+        }
+        long changedTime = (System.nanoTime() - start) / N_RUNS;
+        Assertions.assertEquals(1, diff.getAddedMembers().size());
+
+        System.out.printf("%d memberships%n", N_STUDENTS * N_ASSIGNMENTS);
+        System.out.printf("Snapshot:          %,8d us%n", snapshotTime / 1000);
+        System.out.printf("Diff (unchanged):  %,8d us%n", unchangedTime / 1000);
+        System.out.printf("Diff (one member): %,8d us%n", changedTime / 1000);
+    }
+
+}
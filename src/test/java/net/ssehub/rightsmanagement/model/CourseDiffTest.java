@@ -0,0 +1,140 @@
+package net.ssehub.rightsmanagement.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.TestUtils;
+
+/**
+ * Tests the {@link CourseDiff}.
+ * @author El-Sharkawy
+ *
+ */
+public class CourseDiffTest {
+
+    /**
+     * Tests that equal courses and courses differing only in irrelevant parts (order, points, e-mails) have no diff.
+     */
+    @Test
+    public void testUnchangedCourse() {
+        Course course = TestUtils.createCourse(20, 4);
+        CourseDiff.Snapshot before = new CourseDiff.Snapshot(course);
+        CourseDiff.Snapshot after = new CourseDiff.Snapshot(TestUtils.createCourse(20, 4));
+        Assertions.assertTrue(CourseDiff.compute(before, after).isEmpty());
+
+        List<ManagedAssignment> reordered = new ArrayList<>(course.getAssignments());
+        reordered.add(reordered.remove(0));
+        course.setAssignments(reordered);
+        CourseDiff diff = CourseDiff.compute(before, new CourseDiff.Snapshot(course));
+        Assertions.assertTrue(diff.isEmpty());
+        Assertions.assertFalse(diff.isStructuralChange());
+        Assertions.assertEquals("no changes", diff.toString());
+    }
+
+    /**
+     * Tests that a missing previous state reports everything as new.
+     */
+    @Test
+    public void testInitialState() {
+        CourseDiff diff = CourseDiff.compute(null, new CourseDiff.Snapshot(TestUtils.createCourse(2, 2)));
+        Assertions.assertFalse(diff.isEmpty());
+        Assertions.assertTrue(diff.isStructuralChange());
+        Assertions.assertTrue(diff.isTutorsChanged());
+        Assertions.assertEquals(List.of("Assignment 0", "Assignment 1"), diff.getAddedAssignments());
+        Assertions.assertEquals(Set.of("id-0", "id-1"), diff.getChangedAssignments());
+    }
+
+    /**
+     * Tests that all kinds of changes are detected and classified correctly, also if the course is changed in place.
+     */
+    @Test
+    public void testChanges() {
+        Course course = TestUtils.createCourse(3, 4);
+        CourseDiff.Snapshot before = new CourseDiff.Snapshot(course);
+        List<ManagedAssignment> assignments = new ArrayList<>(course.getAssignments());
+
+        // State change and new member -> only access file is affected
+        ManagedAssignment changedState = new ManagedAssignment("Assignment 0", "id-0", State.REVIEWED, false, 10);
+        for (Group group : assignments.get(0)) {
+            changedState.addGroup(group);
+        }
+        assignments.set(0, changedState);
+        assignments.get(1).iterator().next().addMembers(new User("Joined", "joined", ""));
+        course.setAssignments(assignments);
+        CourseDiff diff = CourseDiff.compute(before, new CourseDiff.Snapshot(course));
+        Assertions.assertFalse(diff.isEmpty());
+        Assertions.assertFalse(diff.isStructuralChange());
+        Assertions.assertEquals(Map.of("Assignment 0", "INVISIBLE -> REVIEWED"), diff.getStateChanges());
+        Assertions.assertEquals(Map.of("Assignment 1/student0", Set.of("joined")), diff.getAddedMembers());
+        Assertions.assertEquals(Map.of("Assignment 1/student0", Set.of()), diff.getRemovedMembers());
+        Assertions.assertEquals(Set.of("id-0", "id-1"), diff.getChangedAssignments());
+        Assertions.assertFalse(diff.isTutorsChanged());
+
+        // New group, removed assignment, new assignment -> folders are affected
+        before = new CourseDiff.Snapshot(course);
+        Group newGroup = new Group("NewGroup");
+        newGroup.addMembers(new User("New", "new", ""));
+        assignments.get(2).addGroup(newGroup);
+        assignments.remove(3);
+        assignments.add(new ManagedAssignment("Exam", "id-exam", State.SUBMISSION, false, 10));
+        Group tutors = new Group("Tutors");
+        course.setTutors(tutors);
+        diff = CourseDiff.compute(before, new CourseDiff.Snapshot(course));
+        Assertions.assertTrue(diff.isStructuralChange());
+        Assertions.assertEquals(List.of("Assignment 2/NewGroup"), diff.getAddedGroups());
+        Assertions.assertEquals(List.of("Exam"), diff.getAddedAssignments());
+        Assertions.assertEquals(List.of("Assignment 3"), diff.getRemovedAssignments());
+        Assertions.assertEquals(Set.of("id-2", "id-3", "id-exam"), diff.getChangedAssignments());
+        Assertions.assertTrue(diff.isTutorsChanged());
+        Assertions.assertTrue(diff.toString().contains("added groups: [Assignment 2/NewGroup]"));
+    }
+
+    /**
+     * Tests that the folder fingerprint changes only if the names of assignments or groups change.
+     */
+    @Test
+    public void testFolderFingerprint() {
+        Course course = TestUtils.createCourse(5, 3);
+        long fingerprint = new CourseDiff.Snapshot(course).getFolderFingerprint();
+
+        // Order, states, members, and tutors do not affect folders
+        List<ManagedAssignment> assignments = new ArrayList<>(course.getAssignments());
+        assignments.add(assignments.remove(0));
+        ManagedAssignment changedState = new ManagedAssignment("Assignment 1", "id-1", State.REVIEWED, false, 10);
+        for (Group group : assignments.get(0)) {
+            group.addMembers(new User("Joined", "joined", ""));
+            changedState.addGroup(group);
+        }
+        assignments.set(0, changedState);
+        course.setAssignments(assignments);
+        course.setTutors(new Group("Tutors"));
+        Assertions.assertEquals(fingerprint, new CourseDiff.Snapshot(course).getFolderFingerprint());
+
+        // New group
+        assignments.get(1).addGroup(new Group("NewGroup"));
+        long withGroup = new CourseDiff.Snapshot(course).getFolderFingerprint();
+        Assertions.assertNotEquals(fingerprint, withGroup);
+
+        // Same names, but group moved to another assignment
+        Course moved = TestUtils.createCourse(5, 3);
+        moved.getAssignments().get(0).addGroup(new Group("NewGroup"));
+        Assertions.assertNotEquals(withGroup, new CourseDiff.Snapshot(moved).getFolderFingerprint());
+
+        // Renamed assignment
+        Course renamed = TestUtils.createCourse(5, 3);
+        List<ManagedAssignment> renamedAssignments = new ArrayList<>(renamed.getAssignments());
+        renamedAssignments.set(2, new ManagedAssignment("Renamed", "id-2", State.SUBMISSION, false, 10));
+        renamed.setAssignments(renamedAssignments);
+        Assertions.assertNotEquals(fingerprint, new CourseDiff.Snapshot(renamed).getFolderFingerprint());
+    }
+
+}
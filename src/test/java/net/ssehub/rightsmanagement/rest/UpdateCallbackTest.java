@@ -0,0 +1,175 @@
+package net.ssehub.rightsmanagement.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import net.ssehub.rightsmanagement.conf.Configuration;
+import net.ssehub.rightsmanagement.conf.Configuration.CourseConfiguration;
+import net.ssehub.rightsmanagement.conf.Settings;
+import net.ssehub.rightsmanagement.logic.RestUpdateHandler;
+import net.ssehub.rightsmanagement.logic.UpdateChangeListener;
+import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
+
+/**
+ * Tests the asynchronous processing of update messages via
+ * {@link net.ssehub.rightsmanagement.rest.resources.UpdateCallback}.
+ * @author El-Sharkawy
+ *
+ */
+public class UpdateCallbackTest {
+
+    private static final String COURSE_ID = "resttest-wise2021";
+
+    private RestServer server;
+    private int port;
+    private boolean oldAsyncUpdates;
+    private boolean oldTrackUpdateStatus;
+
+    /**
+     * Handler which blocks the update until it is released by the test, instead of updating a repository.
+     * @author El-Sharkawy
+     *
+     */
+    private static class BlockingHandler extends RestUpdateHandler {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        /**
+         * Creates a handler, which won't query the student management system.
+         * @param config The configuration of the course.
+         */
+        private BlockingHandler(CourseConfiguration config) {
+            super(config, null);
+        }
+
+        @Override
+        public void updateBatch(List<NotificationDto> msgs) throws IOException {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Enables asynchronous updates and starts the server at a free port.
+     * @throws IOException If no free port could be found
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        Configuration config = Settings.getConfig();
+        oldAsyncUpdates = config.isAsyncUpdates();
+        oldTrackUpdateStatus = config.isTrackUpdateStatus();
+        config.setAsyncUpdates(true);
+        config.setTrackUpdateStatus(true);
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RestServer(port, false);
+    }
+
+    /**
+     * Sends a request to the server.
+     * @param method The HTTP method.
+     * @param url The URL to request.
+     * @param body The JSON body to send, <tt>null</tt> for requests without body.
+     * @return The opened connection, the response code and headers may be read.
+     * @throws IOException If the server could not be reached
+     */
+    private static HttpURLConnection request(String method, String url, String body) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+        con.setRequestMethod(method);
+        if (null != body) {
+            con.setDoOutput(true);
+            con.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = con.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return con;
+    }
+
+    /**
+     * Queries the processing state of an accepted message.
+     * @param location The status URL as provided by the <tt>Location</tt> header.
+     * @return The parsed JSON response.
+     * @throws IOException If the server could not be reached
+     */
+    private static JsonObject getState(String location) throws IOException {
+        HttpURLConnection con = request("GET", location, null);
+        Assertions.assertEquals(200, con.getResponseCode());
+        try (InputStream in = con.getInputStream()) {
+            return new Gson().fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), JsonObject.class);
+        }
+    }
+
+    /**
+     * Tests that a message is answered with <tt>202 Accepted</tt> and that its processing state may be polled at the
+     * URL of the <tt>Location</tt> header.
+     * @throws Exception Not expected during test
+     */
+    @Test
+    public void testAcceptedMessageIsTracked() throws Exception {
+        CourseConfiguration courseConfig = new CourseConfiguration();
+        courseConfig.setCourseName("resttest");
+        courseConfig.setSemester("wise2021");
+        BlockingHandler handler = new BlockingHandler(courseConfig);
+        UpdateChangeListener.INSTANCE.register(handler);
+
+        HttpURLConnection con = request("POST", "http://localhost:" + port + "/rest/update",
+            "{\"event\": \"ASSIGNMENT_CREATED\", \"courseId\": \"" + COURSE_ID + "\"}");
+        Assertions.assertEquals(202, con.getResponseCode());
+        String location = con.getHeaderField("Location");
+        Assertions.assertNotNull(location);
+        Assertions.assertTrue(location.startsWith("http://localhost:" + port + "/rest/update/"), location);
+
+        JsonObject state = getState(location);
+        Assertions.assertEquals(location.substring(location.lastIndexOf('/') + 1), state.get("id").getAsString());
+        Assertions.assertEquals("ACCEPTED", state.get("state").getAsString());
+
+        handler.release.countDown();
+        long end = System.currentTimeMillis() + 10000;
+        String currentState = state.get("state").getAsString();
+        while (!"DONE".equals(currentState) && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+            currentState = getState(location).get("state").getAsString();
+        }
+        Assertions.assertEquals("DONE", currentState);
+
+        // Unknown IDs and courses
+        Assertions.assertEquals(404, request("GET", "http://localhost:" + port + "/rest/update/unknown", null)
+            .getResponseCode());
+        Assertions.assertEquals(406, request("POST", "http://localhost:" + port + "/rest/update",
+            "{\"event\": \"ASSIGNMENT_CREATED\", \"courseId\": \"unknown-course\"}").getResponseCode());
+    }
+
+    /**
+     * Stops the server and restores the settings.
+     */
+    @AfterEach
+    public void tearDown() {
+        if (null != server) {
+            server.close();
+        }
+        Settings.getConfig().setAsyncUpdates(oldAsyncUpdates);
+        Settings.getConfig().setTrackUpdateStatus(oldTrackUpdateStatus);
+    }
+}
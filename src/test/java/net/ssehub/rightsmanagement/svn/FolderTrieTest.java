@@ -0,0 +1,67 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link FolderTrie}.
+ * @author El-Sharkawy
+ *
+ */
+public class FolderTrieTest {
+
+    /**
+     * Tests that unused assignments are listed without their nested folders and that unused submission folders of used
+     * assignments are listed.
+     */
+    @Test
+    public void testObsoleteFolders() {
+        FolderTrie trie = new FolderTrie();
+        trie.addExisting("Homework");
+        trie.addExisting("Homework", "group1");
+        trie.addExisting("Homework", "group2");
+        trie.addExisting("Old");
+        trie.addExisting("Old", "group1");
+        trie.addExisting("Old", "group2");
+
+        trie.addExpected("Homework");
+        trie.addExpected("Homework", "group1");
+        // Not existing yet -> not obsolete
+        trie.addExpected("Exam");
+        trie.addExpected("Exam", "student1");
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("Old", "Homework/group2")), trie.getObsoleteFolders());
+    }
+
+    /**
+     * Tests that nothing is obsolete if all existing folders are expected.
+     */
+    @Test
+    public void testNothingObsolete() {
+        FolderTrie trie = new FolderTrie();
+        Assertions.assertTrue(trie.getObsoleteFolders().isEmpty());
+
+        trie.addExisting("Homework", "group1");
+        trie.addExpected("Homework", "group1");
+        Assertions.assertTrue(trie.getObsoleteFolders().isEmpty());
+    }
+
+    /**
+     * Tests hierarchies deeper than two levels: Parents of expected folders are used, too.
+     */
+    @Test
+    public void testDeepHierarchy() {
+        FolderTrie trie = new FolderTrie();
+        trie.addExisting("a", "b", "c", "d");
+        trie.addExisting("a", "b", "e");
+        trie.addExisting("a", "f", "g");
+        trie.addExpected("a", "b", "c");
+
+        Set<String> obsolete = trie.getObsoleteFolders();
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("a/b/c/d", "a/b/e", "a/f")), obsolete);
+    }
+}
@@ -0,0 +1,70 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.rightsmanagement.TestUtils;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Measures the bulk provisioning of a new semester with 100k folders.<p>
+ * Tagged as benchmark, thus, not executed during the regular build. Run it manually to measure the creation of all
+ * folders with one commit.
+ * @author El-Sharkawy
+ *
+ */
+@Tag("benchmark")
+public class ProvisioningBenchmark {
+
+    private static final int N_STUDENTS = 2500;
+    private static final int N_ASSIGNMENTS = 40;
+
+    /**
+     * Provisions an empty repository and checks a second provisioning, which has nothing to create.
+     * @throws Exception Not expected during test
+     */
+    @Test
+    public void provisionSemester() throws Exception {
+        File folder = Files.createTempDirectory("ProvisioningBenchmark").toFile();
+        try {
+            Course course = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+            int expectedFolders = N_ASSIGNMENTS * (N_STUDENTS + 1);
+            long[] addedAt = new long[1];
+            Repository repository = new Repository(folder.getAbsolutePath(), "test", true);
+            long start = System.nanoTime();
+            int nFolders = repository.provision(course, (created, total) -> {
+                if (created == total) {
+                    addedAt[0] = System.nanoTime();
+                }
+                if (created % 10000 == 0) {
+                    System.out.printf("  %,7d of %,d folders after %,d ms%n", created, total,
+                        (System.nanoTime() - start) / 1000000);
+                }
+            });
+            long end = System.nanoTime();
+            Assertions.assertEquals(expectedFolders, nFolders);
+            Assertions.assertEquals(1, repository.lastRevision());
+
+            long checkStart = System.nanoTime();
+            Assertions.assertEquals(0, new Repository(folder.getAbsolutePath(), "test", false).provision(course, null));
+            long checkTime = System.nanoTime() - checkStart;
+
+            System.out.printf("%d assignments x %d students = %,d folders%n", N_ASSIGNMENTS, N_STUDENTS, nFolders);
+            System.out.printf("Provisioning (one commit): %,8d ms (adding folders %,d ms, writing revision %,d ms)%n",
+                (end - start) / 1000000, (addedAt[0] - start) / 1000000, (end - addedAt[0]) / 1000000);
+            System.out.printf("Re-run, nothing to create: %,8d ms%n", checkTime / 1000000);
+        } finally {
+            try {
+                FileUtils.deleteDirectory(folder);
+            } catch (IOException e) {
+                System.err.println("Could not delete " + folder.getAbsolutePath());
+            }
+        }
+    }
+}
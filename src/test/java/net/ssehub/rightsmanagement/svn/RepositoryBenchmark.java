@@ -0,0 +1,118 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.rightsmanagement.TestUtils;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Measures the detection of missing folders on a large repository.<p>
+ * Tagged as benchmark, thus, not executed during the regular build. Run it manually to compare the probing of each
+ * folder with the listing of the assignment folders.
+ * @author El-Sharkawy
+ *
+ */
+@Tag("benchmark")
+public class RepositoryBenchmark {
+
+    private static final int N_STUDENTS = 1500;
+    private static final int N_ASSIGNMENTS = 10;
+    private static final int N_RUNS = 5;
+
+    /**
+     * Checks each submission folder via <tt>checkPath</tt>, as done before the folders were listed.
+     * @param file The location of the repository.
+     * @param course The course to check.
+     * @return The number of missing folders.
+     * @throws SVNException If the repository cannot be read
+     */
+    private static int probeEachFolder(File file, Course course) throws SVNException {
+        int missing = 0;
+        SVNRepository con = SVNRepositoryFactory.create(SVNURL.fromFile(file));
+        try {
+            for (ManagedAssignment assignment : course.getAssignments()) {
+                if (con.checkPath(assignment.getName(), -1) == SVNNodeKind.NONE) {
+                    missing++;
+                }
+                for (Group group : assignment) {
+                    if (con.checkPath(assignment.getName() + "/" + group.getName(), -1) == SVNNodeKind.NONE) {
+                        missing++;
+                    }
+                }
+            }
+        } finally {
+            con.closeSession();
+        }
+        return missing;
+    }
+
+    /**
+     * Compares the time to synchronize a repository, which contains already all folders.
+     * @throws Exception Not expected during test
+     */
+    @Test
+    public void compareProbingWithListing() throws Exception {
+        File folder = Files.createTempDirectory("RepositoryBenchmark").toFile();
+        try {
+            Course course = TestUtils.createCourse(N_STUDENTS, N_ASSIGNMENTS);
+            long start = System.nanoTime();
+            new Repository(folder.getAbsolutePath(), "test", true).updateRepository(course);
+            long createTime = System.nanoTime() - start;
+
+            // Warm up
+            probeEachFolder(folder, course);
+            new Repository(folder.getAbsolutePath(), "test", false).updateRepository(course);
+
+            start = System.nanoTime();
+            for (int i = 0; i < N_RUNS; i++) {
+                Assertions.assertEquals(0, probeEachFolder(folder, course));
+            }
+            long probeTime = (System.nanoTime() - start) / N_RUNS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < N_RUNS; i++) {
+                // New instance -> nothing cached, each assignment is listed once
+                Assertions.assertTrue(new Repository(folder.getAbsolutePath(), "test", false)
+                    .updateRepository(course).isEmpty());
+            }
+            long coldTime = (System.nanoTime() - start) / N_RUNS;
+
+            Repository repository = new Repository(folder.getAbsolutePath(), "test", false);
+            repository.updateRepository(course);
+            long revision = repository.lastRevision();
+            start = System.nanoTime();
+            for (int i = 0; i < N_RUNS; i++) {
+                repository.updateRepository(course);
+            }
+            long warmTime = (System.nanoTime() - start) / N_RUNS;
+            Assertions.assertEquals(revision, repository.lastRevision());
+
+            System.out.printf("%d assignments x %d students, initial creation %,d ms%n", N_ASSIGNMENTS, N_STUDENTS,
+                createTime / 1000000);
+            System.out.printf("checkPath per folder:     %,8d ms%n", probeTime / 1000000);
+            System.out.printf("Listing (cold cache):     %,8d ms%n", coldTime / 1000000);
+            System.out.printf("Listing (cached folders): %,8d ms%n", warmTime / 1000000);
+        } finally {
+            try {
+                FileUtils.deleteDirectory(folder);
+            } catch (IOException e) {
+                System.err.println("Could not delete " + folder.getAbsolutePath());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.tmatesoft.svn.core.SVNException;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.AllTests;
+import net.ssehub.rightsmanagement.Unzipper;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Tests the {@link RepositoryMaintenance}.
+ * @author El-Sharkawy
+ *
+ */
+public class RepositoryMaintenanceTest {
+
+    private static final File TEST_FOLDER = new File(AllTests.TEST_FOLDER, "Repository");
+    private File repositoryTestFolder;
+
+    /**
+     * Creates a new repository with a shard size of 4 revisions, so that a few commits complete shards.
+     * @throws IOException If the format file could not be changed
+     * @throws RepositoryNotFoundException If the repository could not be created
+     */
+    private void createRepositoryWithSmallShards() throws IOException, RepositoryNotFoundException {
+        repositoryTestFolder = Files.createTempDirectory("RepositoryMaintenanceTest").toFile();
+        new Repository(repositoryTestFolder.getAbsolutePath(), "test", true).close();
+        File format = new File(repositoryTestFolder, "db/format");
+        String content = new String(Files.readAllBytes(format.toPath()), StandardCharsets.UTF_8);
+        Assertions.assertTrue(content.contains("layout sharded 1000"), "Unexpected format: " + content);
+        // Only revision 0 exists, which is placed in the first shard for all shard sizes
+        Files.write(format.toPath(), content.replace("layout sharded 1000", "layout sharded 4")
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Packs a repository with completed shards and checks that the repository is still readable afterwards.
+     * @throws IOException Not expected during test
+     * @throws RepositoryNotFoundException If the test repository could not be created
+     * @throws SVNException Not expected during test
+     */
+    @Test
+    public void testPackReducesFiles() throws IOException, RepositoryNotFoundException, SVNException {
+        createRepositoryWithSmallShards();
+        try (Repository repo = new Repository(repositoryTestFolder.getAbsolutePath(), "test", false)) {
+            // One revision per assignment -> two completed shards
+            for (int i = 0; i < 8; i++) {
+                ManagedAssignment assignment = new ManagedAssignment("Exam" + i, String.valueOf(i),
+                    State.SUBMISSION, false, 0);
+                assignment.addGroup(Group.createSingleStudentGroup(new User("student1", "student1", "")));
+                Course course = new Course();
+                course.setAssignments(Arrays.asList(assignment));
+                repo.updateRepository(course);
+            }
+            long revision = repo.lastRevision();
+            Assertions.assertEquals(8, revision);
+
+            RepositoryMaintenance maintenance = new RepositoryMaintenance(repositoryTestFolder.getAbsolutePath());
+            Assertions.assertTrue(maintenance.isPackable());
+            long filesBefore = maintenance.countRevisionFiles();
+            Map<String, Long> report = maintenance.pack();
+            Assertions.assertEquals(filesBefore, report.get("filesBefore"));
+            Assertions.assertTrue(report.get("filesAfter") < filesBefore, "Not packed: " + report);
+            Assertions.assertEquals(report.get("filesAfter").longValue(), maintenance.countRevisionFiles());
+            Assertions.assertTrue(new File(repositoryTestFolder, "db/revs/0.pack").isDirectory());
+
+            // Packed revisions are still readable, new revisions may be added
+            Assertions.assertEquals(revision, repo.lastRevision());
+            Assertions.assertTrue(repo.pathExists("/Exam0/student1"));
+            ManagedAssignment assignment = new ManagedAssignment("Final", "9", State.SUBMISSION, false, 0);
+            assignment.addGroup(Group.createSingleStudentGroup(new User("student1", "student1", "")));
+            Course course = new Course();
+            course.setAssignments(Arrays.asList(assignment));
+            repo.updateRepository(course);
+            Assertions.assertEquals(revision + 1, repo.lastRevision());
+        }
+    }
+
+    /**
+     * Tests the detection of repositories, which cannot be packed by SVNKit.
+     * @throws IOException Not expected during test
+     */
+    @Test
+    public void testLogicalAddressingIsNotPackable() throws IOException {
+        repositoryTestFolder = Unzipper.unTarGz(new File(TEST_FOLDER, "Repository_with_one_Assignment.tar.gz"));
+        RepositoryMaintenance maintenance = new RepositoryMaintenance(repositoryTestFolder.getAbsolutePath());
+        Assertions.assertFalse(maintenance.isPackable());
+        Assertions.assertTrue(maintenance.getLastCommitTime() > 0);
+        
+        maintenance = new RepositoryMaintenance("does/not/exist");
+        Assertions.assertFalse(maintenance.isPackable());
+        Assertions.assertEquals(0, maintenance.getLastCommitTime());
+    }
+
+    /**
+     * Cleans up after each test execution.
+     */
+    @AfterEach
+    public void tearDown() {
+        if (null != repositoryTestFolder && repositoryTestFolder.exists()) {
+            try {
+                FileUtils.deleteDirectory(repositoryTestFolder);
+            } catch (IOException e) {
+                Assertions.fail("Could not clean up " + repositoryTestFolder.getAbsolutePath() + " after test. "
+                        + "Please delete this folder manually, otherwise next tests will fails.", e);
+            }
+        }
+    }
+}
@@ -2,9 +2,11 @@ package net.ssehub.rightsmanagement.svn;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
@@ -248,6 +250,133 @@ public class RepositoryTest {
         Assertions.assertSame(oldRevision, newRevision, "Repository was altered altough there was no data to write");
     }
     
+    /**
+     * Tests that {@link Repository#updateRepository(Course)} creates the folders of all assignments with <b>one</b>
+     * commit and does not create a revision if all folders exist.
+     * @throws RepositoryNotFoundException If the unpacked test repository could not be found
+     * @throws SVNException In case of {@link Repository#pathExists(String)} is broken (which is used to validate the
+     *     results).
+     */
+    @Test
+    public void testUpdateRepositoryCreatesOneRevision() throws RepositoryNotFoundException, SVNException {
+        repositoryTestFolder = Unzipper.unTarGz(new File(TEST_FOLDER, "Repository_with_one_Assignment.tar.gz"));
+        Repository repo = new Repository(repositoryTestFolder.getAbsolutePath(), "test", false);
+        long oldRevision = repo.lastRevision();
+        
+        // Existing assignment with one new group, two new assignments (one of them without groups)
+        ManagedAssignment homework = new ManagedAssignment("Homework", "1", State.SUBMISSION, true, 0);
+        Group group1 = new Group("group1");
+        group1.addMembers(new User("student1", "student1", ""));
+        Group group2 = new Group("group2");
+        group2.addMembers(new User("student2", "student2", ""));
+        homework.addAllGroups(Arrays.asList(group1, group2));
+        ManagedAssignment exam = new ManagedAssignment("Exam", "2", State.SUBMISSION, false, 0);
+        exam.addGroup(Group.createSingleStudentGroup(new User("student1", "student1", "")));
+        exam.addGroup(Group.createSingleStudentGroup(new User("student2", "student2", "")));
+        ManagedAssignment empty = new ManagedAssignment("Empty", "3", State.INVISIBLE, true, 0);
+        Course course = new Course();
+        course.setAssignments(Arrays.asList(homework, exam, empty));
+        
+        Assertions.assertFalse(repo.isUpToDate());
+        Set<String> folders = repo.updateRepository(course);
+        Assertions.assertTrue(folders.isEmpty(), "Unexpected unused folders: " + folders);
+        Assertions.assertEquals(oldRevision + 1, repo.lastRevision());
+        Assertions.assertTrue(repo.isUpToDate());
+        Assertions.assertTrue(repo.pathExists("/Homework/group2"));
+        Assertions.assertTrue(repo.pathExists("/Exam/student1"));
+        Assertions.assertTrue(repo.pathExists("/Exam/student2"));
+        Assertions.assertTrue(repo.pathExists("/Empty"));
+        
+        // Nothing to create
+        repo.updateRepository(course);
+        Assertions.assertEquals(oldRevision + 1, repo.lastRevision());
+        Assertions.assertTrue(repo.isUpToDate());
+        
+        // Folder created by another client
+        Repository otherClient = new Repository(repositoryTestFolder.getAbsolutePath(), "test", false);
+        otherClient.createOrModifyAssignment(new ManagedAssignment("Foreign", "4", State.SUBMISSION, true, 0));
+        otherClient.close();
+        Assertions.assertFalse(repo.isUpToDate());
+        Assertions.assertEquals(Set.of("Foreign"), repo.updateRepository(course));
+        Assertions.assertTrue(repo.isUpToDate());
+    }
+    
+    /**
+     * Tests that the bulk provisioning creates all folders with one commit and reports its progress.
+     * @throws RepositoryNotFoundException If the unpacked test repository could not be found
+     * @throws SVNException Not expected during test
+     */
+    @Test
+    public void testProvisionReportsProgress() throws RepositoryNotFoundException, SVNException {
+        repositoryTestFolder = Unzipper.unTarGz(new File(TEST_FOLDER, "Repository_with_one_Assignment.tar.gz"));
+        Repository repo = new Repository(repositoryTestFolder.getAbsolutePath(), "test", false);
+        long oldRevision = repo.lastRevision();
+        
+        ManagedAssignment exam = new ManagedAssignment("Exam", "2", State.SUBMISSION, false, 0);
+        for (int i = 0; i < 1500; i++) {
+            exam.addGroup(Group.createSingleStudentGroup(new User("student" + i, "student" + i, "")));
+        }
+        Course course = new Course();
+        course.setAssignments(Arrays.asList(exam));
+        
+        List<String> progress = new ArrayList<>();
+        Assertions.assertEquals(1501, repo.provision(course, (created, total) -> progress.add(created + "/" + total)));
+        Assertions.assertEquals(Arrays.asList("1000/1501", "1501/1501"), progress);
+        Assertions.assertEquals(oldRevision + 1, repo.lastRevision());
+        Assertions.assertTrue(repo.pathExists("/Exam/student0"));
+        Assertions.assertTrue(repo.pathExists("/Exam/student1499"));
+        
+        // Nothing to create
+        progress.clear();
+        Assertions.assertEquals(0, repo.provision(course, (created, total) -> progress.add(created + "/" + total)));
+        Assertions.assertTrue(progress.isEmpty());
+        Assertions.assertEquals(oldRevision + 1, repo.lastRevision());
+    }
+    
+    /**
+     * Tests that the folders are cached between updates: Own commits are applied directly to the cache, commits of
+     * other clients lead only to reading the affected folders.
+     * @throws RepositoryNotFoundException If the unpacked test repository could not be found
+     * @throws SVNException Not expected during test
+     */
+    @Test
+    public void testFolderTreeIsReusedBetweenUpdates() throws RepositoryNotFoundException, SVNException {
+        repositoryTestFolder = Unzipper.unTarGz(new File(TEST_FOLDER, "Repository_with_one_Assignment.tar.gz"));
+        Repository repo = new Repository(repositoryTestFolder.getAbsolutePath(), "test", false);
+        Set<String> expected = repo.listFolders();
+        long reads = repo.getDirectoryReads();
+        Assertions.assertEquals(2, reads, "Expected root and one assignment to be read");
+        
+        // Unchanged repository -> no reads
+        Assertions.assertEquals(expected, repo.listFolders());
+        Assertions.assertEquals(reads, repo.getDirectoryReads());
+        
+        // Own commit -> applied to the cache
+        ManagedAssignment exam = new ManagedAssignment("Exam", "2", State.SUBMISSION, false, 0);
+        exam.addGroup(Group.createSingleStudentGroup(new User("student1", "student1", "")));
+        Course course = new Course();
+        course.setAssignments(Arrays.asList(exam));
+        long revisionChecks = repo.getRevisionChecks();
+        repo.updateRepository(course);
+        Assertions.assertEquals(revisionChecks + 1, repo.getRevisionChecks(), "Expected one check per update");
+        expected.add("Exam");
+        expected.add("Exam/student1");
+        Assertions.assertEquals(expected, repo.listFolders());
+        Assertions.assertEquals(reads, repo.getDirectoryReads());
+        
+        // Commit of another client -> only root and the new assignment are read
+        Repository otherClient = new Repository(repositoryTestFolder.getAbsolutePath(), "test", false);
+        ManagedAssignment other = new ManagedAssignment("Other", "3", State.SUBMISSION, false, 0);
+        other.addGroup(Group.createSingleStudentGroup(new User("student2", "student2", "")));
+        otherClient.createOrModifyAssignment(other);
+        expected.add("Other");
+        expected.add("Other/student2");
+        Assertions.assertEquals(expected, repo.listFolders());
+        Assertions.assertEquals(reads + 2, repo.getDirectoryReads());
+        Assertions.assertEquals(expected, new Repository(repositoryTestFolder.getAbsolutePath(), "test", false)
+            .listFolders());
+    }
+    
     /**
      * Tests if the author is written to the repository.
      */
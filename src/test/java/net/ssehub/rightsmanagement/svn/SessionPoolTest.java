@@ -0,0 +1,100 @@
+package net.ssehub.rightsmanagement.svn;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.SVNRepository;
+
+import net.ssehub.exercisesubmitter.protocol.frontend.Assignment.State;
+import net.ssehub.exercisesubmitter.protocol.frontend.Group;
+import net.ssehub.exercisesubmitter.protocol.frontend.ManagedAssignment;
+import net.ssehub.exercisesubmitter.protocol.frontend.User;
+import net.ssehub.rightsmanagement.AllTests;
+import net.ssehub.rightsmanagement.Unzipper;
+import net.ssehub.rightsmanagement.model.Course;
+
+/**
+ * Tests the {@link SessionPool}.
+ * @author El-Sharkawy
+ *
+ */
+public class SessionPoolTest {
+
+    private static final File TEST_FOLDER = new File(AllTests.TEST_FOLDER, "Repository");
+    private File repositoryTestFolder;
+
+    /**
+     * Tests that sessions are reused and that failed sessions are replaced.
+     * @throws SVNException Not expected during test
+     */
+    @Test
+    public void testReuseAndReplaceSessions() throws SVNException {
+        repositoryTestFolder = Unzipper.unTarGz(new File(TEST_FOLDER, "Repository_with_one_Assignment.tar.gz"));
+        try (SessionPool pool = new SessionPool(SVNURL.fromFile(repositoryTestFolder), 2)) {
+            SVNRepository first = pool.execute(session -> session);
+            Assertions.assertSame(first, pool.execute(session -> session));
+            Assertions.assertEquals(1, pool.getOpenedSessions());
+            Assertions.assertEquals(1, pool.getReusedSessions());
+
+            // Failed operation -> session is closed and replaced
+            Assertions.assertThrows(SVNException.class, () -> pool.execute(session -> {
+                throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "Simulated failure"));
+            }));
+            Assertions.assertNotSame(first, pool.execute(session -> session));
+            Assertions.assertEquals(2, pool.getOpenedSessions());
+
+            // Nested operations use different sessions
+            SVNRepository outer = pool.execute(session -> {
+                Assertions.assertNotSame(session, pool.execute(inner -> inner));
+                return session;
+            });
+            Assertions.assertNotNull(outer);
+            Assertions.assertEquals(3, pool.getOpenedSessions());
+        }
+    }
+
+    /**
+     * Tests that all operations of a {@link Repository} share one session.
+     * @throws RepositoryNotFoundException If the unpacked test repository could not be found
+     * @throws SVNException Not expected during test
+     */
+    @Test
+    public void testRepositoryUsesOneSession() throws RepositoryNotFoundException, SVNException {
+        repositoryTestFolder = Unzipper.unTarGz(new File(TEST_FOLDER, "Repository_with_one_Assignment.tar.gz"));
+        try (Repository repo = new Repository(repositoryTestFolder.getAbsolutePath(), "test", false)) {
+            ManagedAssignment exam = new ManagedAssignment("Exam", "2", State.SUBMISSION, false, 0);
+            exam.addGroup(Group.createSingleStudentGroup(new User("student1", "student1", "")));
+            Course course = new Course();
+            course.setAssignments(Arrays.asList(exam));
+            repo.updateRepository(course);
+            repo.updateRepository(course);
+            Assertions.assertTrue(repo.pathExists("/Exam/student1"));
+            Assertions.assertTrue(repo.lastRevision() > 0);
+            Assertions.assertEquals(1, repo.getSessions().getOpenedSessions());
+        }
+    }
+
+    /**
+     * Cleans up after each test execution.
+     */
+    @AfterEach
+    public void tearDown() {
+        if (null != repositoryTestFolder && repositoryTestFolder.exists()) {
+            try {
+                FileUtils.deleteDirectory(repositoryTestFolder);
+            } catch (IOException e) {
+                Assertions.fail("Could not clean up " + repositoryTestFolder.getAbsolutePath() + " after test. "
+                        + "Please delete this folder manually, otherwise next tests will fails.", e);
+            }
+        }
+    }
+}